@@ -10,7 +10,14 @@ public class CatalogProperties {
     private boolean autoLearnEnabled = true;
     private boolean autoLearnRequireImage = true;
     private double autoLearnMinConfidence = 0.65;
+    private AutoLearnWriteBehind autoLearnWriteBehind = new AutoLearnWriteBehind();
+    private Explanations explanations = new Explanations();
     private Coverage coverage = new Coverage();
+    private ResolutionCache resolutionCache = new ResolutionCache();
+    private ParallelScoring parallelScoring = new ParallelScoring();
+    private Semantic semantic = new Semantic();
+    private MaterializedRatings materializedRatings = new MaterializedRatings();
+    private Rescore rescore = new Rescore();
 
     public boolean isAutoLearnEnabled() {
         return autoLearnEnabled;
@@ -36,6 +43,22 @@ public class CatalogProperties {
         this.autoLearnMinConfidence = autoLearnMinConfidence;
     }
 
+    public AutoLearnWriteBehind getAutoLearnWriteBehind() {
+        return autoLearnWriteBehind;
+    }
+
+    public void setAutoLearnWriteBehind(AutoLearnWriteBehind autoLearnWriteBehind) {
+        this.autoLearnWriteBehind = autoLearnWriteBehind;
+    }
+
+    public Explanations getExplanations() {
+        return explanations;
+    }
+
+    public void setExplanations(Explanations explanations) {
+        this.explanations = explanations;
+    }
+
     public Coverage getCoverage() {
         return coverage;
     }
@@ -44,9 +67,50 @@ public class CatalogProperties {
         this.coverage = coverage;
     }
 
+    public ResolutionCache getResolutionCache() {
+        return resolutionCache;
+    }
+
+    public void setResolutionCache(ResolutionCache resolutionCache) {
+        this.resolutionCache = resolutionCache;
+    }
+
+    public ParallelScoring getParallelScoring() {
+        return parallelScoring;
+    }
+
+    public void setParallelScoring(ParallelScoring parallelScoring) {
+        this.parallelScoring = parallelScoring;
+    }
+
+    public Semantic getSemantic() {
+        return semantic;
+    }
+
+    public void setSemantic(Semantic semantic) {
+        this.semantic = semantic;
+    }
+
+    public MaterializedRatings getMaterializedRatings() {
+        return materializedRatings;
+    }
+
+    public void setMaterializedRatings(MaterializedRatings materializedRatings) {
+        this.materializedRatings = materializedRatings;
+    }
+
+    public Rescore getRescore() {
+        return rescore;
+    }
+
+    public void setRescore(Rescore rescore) {
+        this.rescore = rescore;
+    }
+
     public static class Coverage {
         private double exact = 1.0;
         private double fuzzyMin = 0.65;
+        private double semanticMin = 0.6;
         private double autoLearned = 0.6;
         private double none = 0.3;
         private double inferencePenalty = 0.9;
@@ -67,6 +131,14 @@ public class CatalogProperties {
             this.fuzzyMin = fuzzyMin;
         }
 
+        public double getSemanticMin() {
+            return semanticMin;
+        }
+
+        public void setSemanticMin(double semanticMin) {
+            this.semanticMin = semanticMin;
+        }
+
         public double getAutoLearned() {
             return autoLearned;
         }
@@ -91,5 +163,250 @@ public class CatalogProperties {
             this.inferencePenalty = inferencePenalty;
         }
     }
-}
 
+    public static class ResolutionCache {
+        private boolean enabled = true;
+        private long maximumSize = 2048;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+    }
+
+    public static class AutoLearnWriteBehind {
+        private boolean enabled = true;
+        private int queueCapacity = 1024;
+        private int batchSize = 50;
+        private int maxAttempts = 3;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+    }
+
+    public static class Explanations {
+        private boolean async = true;
+        private int queueCapacity = 256;
+        private int workers = 2;
+        private double maxPerSecond = 1.0;
+        private long retryAfterMs = 300_000L;
+        private long shareWindowMs = 30_000L;
+
+        public boolean isAsync() {
+            return async;
+        }
+
+        public void setAsync(boolean async) {
+            this.async = async;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        public double getMaxPerSecond() {
+            return maxPerSecond;
+        }
+
+        public void setMaxPerSecond(double maxPerSecond) {
+            this.maxPerSecond = maxPerSecond;
+        }
+
+        public long getRetryAfterMs() {
+            return retryAfterMs;
+        }
+
+        public void setRetryAfterMs(long retryAfterMs) {
+            this.retryAfterMs = retryAfterMs;
+        }
+
+        public long getShareWindowMs() {
+            return shareWindowMs;
+        }
+
+        public void setShareWindowMs(long shareWindowMs) {
+            this.shareWindowMs = shareWindowMs;
+        }
+    }
+
+    public static class MaterializedRatings {
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class ParallelScoring {
+        private boolean enabled = true;
+        private int minCandidates = 5000;
+        private int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        private int chunkSize = 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMinCandidates() {
+            return minCandidates;
+        }
+
+        public void setMinCandidates(int minCandidates) {
+            this.minCandidates = minCandidates;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class Semantic {
+        private boolean enabled = true;
+        private double minSimilarity = 0.75;
+        private int dimensions = 256;
+        private int m = 16;
+        private int efConstruction = 100;
+        private int efSearch = 64;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getMinSimilarity() {
+            return minSimilarity;
+        }
+
+        public void setMinSimilarity(double minSimilarity) {
+            this.minSimilarity = minSimilarity;
+        }
+
+        public int getDimensions() {
+            return dimensions;
+        }
+
+        public void setDimensions(int dimensions) {
+            this.dimensions = dimensions;
+        }
+
+        public int getM() {
+            return m;
+        }
+
+        public void setM(int m) {
+            this.m = m;
+        }
+
+        public int getEfConstruction() {
+            return efConstruction;
+        }
+
+        public void setEfConstruction(int efConstruction) {
+            this.efConstruction = efConstruction;
+        }
+
+        public int getEfSearch() {
+            return efSearch;
+        }
+
+        public void setEfSearch(int efSearch) {
+            this.efSearch = efSearch;
+        }
+    }
+
+    public static class Rescore {
+        private int batchSize = 500;
+        private int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+}
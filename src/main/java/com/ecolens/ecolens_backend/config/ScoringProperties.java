@@ -1,5 +1,8 @@
 package com.ecolens.ecolens_backend.config;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -23,6 +26,8 @@ public class ScoringProperties {
     private Co2Normalization co2Normalization = new Co2Normalization();
     private FeatureThresholds featureThresholds = new FeatureThresholds();
     private Adjustments adjustments = new Adjustments();
+    private List<FeatureRule> featureRules = new ArrayList<>();
+    private Reload reload = new Reload();
 
     public int getMinScore() {
         return minScore;
@@ -128,6 +133,22 @@ public class ScoringProperties {
         this.historyGreenerThreshold = historyGreenerThreshold;
     }
 
+    public List<FeatureRule> getFeatureRules() {
+        return featureRules;
+    }
+
+    public void setFeatureRules(List<FeatureRule> featureRules) {
+        this.featureRules = featureRules;
+    }
+
+    public Reload getReload() {
+        return reload;
+    }
+
+    public void setReload(Reload reload) {
+        this.reload = reload;
+    }
+
     public Adjustments getAdjustments() {
         return adjustments;
     }
@@ -155,6 +176,8 @@ public class ScoringProperties {
     public static class Co2Normalization {
         private double lowerPercentile = 0.05;
         private double upperPercentile = 0.95;
+        private String mode = "exact";
+        private int sketchK = 200;
 
         public double getLowerPercentile() {
             return lowerPercentile;
@@ -171,6 +194,22 @@ public class ScoringProperties {
         public void setUpperPercentile(double upperPercentile) {
             this.upperPercentile = upperPercentile;
         }
+
+        public String getMode() {
+            return mode;
+        }
+
+        public void setMode(String mode) {
+            this.mode = mode;
+        }
+
+        public int getSketchK() {
+            return sketchK;
+        }
+
+        public void setSketchK(int sketchK) {
+            this.sketchK = sketchK;
+        }
     }
 
     public static class FeatureThresholds {
@@ -340,4 +379,119 @@ public class ScoringProperties {
             this.recyclabilityOrganicBonus = recyclabilityOrganicBonus;
         }
     }
+
+    // One feature adjustment rule. field is single_use, reusable, lifecycle, material, recyclability or
+    // recycled_content; text fields fire when any phrase occurs in the field, recycled_content fires at
+    // minPercent and above. Within an exclusiveGroup only the first firing rule (declaration order) applies.
+    // detail may reference {materialSource}, {recycledContent} and {threshold}.
+    public static class Reload {
+        private String file = "";
+        private long pollIntervalMs = 5000;
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public long getPollIntervalMs() {
+            return pollIntervalMs;
+        }
+
+        public void setPollIntervalMs(long pollIntervalMs) {
+            this.pollIntervalMs = pollIntervalMs;
+        }
+    }
+
+    public static class FeatureRule {
+        private String code;
+        private String label;
+        private String field;
+        private List<String> phrases = new ArrayList<>();
+        private int weight;
+        private Integer minPercent;
+        private String exclusiveGroup;
+        private String detail;
+
+        public FeatureRule() {
+        }
+
+        public FeatureRule(String code, String label, String field, List<String> phrases, int weight,
+                           Integer minPercent, String exclusiveGroup, String detail) {
+            this.code = code;
+            this.label = label;
+            this.field = field;
+            this.phrases = phrases;
+            this.weight = weight;
+            this.minPercent = minPercent;
+            this.exclusiveGroup = exclusiveGroup;
+            this.detail = detail;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public void setCode(String code) {
+            this.code = code;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public void setLabel(String label) {
+            this.label = label;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public void setField(String field) {
+            this.field = field;
+        }
+
+        public List<String> getPhrases() {
+            return phrases;
+        }
+
+        public void setPhrases(List<String> phrases) {
+            this.phrases = phrases;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+
+        public Integer getMinPercent() {
+            return minPercent;
+        }
+
+        public void setMinPercent(Integer minPercent) {
+            this.minPercent = minPercent;
+        }
+
+        public String getExclusiveGroup() {
+            return exclusiveGroup;
+        }
+
+        public void setExclusiveGroup(String exclusiveGroup) {
+            this.exclusiveGroup = exclusiveGroup;
+        }
+
+        public String getDetail() {
+            return detail;
+        }
+
+        public void setDetail(String detail) {
+            this.detail = detail;
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package com.ecolens.ecolens_backend.controller;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ecolens.ecolens_backend.dto.ScoringSimulationRequest;
+import com.ecolens.ecolens_backend.service.CatalogRescoreService;
+import com.ecolens.ecolens_backend.service.ProductService;
+import com.ecolens.ecolens_backend.service.ScoringSimulationService;
+
+@RestController
+@RequestMapping("/api/admin/catalog")
+public class CatalogAdminController {
+
+    private final ProductService productService;
+    private final CatalogRescoreService catalogRescoreService;
+    private final ScoringSimulationService scoringSimulationService;
+
+    public CatalogAdminController(
+            ProductService productService,
+            CatalogRescoreService catalogRescoreService,
+            ScoringSimulationService scoringSimulationService
+    ) {
+        this.productService = productService;
+        this.catalogRescoreService = catalogRescoreService;
+        this.scoringSimulationService = scoringSimulationService;
+    }
+
+    @GetMapping("/resolution-cache")
+    public ResponseEntity<Map<String, Object>> resolutionCacheStats() {
+        return ResponseEntity.ok(productService.resolutionCacheStats());
+    }
+
+    @PostMapping("/resolution-cache/invalidate")
+    public ResponseEntity<Map<String, Object>> invalidateResolutionCache() {
+        return ResponseEntity.ok(productService.invalidateResolutionCache());
+    }
+
+    @GetMapping("/auto-learn")
+    public ResponseEntity<Map<String, Object>> autoLearnStats() {
+        return ResponseEntity.ok(productService.autoLearnStats());
+    }
+
+    @GetMapping("/explanations")
+    public ResponseEntity<Map<String, Object>> explanationStats() {
+        return ResponseEntity.ok(productService.explanationStats());
+    }
+
+    @GetMapping("/co2-sketch")
+    public ResponseEntity<Map<String, Object>> co2Sketch() {
+        return ResponseEntity.ok(productService.co2SketchStats());
+    }
+
+    @PostMapping("/co2-sketch/merge")
+    public ResponseEntity<Map<String, Object>> mergeCo2Sketch(@RequestBody Map<String, String> request) {
+        return ResponseEntity.ok(productService.mergeCo2Sketch(request.get("sketch")));
+    }
+
+    @GetMapping("/rescore")
+    public ResponseEntity<Map<String, Object>> rescoreStatus() {
+        return ResponseEntity.ok(catalogRescoreService.status());
+    }
+
+    @PostMapping("/rescore")
+    public ResponseEntity<Map<String, Object>> startRescore() {
+        return ResponseEntity.accepted().body(catalogRescoreService.start());
+    }
+
+    @PostMapping("/simulate")
+    public ResponseEntity<Map<String, Object>> simulateScoring(@RequestBody ScoringSimulationRequest request) {
+        return ResponseEntity.ok(scoringSimulationService.simulate(request));
+    }
+}
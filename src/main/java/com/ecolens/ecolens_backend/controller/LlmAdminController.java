@@ -0,0 +1,36 @@
+package com.ecolens.ecolens_backend.controller;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ecolens.ecolens_backend.service.LLMService;
+
+@RestController
+@RequestMapping("/api/admin/llm")
+public class LlmAdminController {
+
+    private final LLMService llmService;
+
+    public LlmAdminController(LLMService llmService) {
+        this.llmService = llmService;
+    }
+
+    @GetMapping("/routing")
+    public ResponseEntity<Map<String, Object>> routingStats() {
+        return ResponseEntity.ok(llmService.routingStats());
+    }
+
+    @GetMapping("/image-preprocessing")
+    public ResponseEntity<Map<String, Object>> imagePreprocessingStats() {
+        return ResponseEntity.ok(llmService.imagePreprocessingStats());
+    }
+
+    @GetMapping("/vision-cache")
+    public ResponseEntity<Map<String, Object>> visionCacheStats() {
+        return ResponseEntity.ok(llmService.visionCacheStats());
+    }
+}
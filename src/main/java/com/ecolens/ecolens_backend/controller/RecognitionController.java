@@ -8,6 +8,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.ecolens.ecolens_backend.dto.RecognitionRequest;
@@ -27,13 +28,18 @@ public class RecognitionController {
     }
 
     @PostMapping("/recognize")
-    public ResponseEntity<RecognitionResponse> recognize(@RequestBody RecognitionRequest request) {
+    public ResponseEntity<RecognitionResponse> recognize(
+            @RequestBody RecognitionRequest request,
+            @RequestParam(name = "detail", defaultValue = "full") String detail
+    ) {
         double confidence = request.getConfidence() == null ? 0.0 : request.getConfidence();
+        boolean includeScoreFactors = !"summary".equalsIgnoreCase(detail.trim());
         try {
             RecognitionResponse response = productService.handleRecognition(
                     request.getDetectedLabel(),
                     request.getImageBase64(),
-                    confidence
+                    confidence,
+                    includeScoreFactors
             );
             return ResponseEntity.ok(response);
         } catch (Exception ex) {
@@ -42,7 +48,11 @@ public class RecognitionController {
                     request.getImageBase64() != null && !request.getImageBase64().isBlank(),
                     ex.getMessage(),
                     ex);
-            return ResponseEntity.ok(buildSafeFallback(request, confidence));
+            RecognitionResponse fallback = buildSafeFallback(request, confidence);
+            if (!includeScoreFactors) {
+                fallback.setScoreFactors(null);
+            }
+            return ResponseEntity.ok(fallback);
         }
     }
 
@@ -0,0 +1,32 @@
+package com.ecolens.ecolens_backend.controller;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ecolens.ecolens_backend.service.ScoringConfigReloader;
+
+@RestController
+@RequestMapping("/api/admin/scoring")
+public class ScoringAdminController {
+
+    private final ScoringConfigReloader scoringConfigReloader;
+
+    public ScoringAdminController(ScoringConfigReloader scoringConfigReloader) {
+        this.scoringConfigReloader = scoringConfigReloader;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> scoringConfig() {
+        return ResponseEntity.ok(scoringConfigReloader.status());
+    }
+
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Object>> reloadScoringConfig() {
+        return ResponseEntity.ok(scoringConfigReloader.reload());
+    }
+}
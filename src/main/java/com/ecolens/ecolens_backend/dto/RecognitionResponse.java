@@ -2,6 +2,8 @@ package com.ecolens.ecolens_backend.dto;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public class RecognitionResponse {
 
     private String name;
@@ -21,6 +23,7 @@ public class RecognitionResponse {
     private Integer greenerAlternativeBoost;
     private Boolean greenerAlternativeBoostApplied;
     private String scoringVersion;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<ScoreFactor> scoreFactors;
     private String catalogMatchStrategy;
     private Double catalogCoverage;
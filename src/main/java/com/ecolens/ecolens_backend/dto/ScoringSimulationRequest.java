@@ -0,0 +1,79 @@
+package com.ecolens.ecolens_backend.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ScoringSimulationRequest {
+
+    private List<Candidate> candidates = new ArrayList<>();
+    private Integer bucketWidth;
+    private List<Integer> thresholds;
+    private Boolean includeHistory;
+
+    public ScoringSimulationRequest() {
+    }
+
+    public List<Candidate> getCandidates() {
+        return candidates;
+    }
+
+    public void setCandidates(List<Candidate> candidates) {
+        this.candidates = candidates;
+    }
+
+    public Integer getBucketWidth() {
+        return bucketWidth;
+    }
+
+    public void setBucketWidth(Integer bucketWidth) {
+        this.bucketWidth = bucketWidth;
+    }
+
+    public List<Integer> getThresholds() {
+        return thresholds;
+    }
+
+    public void setThresholds(List<Integer> thresholds) {
+        this.thresholds = thresholds;
+    }
+
+    public Boolean getIncludeHistory() {
+        return includeHistory;
+    }
+
+    public void setIncludeHistory(Boolean includeHistory) {
+        this.includeHistory = includeHistory;
+    }
+
+    public static class Candidate {
+
+        private String name;
+        private Map<String, Object> overrides = new LinkedHashMap<>();
+
+        public Candidate() {
+        }
+
+        public Candidate(String name, Map<String, Object> overrides) {
+            this.name = name;
+            this.overrides = overrides;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Map<String, Object> getOverrides() {
+            return overrides;
+        }
+
+        public void setOverrides(Map<String, Object> overrides) {
+            this.overrides = overrides;
+        }
+    }
+}
@@ -51,6 +51,13 @@ public class Product {
     @Column(name = "lifecycle_type")
     private String lifecycleType;
 
+    // Written by the catalog re-score job; ecoScore stays the curated catalog input to scoring.
+    @Column(name = "rated_eco_score")
+    private Integer ratedEcoScore;
+
+    @Column(name = "rated_scoring_version")
+    private String ratedScoringVersion;
+
     public Product() {
     }
 
@@ -71,6 +78,15 @@ public class Product {
         this.lifecycleType = lifecycleType;
     }
 
+    public Product(Product source) {
+        this(source.name, source.category, source.ecoScore, source.carbonImpact, source.recyclability,
+                source.alternativeRecommendation, source.explanation, source.material, source.reusable,
+                source.singleUse, source.recycledContentPercent, source.lifecycleType);
+        this.id = source.id;
+        this.ratedEcoScore = source.ratedEcoScore;
+        this.ratedScoringVersion = source.ratedScoringVersion;
+    }
+
     public Long getId() {
         return id;
     }
@@ -170,4 +186,20 @@ public class Product {
     public void setLifecycleType(String lifecycleType) {
         this.lifecycleType = lifecycleType;
     }
+
+    public Integer getRatedEcoScore() {
+        return ratedEcoScore;
+    }
+
+    public void setRatedEcoScore(Integer ratedEcoScore) {
+        this.ratedEcoScore = ratedEcoScore;
+    }
+
+    public String getRatedScoringVersion() {
+        return ratedScoringVersion;
+    }
+
+    public void setRatedScoringVersion(String ratedScoringVersion) {
+        this.ratedScoringVersion = ratedScoringVersion;
+    }
 }
@@ -3,6 +3,7 @@ package com.ecolens.ecolens_backend.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
@@ -16,4 +17,6 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     @Query("select p.carbonImpact from Product p where p.carbonImpact is not null order by p.carbonImpact asc")
     List<Double> findAllCarbonImpactsOrdered();
+
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
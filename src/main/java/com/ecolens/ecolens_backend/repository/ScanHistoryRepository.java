@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.ecolens.ecolens_backend.model.ScanHistoryEntry;
 
@@ -20,4 +21,7 @@ public interface ScanHistoryRepository extends JpaRepository<ScanHistoryEntry, L
     List<ScanHistoryEntry> findAllByUserId(String userId);
 
     Optional<ScanHistoryEntry> findByIdAndUserId(Long id, String userId);
+
+    @Query("select h.itemName, count(h) from ScanHistoryEntry h group by h.itemName")
+    List<Object[]> countScansByItemName();
 }
@@ -0,0 +1,33 @@
+package com.ecolens.ecolens_backend.service;
+
+import com.ecolens.ecolens_backend.model.Product;
+
+// Pre-normalized, read-only view of a catalog product. The product must not be mutated once wrapped.
+record CatalogEntry(
+        Product product,
+        String normalizedName,
+        String normalizedCategory,
+        String nameCategory,
+        String categoryName,
+        String[] nameCategoryTokens,
+        int[] nameTokenIds,
+        int[] categoryTokenIds,
+        int[] nameCategoryTokenIds,
+        int[] nameTrigrams,
+        int[] categoryTrigrams,
+        int[][] tokenTrigrams,
+        String normalizedMaterial,
+        String normalizedLifecycle,
+        String normalizedRecyclability,
+        boolean materialMissing,
+        boolean lifecycleMissing,
+        boolean recyclabilityMissing
+) {
+
+    String key() {
+        if (product.getId() != null) {
+            return "id:" + product.getId();
+        }
+        return "label:" + normalizedName + "|" + normalizedCategory;
+    }
+}
@@ -0,0 +1,228 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.ecolens.ecolens_backend.config.CatalogProperties;
+import com.ecolens.ecolens_backend.model.Product;
+import com.ecolens.ecolens_backend.repository.ProductRepository;
+
+import jakarta.annotation.PreDestroy;
+
+// Re-rates every stored product with the current scoring configuration. Products are read in keyset pages
+// (JPA) or through one cursor (Mongo), each page is rated on a dedicated pool, and only rows whose rating
+// changed are written back in one batch per page.
+@Service
+public class CatalogRescoreService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogRescoreService.class);
+    private static final String UPDATE_RATING_SQL =
+            "update products set rated_eco_score = ?, rated_scoring_version = ? where id = ?";
+
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final MongoAtlasRuntimeStore mongoAtlasRuntimeStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final CatalogProperties.Rescore rescoreProperties;
+    private final ExecutorService jobExecutor;
+    private final ForkJoinPool ratingPool;
+    private final AtomicReference<RescoreJob> currentJob = new AtomicReference<>();
+
+    public CatalogRescoreService(
+            ProductService productService,
+            ProductRepository productRepository,
+            MongoAtlasRuntimeStore mongoAtlasRuntimeStore,
+            JdbcTemplate jdbcTemplate,
+            CatalogProperties catalogProperties
+    ) {
+        this.productService = productService;
+        this.productRepository = productRepository;
+        this.mongoAtlasRuntimeStore = mongoAtlasRuntimeStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.rescoreProperties = catalogProperties.getRescore();
+        this.jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-rescore");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ratingPool = new ForkJoinPool(Math.max(1, rescoreProperties.getParallelism()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobExecutor.shutdownNow();
+        ratingPool.shutdownNow();
+    }
+
+    public Map<String, Object> start() {
+        RescoreJob running = currentJob.get();
+        if (running != null && running.isRunning()) {
+            Map<String, Object> status = running.toStatus();
+            status.put("started", false);
+            return status;
+        }
+        String source = mongoAtlasRuntimeStore.isRuntimeEnabled() ? "mongo" : "jpa";
+        RescoreJob job = new RescoreJob(UUID.randomUUID().toString(), source, productService.scoringSnapshot());
+        if (!currentJob.compareAndSet(running, job)) {
+            Map<String, Object> status = currentJob.get().toStatus();
+            status.put("started", false);
+            return status;
+        }
+        jobExecutor.execute(() -> run(job));
+        Map<String, Object> status = job.toStatus();
+        status.put("started", true);
+        return status;
+    }
+
+    public Map<String, Object> status() {
+        RescoreJob job = currentJob.get();
+        if (job == null) {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("state", "idle");
+            return status;
+        }
+        return job.toStatus();
+    }
+
+    private void run(RescoreJob job) {
+        int batchSize = Math.max(1, rescoreProperties.getBatchSize());
+        try {
+            if ("mongo".equals(job.source)) {
+                mongoAtlasRuntimeStore.forEachProductBatch(batchSize, batch -> {
+                    List<Product> changed = rateBatch(job, batch);
+                    mongoAtlasRuntimeStore.updateProductRatings(changed);
+                    job.recordBatch(batch.size(), changed.size());
+                });
+            } else {
+                long lastId = 0L;
+                List<Product> batch = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, batchSize));
+                while (!batch.isEmpty()) {
+                    List<Product> changed = rateBatch(job, batch);
+                    writeJpaRatings(changed);
+                    job.recordBatch(batch.size(), changed.size());
+                    lastId = batch.get(batch.size() - 1).getId();
+                    batch = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, batchSize));
+                }
+            }
+            job.finish("completed", null);
+            log.info("Catalog re-score {} completed: processed={} updated={} elapsedMs={}",
+                    job.id, job.processed.get(), job.updated.get(), job.elapsedMs());
+        } catch (RuntimeException ex) {
+            job.finish("failed", ex.getMessage());
+            log.warn("Catalog re-score {} failed after {} products: {}", job.id, job.processed.get(), ex.getMessage());
+        }
+    }
+
+    private List<Product> rateBatch(RescoreJob job, List<Product> batch) {
+        return ratingPool.submit(() -> batch.parallelStream()
+                .filter(product -> applyRating(job, product))
+                .toList()).join();
+    }
+
+    // Returns true when the stored rating differs from the fresh one and the row needs a write.
+    private boolean applyRating(RescoreJob job, Product product) {
+        int ecoScore = productService.rateStoredProduct(product, job.scoring);
+        if (Objects.equals(product.getRatedEcoScore(), ecoScore)
+                && Objects.equals(product.getRatedScoringVersion(), job.scoringVersion)) {
+            return false;
+        }
+        product.setRatedEcoScore(ecoScore);
+        product.setRatedScoringVersion(job.scoringVersion);
+        return true;
+    }
+
+    private void writeJpaRatings(List<Product> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_RATING_SQL, changed, changed.size(), (statement, product) -> {
+            statement.setInt(1, product.getRatedEcoScore());
+            statement.setString(2, product.getRatedScoringVersion());
+            statement.setLong(3, product.getId());
+        });
+    }
+
+    private static final class RescoreJob {
+
+        private final String id;
+        private final String source;
+        // Every product in the job is rated with this snapshot, so a reload mid-run cannot stamp one config's
+        // score with another's version; the next job picks the new config up.
+        private final ScoringSnapshot scoring;
+        private final String scoringVersion;
+        private final Instant startedAt = Instant.now();
+        private final long startedNanos = System.nanoTime();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong updated = new AtomicLong();
+        private final AtomicLong batches = new AtomicLong();
+        private volatile String state = "running";
+        private volatile Instant finishedAt;
+        private volatile long finishedNanos;
+        private volatile String error;
+
+        private RescoreJob(String id, String source, ScoringSnapshot scoring) {
+            this.id = id;
+            this.source = source;
+            this.scoring = scoring;
+            this.scoringVersion = scoring.version();
+        }
+
+        private boolean isRunning() {
+            return "running".equals(state);
+        }
+
+        private void recordBatch(int size, int changed) {
+            processed.addAndGet(size);
+            updated.addAndGet(changed);
+            batches.incrementAndGet();
+        }
+
+        private void finish(String finalState, String failure) {
+            finishedNanos = System.nanoTime();
+            finishedAt = Instant.now();
+            error = failure;
+            state = finalState;
+        }
+
+        private long elapsedMs() {
+            long end = isRunning() ? System.nanoTime() : finishedNanos;
+            return (end - startedNanos) / 1_000_000L;
+        }
+
+        private Map<String, Object> toStatus() {
+            long elapsedMs = elapsedMs();
+            long processedCount = processed.get();
+            long updatedCount = updated.get();
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("state", state);
+            status.put("jobId", id);
+            status.put("source", source);
+            status.put("scoringVersion", scoringVersion);
+            status.put("startedAt", startedAt.toString());
+            status.put("finishedAt", finishedAt == null ? null : finishedAt.toString());
+            status.put("processed", processedCount);
+            status.put("updated", updatedCount);
+            status.put("unchanged", processedCount - updatedCount);
+            status.put("batches", batches.get());
+            status.put("elapsedMs", elapsedMs);
+            status.put("productsPerSecond", elapsedMs == 0 ? 0.0 : Math.round(processedCount * 10_000.0 / elapsedMs) / 10.0);
+            status.put("error", error);
+            return status;
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Immutable catalog view. Writers derive a new snapshot with withEntry and publish it atomically,
+// so readers never lock and never observe a partially applied update. The price is an O(catalog) copy per
+// write, dominated by the key and posting maps: about a millisecond at a few thousand entries, which suits
+// writes that arrive one per save or auto-learned recognition, but not bulk loads (those go through of()).
+final class CatalogSnapshot {
+
+    private static final int[] NO_ORDINALS = new int[0];
+
+    private final List<CatalogEntry> entries;
+    private final Map<String, Integer> ordinalByKey;
+    private final Map<String, int[]> exactPostings;
+    private final Map<String, int[]> tokenPostings;
+    private final int[][] trigramPostings;
+    private Co2Distribution co2Distribution;
+
+    private CatalogSnapshot(
+            List<CatalogEntry> entries,
+            Map<String, Integer> ordinalByKey,
+            Map<String, int[]> exactPostings,
+            Map<String, int[]> tokenPostings,
+            int[][] trigramPostings,
+            Co2Distribution co2Distribution
+    ) {
+        this.entries = entries;
+        this.ordinalByKey = ordinalByKey;
+        this.exactPostings = exactPostings;
+        this.tokenPostings = tokenPostings;
+        this.trigramPostings = trigramPostings;
+        this.co2Distribution = co2Distribution;
+    }
+
+    static CatalogSnapshot of(Collection<CatalogEntry> catalog) {
+        Map<String, CatalogEntry> byKey = new LinkedHashMap<>();
+        for (CatalogEntry entry : catalog) {
+            byKey.put(entry.key(), entry);
+        }
+
+        List<CatalogEntry> entries = new ArrayList<>(byKey.values());
+        Map<String, Integer> ordinalByKey = new HashMap<>();
+        Map<String, List<Integer>> exact = new HashMap<>();
+        Map<String, List<Integer>> tokens = new HashMap<>();
+        Map<Integer, List<Integer>> trigrams = new HashMap<>();
+        for (int ordinal = 0; ordinal < entries.size(); ordinal++) {
+            CatalogEntry entry = entries.get(ordinal);
+            ordinalByKey.put(entry.key(), ordinal);
+            appendPosting(exact, entry.normalizedName(), ordinal);
+            appendPosting(exact, entry.normalizedCategory(), ordinal);
+            for (String token : entry.nameCategoryTokens()) {
+                appendPosting(tokens, token, ordinal);
+            }
+            for (int trigram : entryTrigrams(entry)) {
+                appendPosting(trigrams, trigram, ordinal);
+            }
+        }
+
+        int[][] trigramPostings = new int[Trigrams.CODE_SPACE][];
+        for (Map.Entry<Integer, List<Integer>> posting : trigrams.entrySet()) {
+            trigramPostings[posting.getKey()] = posting.getValue().stream().mapToInt(Integer::intValue).toArray();
+        }
+        return new CatalogSnapshot(entries, ordinalByKey, toArrays(exact), toArrays(tokens), trigramPostings,
+                Co2Distribution.of(entries));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    List<CatalogEntry> entries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    CatalogSnapshot withEntry(CatalogEntry entry) {
+        CatalogSnapshot copy = copy();
+        copy.applyInPlace(entry);
+        return copy;
+    }
+
+    // Publishes entry in the slot of replacedKey, e.g. when a product published before it was persisted comes
+    // back from the store with an id, so the catalog does not end up holding both versions. When the stored key
+    // is already published under another ordinal, that older slot is dropped and the entry still takes over the
+    // slot of replacedKey.
+    CatalogSnapshot withEntryReplacing(String replacedKey, CatalogEntry entry) {
+        if (!ordinalByKey.containsKey(replacedKey)) {
+            return withEntry(entry);
+        }
+        CatalogSnapshot copy = copy();
+        Integer duplicate = copy.ordinalByKey.get(entry.key());
+        if (duplicate != null && !entry.key().equals(replacedKey)) {
+            copy.removeInPlace(duplicate);
+        }
+        int ordinal = copy.ordinalByKey.remove(replacedKey);
+        copy.ordinalByKey.put(entry.key(), ordinal);
+        copy.applyInPlace(entry);
+        return copy;
+    }
+
+    // Unpublishes the entry under key; the last entry moves into its slot so ordinals stay dense.
+    CatalogSnapshot withoutEntry(String key) {
+        Integer ordinal = ordinalByKey.get(key);
+        if (ordinal == null) {
+            return this;
+        }
+        CatalogSnapshot copy = copy();
+        copy.removeInPlace(ordinal);
+        return copy;
+    }
+
+    Co2Distribution co2Distribution() {
+        return co2Distribution;
+    }
+
+    Optional<CatalogEntry> findByKey(String key) {
+        Integer ordinal = ordinalByKey.get(key);
+        return ordinal == null ? Optional.empty() : Optional.of(entries.get(ordinal));
+    }
+
+    Optional<CatalogEntry> findExact(String normalizedLabel) {
+        int[] ordinals = exactPostings.get(normalizedLabel);
+        if (ordinals == null || ordinals.length == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(entries.get(ordinals[0]));
+    }
+
+    List<CatalogEntry> findTokenCandidates(String[] tokens) {
+        BitSet candidates = new BitSet(entries.size());
+        for (String token : tokens) {
+            for (int ordinal : tokenPostings.getOrDefault(token, NO_ORDINALS)) {
+                candidates.set(ordinal);
+            }
+        }
+        // Ordinal order keeps tie-breaking identical to a full catalog scan.
+        List<CatalogEntry> out = new ArrayList<>(candidates.cardinality());
+        for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+            out.add(entries.get(ordinal));
+        }
+        return out;
+    }
+
+    // Products sharing the most label trigrams, bounded to limit and returned in ordinal order.
+    List<CatalogEntry> findTrigramCandidates(int[] labelTrigrams, int minShared, int limit) {
+        if (labelTrigrams.length == 0 || entries.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int[] shared = new int[entries.size()];
+        int[] touched = new int[16];
+        int touchedCount = 0;
+        for (int trigram : labelTrigrams) {
+            int[] ordinals = trigramPostings[trigram];
+            if (ordinals == null) {
+                continue;
+            }
+            for (int ordinal : ordinals) {
+                if (shared[ordinal]++ == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touched.length * 2);
+                    }
+                    touched[touchedCount++] = ordinal;
+                }
+            }
+        }
+
+        // Bounded min-heap keyed by (shared count, lower ordinal first); the root is the weakest kept candidate.
+        long[] heap = new long[Math.min(limit, Math.max(1, touchedCount))];
+        int heapSize = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int ordinal = touched[i];
+            if (shared[ordinal] < minShared) {
+                continue;
+            }
+            long key = ((long) shared[ordinal] << 32) | (Integer.MAX_VALUE - ordinal);
+            if (heapSize < heap.length) {
+                heap[heapSize] = key;
+                siftUp(heap, heapSize++);
+            } else if (key > heap[0]) {
+                heap[0] = key;
+                siftDown(heap, heapSize);
+            }
+        }
+
+        int[] ordinals = new int[heapSize];
+        for (int i = 0; i < heapSize; i++) {
+            ordinals[i] = Integer.MAX_VALUE - (int) (heap[i] & 0xFFFFFFFFL);
+        }
+        Arrays.sort(ordinals);
+        List<CatalogEntry> out = new ArrayList<>(heapSize);
+        for (int ordinal : ordinals) {
+            out.add(entries.get(ordinal));
+        }
+        return out;
+    }
+
+    // Only called on a copy that has not been published yet; posting arrays are replaced, never mutated.
+    private CatalogSnapshot copy() {
+        return new CatalogSnapshot(
+                new ArrayList<>(entries),
+                new HashMap<>(ordinalByKey),
+                new HashMap<>(exactPostings),
+                new HashMap<>(tokenPostings),
+                Arrays.copyOf(trigramPostings, trigramPostings.length),
+                co2Distribution
+        );
+    }
+
+    private void applyInPlace(CatalogEntry entry) {
+        String key = entry.key();
+        Integer existingOrdinal = ordinalByKey.get(key);
+        int ordinal;
+        if (existingOrdinal != null) {
+            ordinal = existingOrdinal;
+            CatalogEntry previous = entries.get(ordinal);
+            removePostings(previous, ordinal);
+            entries.set(ordinal, entry);
+            co2Distribution = co2Distribution.replace(previous.product().getCarbonImpact(), entry.product().getCarbonImpact());
+        } else {
+            ordinal = entries.size();
+            entries.add(entry);
+            ordinalByKey.put(key, ordinal);
+            co2Distribution = co2Distribution.replace(null, entry.product().getCarbonImpact());
+        }
+        addPostings(entry, ordinal);
+    }
+
+    private void removeInPlace(int ordinal) {
+        CatalogEntry removed = entries.get(ordinal);
+        removePostings(removed, ordinal);
+        ordinalByKey.remove(removed.key());
+        co2Distribution = co2Distribution.replace(removed.product().getCarbonImpact(), null);
+        int last = entries.size() - 1;
+        if (ordinal != last) {
+            CatalogEntry moved = entries.get(last);
+            removePostings(moved, last);
+            entries.set(ordinal, moved);
+            ordinalByKey.put(moved.key(), ordinal);
+            addPostings(moved, ordinal);
+        }
+        entries.remove(last);
+    }
+
+    private void addPostings(CatalogEntry entry, int ordinal) {
+        addPosting(exactPostings, entry.normalizedName(), ordinal);
+        addPosting(exactPostings, entry.normalizedCategory(), ordinal);
+        for (String token : entry.nameCategoryTokens()) {
+            addPosting(tokenPostings, token, ordinal);
+        }
+        for (int trigram : entryTrigrams(entry)) {
+            trigramPostings[trigram] = withOrdinal(trigramPostings[trigram], ordinal);
+        }
+    }
+
+    private void removePostings(CatalogEntry entry, int ordinal) {
+        removePosting(exactPostings, entry.normalizedName(), ordinal);
+        removePosting(exactPostings, entry.normalizedCategory(), ordinal);
+        for (String token : entry.nameCategoryTokens()) {
+            removePosting(tokenPostings, token, ordinal);
+        }
+        for (int trigram : entryTrigrams(entry)) {
+            trigramPostings[trigram] = withoutOrdinal(trigramPostings[trigram], ordinal);
+        }
+    }
+
+    private static int[] entryTrigrams(CatalogEntry entry) {
+        int[] name = entry.nameTrigrams();
+        int[] category = entry.categoryTrigrams();
+        int[] merged = new int[name.length + category.length];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < name.length || j < category.length) {
+            int next;
+            if (j >= category.length || (i < name.length && name[i] <= category[j])) {
+                next = name[i++];
+            } else {
+                next = category[j++];
+            }
+            if (count == 0 || merged[count - 1] != next) {
+                merged[count++] = next;
+            }
+        }
+        return Arrays.copyOf(merged, count);
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= heap[index]) {
+                return;
+            }
+            long swap = heap[parent];
+            heap[parent] = heap[index];
+            heap[index] = swap;
+            index = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        int index = 0;
+        while (true) {
+            int left = index * 2 + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left + 1 < size && heap[left + 1] < heap[left] ? left + 1 : left;
+            if (heap[index] <= heap[smallest]) {
+                return;
+            }
+            long swap = heap[index];
+            heap[index] = heap[smallest];
+            heap[smallest] = swap;
+            index = smallest;
+        }
+    }
+
+    private static <K> void appendPosting(Map<K, List<Integer>> postings, K term, int ordinal) {
+        if (term == null || (term instanceof String text && text.isBlank())) {
+            return;
+        }
+        List<Integer> ordinals = postings.computeIfAbsent(term, ignored -> new ArrayList<>());
+        if (ordinals.isEmpty() || ordinals.get(ordinals.size() - 1) != ordinal) {
+            ordinals.add(ordinal);
+        }
+    }
+
+    private static Map<String, int[]> toArrays(Map<String, List<Integer>> postings) {
+        Map<String, int[]> out = new HashMap<>(Math.max(16, postings.size() * 2));
+        for (Map.Entry<String, List<Integer>> posting : postings.entrySet()) {
+            out.put(posting.getKey(), posting.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        return out;
+    }
+
+    private static void addPosting(Map<String, int[]> postings, String term, int ordinal) {
+        if (term == null || term.isBlank()) {
+            return;
+        }
+        postings.put(term, withOrdinal(postings.get(term), ordinal));
+    }
+
+    private static void removePosting(Map<String, int[]> postings, String term, int ordinal) {
+        if (term == null || term.isBlank()) {
+            return;
+        }
+        int[] remaining = withoutOrdinal(postings.get(term), ordinal);
+        if (remaining == null) {
+            postings.remove(term);
+        } else {
+            postings.put(term, remaining);
+        }
+    }
+
+    private static int[] withOrdinal(int[] current, int ordinal) {
+        if (current == null) {
+            return new int[] {ordinal};
+        }
+        int position = Arrays.binarySearch(current, ordinal);
+        if (position >= 0) {
+            return current;
+        }
+        int insertAt = -position - 1;
+        int[] next = new int[current.length + 1];
+        System.arraycopy(current, 0, next, 0, insertAt);
+        next[insertAt] = ordinal;
+        System.arraycopy(current, insertAt, next, insertAt + 1, current.length - insertAt);
+        return next;
+    }
+
+    private static int[] withoutOrdinal(int[] current, int ordinal) {
+        if (current == null) {
+            return null;
+        }
+        int position = Arrays.binarySearch(current, ordinal);
+        if (position < 0) {
+            return current;
+        }
+        if (current.length == 1) {
+            return null;
+        }
+        int[] next = new int[current.length - 1];
+        System.arraycopy(current, 0, next, 0, position);
+        System.arraycopy(current, position + 1, next, position, current.length - position - 1);
+        return next;
+    }
+}
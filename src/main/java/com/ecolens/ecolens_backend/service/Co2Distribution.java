@@ -0,0 +1,126 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+// Sorted primitive view of every catalog carbonImpact. Immutable like the snapshot that owns it: an update
+// binary-searches the changed value and copies the array once, and percentile lookups never touch storage.
+// The copy makes an update O(n) rather than O(log n). That is deliberate: the owning CatalogSnapshot copies
+// its own maps on every write anyway, and that copy costs far more than this arraycopy (see CatalogSnapshotTests).
+// Keeping the rank exact and the snapshot immutable mattered more than a Fenwick tree over quantized values.
+final class Co2Distribution {
+
+    private static final Co2Distribution EMPTY = new Co2Distribution(new double[0]);
+
+    private final double[] sorted;
+
+    private Co2Distribution(double[] sorted) {
+        this.sorted = sorted;
+    }
+
+    static Co2Distribution of(Collection<CatalogEntry> entries) {
+        double[] values = new double[entries.size()];
+        int count = 0;
+        for (CatalogEntry entry : entries) {
+            Double carbonImpact = entry.product().getCarbonImpact();
+            if (carbonImpact != null) {
+                values[count++] = carbonImpact;
+            }
+        }
+        if (count == 0) {
+            return EMPTY;
+        }
+        double[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        return new Co2Distribution(sorted);
+    }
+
+    int size() {
+        return sorted.length;
+    }
+
+    boolean isEmpty() {
+        return sorted.length == 0;
+    }
+
+    // Replaces one product's value: previous is null for a new product, next is null when it has no carbonImpact.
+    Co2Distribution replace(Double previous, Double next) {
+        if (previous == null && next == null) {
+            return this;
+        }
+        if (previous != null && next != null && Double.compare(previous, next) == 0) {
+            return this;
+        }
+        double[] out = sorted;
+        if (previous != null) {
+            out = without(out, previous);
+        }
+        if (next != null) {
+            out = with(out, next);
+        }
+        return out.length == 0 ? EMPTY : new Co2Distribution(out);
+    }
+
+    // Mid-rank of value among the samples, scaled to [0, 1]: ties share the average of their positions.
+    double percentileRank(double value) {
+        if (sorted.length < 2) {
+            return 0.5;
+        }
+        int lowerBound = firstIndexGreaterOrEqual(value);
+        int upperBound = firstIndexGreater(value);
+        double rank = lowerBound;
+        if (upperBound > lowerBound) {
+            rank = lowerBound + ((upperBound - lowerBound - 1) / 2.0);
+        }
+        return Math.max(0.0, Math.min(1.0, rank / (sorted.length - 1.0)));
+    }
+
+    private int firstIndexGreaterOrEqual(double target) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] >= target) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private int firstIndexGreater(double target) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] > target) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private static double[] with(double[] values, double value) {
+        int position = Arrays.binarySearch(values, value);
+        int insertAt = position >= 0 ? position : -position - 1;
+        double[] next = new double[values.length + 1];
+        System.arraycopy(values, 0, next, 0, insertAt);
+        next[insertAt] = value;
+        System.arraycopy(values, insertAt, next, insertAt + 1, values.length - insertAt);
+        return next;
+    }
+
+    private static double[] without(double[] values, double value) {
+        int position = Arrays.binarySearch(values, value);
+        if (position < 0) {
+            return values;
+        }
+        double[] next = new double[values.length - 1];
+        System.arraycopy(values, 0, next, 0, position);
+        System.arraycopy(values, position + 1, next, position, values.length - position - 1);
+        return next;
+    }
+}
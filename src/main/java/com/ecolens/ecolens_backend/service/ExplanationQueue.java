@@ -0,0 +1,218 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ecolens.ecolens_backend.config.CatalogProperties;
+import com.ecolens.ecolens_backend.model.Product;
+
+// Generates product explanations off the request path. Requests are keyed by catalog entry, so a product is
+// queued at most once until its generation finishes; workers share a fixed-interval rate limit on LLM calls.
+// A product whose generation fell back is not queued again until retryAfterMs has passed, and one whose
+// explanation was just stored is not queued again for shareWindowMs: a scan that read the catalog before the
+// save was published would otherwise queue a second Gemini call for the same product.
+final class ExplanationQueue {
+
+    static final String QUEUED = "queued";
+    static final String ALREADY_QUEUED = "already_queued";
+    static final String QUEUE_FULL = "queue_full";
+    static final String RETRY_LATER = "retry_later";
+    static final String RECENTLY_GENERATED = "recently_generated";
+
+    private static final Logger log = LoggerFactory.getLogger(ExplanationQueue.class);
+
+    private final LLMService llmService;
+    private final BiConsumer<String, Product> onGenerated;
+    private final BlockingQueue<String> queue;
+    private final ConcurrentHashMap<String, PendingExplanation> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> fallbackAtMillis = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> generatedAtMillis = new ConcurrentHashMap<>();
+    private final ExecutorService workers;
+    private final int workerCount;
+    private final long permitIntervalNanos;
+    private final long retryAfterMs;
+    private final long shareWindowMs;
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder recentlyGenerated = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder generationMillis = new LongAdder();
+    private final LongAdder queueWaitMillis = new LongAdder();
+    private final AtomicLong maxGenerationMillis = new AtomicLong();
+    private long nextPermitNanos;
+    private volatile boolean running = true;
+
+    ExplanationQueue(
+            LLMService llmService,
+            CatalogProperties.Explanations properties,
+            BiConsumer<String, Product> onGenerated
+    ) {
+        this.llmService = llmService;
+        this.onGenerated = onGenerated;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+        this.workerCount = Math.max(1, properties.getWorkers());
+        this.permitIntervalNanos = properties.getMaxPerSecond() > 0.0
+                ? (long) (TimeUnit.SECONDS.toNanos(1) / properties.getMaxPerSecond())
+                : 0L;
+        this.retryAfterMs = Math.max(0L, properties.getRetryAfterMs());
+        this.shareWindowMs = Math.max(0L, properties.getShareWindowMs());
+        this.nextPermitNanos = System.nanoTime();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "explanation-worker-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::work);
+        }
+    }
+
+    String submit(String key, Product product) {
+        Long fallbackAt = fallbackAtMillis.get(key);
+        if (fallbackAt != null && System.currentTimeMillis() - fallbackAt < retryAfterMs) {
+            return RETRY_LATER;
+        }
+        Long generatedAt = generatedAtMillis.get(key);
+        if (generatedAt != null) {
+            if (System.currentTimeMillis() - generatedAt < shareWindowMs) {
+                recentlyGenerated.increment();
+                return RECENTLY_GENERATED;
+            }
+            generatedAtMillis.remove(key, generatedAt);
+        }
+        PendingExplanation request = new PendingExplanation(new Product(product), System.nanoTime());
+        if (pending.putIfAbsent(key, request) != null) {
+            deduplicated.increment();
+            return ALREADY_QUEUED;
+        }
+        if (!queue.offer(key)) {
+            pending.remove(key, request);
+            rejected.increment();
+            return QUEUE_FULL;
+        }
+        submitted.increment();
+        return QUEUED;
+    }
+
+    boolean isIdle() {
+        return pending.isEmpty();
+    }
+
+    void shutdown() {
+        running = false;
+        workers.shutdownNow();
+    }
+
+    Map<String, Object> stats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        long completed = generated.sum() + fallbacks.sum() + failed.sum();
+        out.put("depth", queue.size());
+        out.put("capacity", queue.size() + queue.remainingCapacity());
+        out.put("inProgress", active.get());
+        out.put("workers", workerCount);
+        out.put("maxPerSecond", permitIntervalNanos == 0L ? 0.0 : TimeUnit.SECONDS.toNanos(1) / (double) permitIntervalNanos);
+        out.put("submitted", submitted.sum());
+        out.put("deduplicated", deduplicated.sum());
+        out.put("recentlyGenerated", recentlyGenerated.sum());
+        out.put("rejected", rejected.sum());
+        out.put("generated", generated.sum());
+        out.put("fallbacks", fallbacks.sum());
+        out.put("failed", failed.sum());
+        out.put("meanQueueWaitMs", completed == 0 ? 0L : queueWaitMillis.sum() / completed);
+        out.put("meanGenerationMs", completed == 0 ? 0L : generationMillis.sum() / completed);
+        out.put("maxGenerationMs", maxGenerationMillis.get());
+        return out;
+    }
+
+    private void work() {
+        while (running) {
+            String key;
+            try {
+                key = queue.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            PendingExplanation request = pending.get(key);
+            if (request == null) {
+                continue;
+            }
+            active.incrementAndGet();
+            try {
+                acquirePermit();
+                generate(key, request);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                active.decrementAndGet();
+                pending.remove(key, request);
+            }
+        }
+    }
+
+    private void generate(String key, PendingExplanation request) {
+        long startedNanos = System.nanoTime();
+        queueWaitMillis.add(TimeUnit.NANOSECONDS.toMillis(startedNanos - request.submittedNanos()));
+        Product product = request.product();
+        try {
+            String explanation = llmService.generateExplanation(product);
+            if (llmService.isFallbackExplanation(explanation)) {
+                fallbacks.increment();
+                fallbackAtMillis.put(key, System.currentTimeMillis());
+                return;
+            }
+            product.setExplanation(explanation);
+            onGenerated.accept(key, product);
+            // Recorded before the pending entry is released, so no submit finds neither.
+            generatedAtMillis.put(key, System.currentTimeMillis());
+            fallbackAtMillis.remove(key);
+            generated.increment();
+        } catch (RuntimeException ex) {
+            failed.increment();
+            fallbackAtMillis.put(key, System.currentTimeMillis());
+            log.warn("Explanation generation failed for product={}: {}", product.getName(), ex.getMessage());
+        } finally {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+            generationMillis.add(elapsedMillis);
+            maxGenerationMillis.accumulateAndGet(elapsedMillis, Math::max);
+        }
+    }
+
+    // Hands out call slots permitIntervalNanos apart across all workers.
+    private void acquirePermit() throws InterruptedException {
+        if (permitIntervalNanos == 0L) {
+            return;
+        }
+        long now = System.nanoTime();
+        long slot;
+        synchronized (this) {
+            slot = nextPermitNanos - now > 0 ? nextPermitNanos : now;
+            nextPermitNanos = slot + permitIntervalNanos;
+        }
+        if (slot - now > 0) {
+            TimeUnit.NANOSECONDS.sleep(slot - now);
+        }
+    }
+
+    private record PendingExplanation(Product product, long submittedNanos) {
+    }
+}
@@ -0,0 +1,296 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Outcome-driven routing for Gemini calls. Per model it keeps success/failure/429 counts, a latency EWMA, a
+// success-rate EWMA and a circuit breaker; per model endpoint it remembers which API version answers and which
+// one 404s. Candidates are ranked by latency divided by recent success rate, open breakers are skipped, and a
+// breaker past its cool-down lets one trial call through (half-open) before closing again. Callers keep one
+// router per purpose, so explanation failures do not open the vision breaker of the same model.
+final class GeminiRouter {
+
+    private static final double EWMA_ALPHA = 0.3;
+    private static final double MIN_SUCCESS_RATE = 0.01;
+    private static final double RECOVERED_PENALTY = 0.05;
+    private static final long MIN_PENALTY_HALF_LIFE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ConcurrentHashMap<String, ModelHealth> models = new ConcurrentHashMap<>();
+    private final int failureThreshold;
+    private final long openNanos;
+    private final long quotaOpenNanos;
+
+    GeminiRouter(int failureThreshold, long openMillis, long quotaOpenMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, openMillis));
+        this.quotaOpenNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, quotaOpenMillis));
+    }
+
+    // Drops models whose breaker is open; half-open models go last so healthy ones are tried first. Models with
+    // neither a latency sample nor a recent failure keep their configured slot; the others are ranked into the
+    // remaining slots. A failure's weight halves every breaker cool-down (open-ms), so a model that failed once
+    // without tripping its breaker returns to its configured slot even if it is never called in the meantime.
+    List<String> orderModels(List<String> candidates) {
+        long now = System.nanoTime();
+        List<String> healthy = new ArrayList<>(candidates.size());
+        List<String> recovering = new ArrayList<>();
+        for (String model : candidates) {
+            ModelHealth health = models.get(model);
+            String state = health == null ? "closed" : health.state(now);
+            if ("closed".equals(state)) {
+                healthy.add(model);
+            } else if ("half_open".equals(state)) {
+                recovering.add(model);
+            }
+        }
+        long halfLife = Math.max(MIN_PENALTY_HALF_LIFE_NANOS, openNanos);
+        Map<String, Double> latencies = new LinkedHashMap<>();
+        Map<String, Double> successRates = new LinkedHashMap<>();
+        for (String model : healthy) {
+            ModelHealth health = models.get(model);
+            double latency = health == null ? Double.NaN : health.latency();
+            double successRate = health == null ? 1.0 : health.recentSuccessRate(now, halfLife);
+            if (!Double.isNaN(latency) || successRate < 1.0) {
+                latencies.put(model, latency);
+                successRates.put(model, successRate);
+            }
+        }
+        // A ranked model without a latency sample is charged the mean of the sampled ones, i.e. neither fast nor slow.
+        double neutralLatency = latencies.values().stream().filter(latency -> !Double.isNaN(latency))
+                .mapToDouble(Double::doubleValue).average().orElse(1.0);
+        List<String> ranked = new ArrayList<>(latencies.keySet());
+        ranked.sort(Comparator.comparingDouble(model -> {
+            double latency = latencies.get(model);
+            return (Double.isNaN(latency) ? neutralLatency : latency) / Math.max(MIN_SUCCESS_RATE, successRates.get(model));
+        }));
+        int next = 0;
+        for (int i = 0; i < healthy.size(); i++) {
+            if (latencies.containsKey(healthy.get(i))) {
+                healthy.set(i, ranked.get(next++));
+            }
+        }
+        healthy.addAll(recovering);
+        return healthy;
+    }
+
+    // The endpoint that last answered goes first; endpoints that returned 404/400 for this model are skipped
+    // unless every endpoint has.
+    List<URI> orderEndpoints(String model, List<URI> endpoints) {
+        ModelHealth health = models.get(model);
+        if (health == null) {
+            return endpoints;
+        }
+        return health.orderEndpoints(endpoints);
+    }
+
+    // Null while the breaker is open, or while another caller holds the half-open trial. The permit must be
+    // handed back with release() however the attempt ends.
+    Permit tryAcquire(String model) {
+        long trial = health(model).tryAcquire(System.nanoTime());
+        return trial < 0 ? null : new Permit(model, trial);
+    }
+
+    // Returns a half-open trial the permit still holds, e.g. after an attempt that was cancelled or threw before
+    // recording an outcome. A no-op once the trial's outcome was recorded or for a permit taken while closed.
+    void release(Permit permit) {
+        if (permit != null && permit.trial() > 0) {
+            health(permit.model()).release(permit.trial());
+        }
+    }
+
+    void recordSuccess(String model, URI endpoint, long latencyNanos) {
+        health(model).success(endpoint.toString(), TimeUnit.NANOSECONDS.toMicros(latencyNanos) / 1000.0);
+    }
+
+    void recordUnsupportedEndpoint(String model, URI endpoint) {
+        health(model).unsupported(endpoint.toString());
+    }
+
+    void recordFailure(String model, URI endpoint) {
+        health(model).failure(endpoint == null ? null : endpoint.toString(), System.nanoTime(), openNanos, failureThreshold);
+    }
+
+    void recordQuotaExceeded(String model, URI endpoint, long retryAfterMillis) {
+        long open = retryAfterMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(retryAfterMillis) : quotaOpenNanos;
+        health(model).quotaExceeded(endpoint.toString(), System.nanoTime(), open);
+    }
+
+    Map<String, Object> stats() {
+        long now = System.nanoTime();
+        Map<String, Object> out = new TreeMap<>();
+        models.forEach((model, health) -> out.put(model, health.describe(now)));
+        return out;
+    }
+
+    private ModelHealth health(String model) {
+        return models.computeIfAbsent(model, ignored -> new ModelHealth());
+    }
+
+    private static final class ModelHealth {
+        private final Map<String, EndpointHealth> endpoints = new LinkedHashMap<>();
+        private long successes;
+        private long failures;
+        private long quotaErrors;
+        private int consecutiveFailures;
+        private double latencyEwmaMs = Double.NaN;
+        private double successRateEwma = 1.0;
+        private long lastOutcomeNanos;
+        private boolean open;
+        private long openUntilNanos;
+        private boolean trialInFlight;
+        private long trialCount;
+        private String preferredEndpoint;
+
+        synchronized String state(long now) {
+            if (!open) {
+                return "closed";
+            }
+            return now - openUntilNanos < 0 || trialInFlight ? "open" : "half_open";
+        }
+
+        synchronized double latency() {
+            return latencyEwmaMs;
+        }
+
+        // The success-rate EWMA with its shortfall decayed by the time since the last outcome; 1.0 once the
+        // remaining shortfall is negligible.
+        synchronized double recentSuccessRate(long now, long halfLifeNanos) {
+            double shortfall = (1.0 - successRateEwma) * Math.pow(0.5, (double) (now - lastOutcomeNanos) / halfLifeNanos);
+            return shortfall < RECOVERED_PENALTY ? 1.0 : 1.0 - shortfall;
+        }
+
+        synchronized List<URI> orderEndpoints(List<URI> candidates) {
+            List<URI> ordered = new ArrayList<>(candidates.size());
+            for (URI endpoint : candidates) {
+                if (endpoint.toString().equals(preferredEndpoint)) {
+                    ordered.add(0, endpoint);
+                } else if (!endpoint(endpoint.toString()).unsupported) {
+                    ordered.add(endpoint);
+                }
+            }
+            return ordered.isEmpty() ? candidates : ordered;
+        }
+
+        // -1 when refused, 0 for a normal call, otherwise the number identifying this half-open trial.
+        synchronized long tryAcquire(long now) {
+            if (!open) {
+                return 0L;
+            }
+            if (now - openUntilNanos < 0 || trialInFlight) {
+                return -1L;
+            }
+            trialInFlight = true;
+            return ++trialCount;
+        }
+
+        synchronized void success(String endpoint, double latencyMs) {
+            successes++;
+            outcome(1.0, System.nanoTime());
+            consecutiveFailures = 0;
+            open = false;
+            trialInFlight = false;
+            latencyEwmaMs = ewma(latencyEwmaMs, latencyMs);
+            preferredEndpoint = endpoint;
+            EndpointHealth health = endpoint(endpoint);
+            health.successes++;
+            health.unsupported = false;
+            health.latencyEwmaMs = ewma(health.latencyEwmaMs, latencyMs);
+        }
+
+        synchronized void unsupported(String endpoint) {
+            endpoint(endpoint).unsupported = true;
+            if (endpoint.equals(preferredEndpoint)) {
+                preferredEndpoint = null;
+            }
+        }
+
+        synchronized void failure(String endpoint, long now, long openNanos, int threshold) {
+            failures++;
+            outcome(0.0, now);
+            consecutiveFailures++;
+            if (endpoint != null) {
+                endpoint(endpoint).failures++;
+            }
+            if (trialInFlight || consecutiveFailures >= threshold) {
+                openFor(now, openNanos);
+            }
+        }
+
+        synchronized void quotaExceeded(String endpoint, long now, long openNanos) {
+            quotaErrors++;
+            outcome(0.0, now);
+            endpoint(endpoint).quotaErrors++;
+            openFor(now, openNanos);
+        }
+
+        synchronized void release(long trial) {
+            if (trial == trialCount) {
+                trialInFlight = false;
+            }
+        }
+
+        synchronized Map<String, Object> describe(long now) {
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("state", state(now));
+            out.put("successes", successes);
+            out.put("failures", failures);
+            out.put("quotaErrors", quotaErrors);
+            out.put("consecutiveFailures", consecutiveFailures);
+            out.put("latencyEwmaMs", Double.isNaN(latencyEwmaMs) ? null : Math.round(latencyEwmaMs * 10.0) / 10.0);
+            out.put("successRateEwma", Math.round(successRateEwma * 1000.0) / 1000.0);
+            out.put("openForMs", open ? Math.max(0L, TimeUnit.NANOSECONDS.toMillis(openUntilNanos - now)) : 0L);
+            out.put("preferredEndpoint", preferredEndpoint);
+            Map<String, Object> byEndpoint = new LinkedHashMap<>();
+            endpoints.forEach((endpoint, health) -> byEndpoint.put(endpoint, health.describe()));
+            out.put("endpoints", byEndpoint);
+            return out;
+        }
+
+        private void outcome(double value, long now) {
+            successRateEwma = ewma(successRateEwma, value);
+            lastOutcomeNanos = now;
+        }
+
+        private void openFor(long now, long openNanos) {
+            open = true;
+            openUntilNanos = now + openNanos;
+            trialInFlight = false;
+        }
+
+        private EndpointHealth endpoint(String endpoint) {
+            return endpoints.computeIfAbsent(endpoint, ignored -> new EndpointHealth());
+        }
+
+        private static double ewma(double current, double sample) {
+            return Double.isNaN(current) ? sample : EWMA_ALPHA * sample + (1.0 - EWMA_ALPHA) * current;
+        }
+    }
+
+    private static final class EndpointHealth {
+        private long successes;
+        private long failures;
+        private long quotaErrors;
+        private boolean unsupported;
+        private double latencyEwmaMs = Double.NaN;
+
+        Map<String, Object> describe() {
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("successes", successes);
+            out.put("failures", failures);
+            out.put("quotaErrors", quotaErrors);
+            out.put("unsupported", unsupported);
+            out.put("latencyEwmaMs", Double.isNaN(latencyEwmaMs) ? null : Math.round(latencyEwmaMs * 10.0) / 10.0);
+            return out;
+        }
+    }
+
+    record Permit(String model, long trial) {
+    }
+}
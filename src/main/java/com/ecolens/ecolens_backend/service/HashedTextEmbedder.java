@@ -0,0 +1,62 @@
+package com.ecolens.ecolens_backend.service;
+
+// Dense in-process embedding for normalized labels: signed feature hashing of character trigrams (shared
+// spelling) and whole words (weighted higher so a full word outweighs a few coincidental trigrams),
+// L2-normalized so cosine similarity is a plain dot product.
+final class HashedTextEmbedder {
+
+    private static final float WORD_WEIGHT = 2.0f;
+
+    private final int dimensions;
+
+    HashedTextEmbedder(int dimensions) {
+        this.dimensions = Math.max(16, dimensions);
+    }
+
+    float[] embed(String normalized) {
+        float[] vector = new float[dimensions];
+        if (normalized == null || normalized.isBlank()) {
+            return vector;
+        }
+        for (int trigram : Trigrams.signature(normalized)) {
+            accumulate(vector, mix(trigram), 1.0f);
+        }
+        int start = 0;
+        for (int i = 0; i <= normalized.length(); i++) {
+            if (i == normalized.length() || normalized.charAt(i) == ' ') {
+                if (i > start) {
+                    accumulate(vector, mix(normalized.substring(start, i).hashCode() ^ 0x5bd1e995), WORD_WEIGHT);
+                }
+                start = i + 1;
+            }
+        }
+
+        double norm = 0.0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0.0) {
+            float scale = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    private void accumulate(float[] vector, int hash, float weight) {
+        int index = Math.floorMod(hash, dimensions);
+        vector[index] += (hash & 0x40000000) == 0 ? weight : -weight;
+    }
+
+    // murmur3 finalizer: spreads neighbouring trigram codes across buckets.
+    private static int mix(int value) {
+        int h = value;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
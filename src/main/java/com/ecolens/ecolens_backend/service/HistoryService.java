@@ -13,7 +13,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import com.ecolens.ecolens_backend.config.ScoringProperties;
 import com.ecolens.ecolens_backend.dto.HistoryEntryRequest;
 import com.ecolens.ecolens_backend.dto.HistoryEntryResponse;
 import com.ecolens.ecolens_backend.dto.HistoryStatsResponse;
@@ -28,16 +27,16 @@ public class HistoryService {
 
     private final ScanHistoryRepository scanHistoryRepository;
     private final MongoAtlasRuntimeStore mongoAtlasRuntimeStore;
-    private final ScoringProperties scoringProperties;
+    private final ProductService productService;
 
     public HistoryService(
             ScanHistoryRepository scanHistoryRepository,
             MongoAtlasRuntimeStore mongoAtlasRuntimeStore,
-            ScoringProperties scoringProperties
+            ProductService productService
     ) {
         this.scanHistoryRepository = scanHistoryRepository;
         this.mongoAtlasRuntimeStore = mongoAtlasRuntimeStore;
-        this.scoringProperties = scoringProperties;
+        this.productService = productService;
     }
 
     public HistoryEntryResponse save(HistoryEntryRequest request, String requestedUserId) {
@@ -85,7 +84,7 @@ public class HistoryService {
     }
 
     public List<HistoryEntryResponse> list(boolean highImpactOnly, String requestedUserId) {
-        int highImpactThreshold = scoringProperties.getHighImpactThreshold();
+        int highImpactThreshold = productService.scoringSnapshot().highImpactThreshold();
         List<ScanHistoryEntry> entries;
         if (mongoAtlasRuntimeStore.isRuntimeEnabled()) {
             try {
@@ -121,8 +120,9 @@ public class HistoryService {
         }
 
         HistoryStatsResponse response = new HistoryStatsResponse();
-        int highImpactThreshold = scoringProperties.getHighImpactThreshold();
-        int greenerThreshold = scoringProperties.getHistoryGreenerThreshold();
+        ScoringSnapshot scoring = productService.scoringSnapshot();
+        int highImpactThreshold = scoring.highImpactThreshold();
+        int greenerThreshold = scoring.historyGreenerThreshold();
         String currentWeekKey = toWeekKey(LocalDateTime.now(Clock.systemUTC()));
         response.setHighImpactThreshold(highImpactThreshold);
         response.setGreenerThreshold(greenerThreshold);
@@ -0,0 +1,279 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Hierarchical navigable small world graph over L2-normalized vectors (similarity = dot product).
+// One writer at a time (add is synchronized); searches never lock. A node is stored before any neighbour
+// list links to it, and neighbour lists are replaced rather than mutated, so a reader only ever follows
+// fully built nodes.
+final class HnswIndex<T> {
+
+    private final int m;
+    private final int maxNeighboursLayerZero;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final ThreadLocal<VisitedMarks> visitedMarks = ThreadLocal.withInitial(VisitedMarks::new);
+
+    private volatile AtomicReferenceArray<Node<T>> nodes = new AtomicReferenceArray<>(64);
+    private volatile EntryPoint entryPoint;
+    private volatile int size;
+
+    HnswIndex(int m, int efConstruction) {
+        this.m = Math.max(2, m);
+        this.maxNeighboursLayerZero = this.m * 2;
+        this.efConstruction = Math.max(this.m, efConstruction);
+        this.levelMultiplier = 1.0 / Math.log(this.m);
+    }
+
+    int size() {
+        return size;
+    }
+
+    synchronized void add(float[] vector, T value) {
+        int id = size;
+        int level = randomLevel();
+        Node<T> node = new Node<>(vector, value, level);
+        AtomicReferenceArray<Node<T>> storage = nodes;
+        if (id == storage.length()) {
+            AtomicReferenceArray<Node<T>> grown = new AtomicReferenceArray<>(storage.length() * 2);
+            for (int i = 0; i < id; i++) {
+                grown.set(i, storage.get(i));
+            }
+            nodes = grown;
+            storage = grown;
+        }
+        storage.set(id, node);
+
+        EntryPoint entry = entryPoint;
+        if (entry == null) {
+            entryPoint = new EntryPoint(id, level);
+            size = id + 1;
+            return;
+        }
+
+        int current = entry.id();
+        for (int layer = entry.level(); layer > level; layer--) {
+            current = greedyClosest(vector, current, layer);
+        }
+        for (int layer = Math.min(level, entry.level()); layer >= 0; layer--) {
+            List<Scored> candidates = searchLayer(vector, current, efConstruction, layer);
+            int maxNeighbours = layer == 0 ? maxNeighboursLayerZero : m;
+            int[] selected = selectNeighbours(candidates, maxNeighbours);
+            node.neighbours.set(layer, selected);
+            for (int neighbour : selected) {
+                link(neighbour, id, layer, maxNeighbours);
+            }
+            current = candidates.get(0).id();
+        }
+
+        size = id + 1;
+        if (level > entry.level()) {
+            entryPoint = new EntryPoint(id, level);
+        }
+    }
+
+    List<Hit<T>> search(float[] query, int k, int ef) {
+        EntryPoint entry = entryPoint;
+        if (entry == null || k <= 0) {
+            return List.of();
+        }
+        int current = entry.id();
+        for (int layer = entry.level(); layer > 0; layer--) {
+            current = greedyClosest(query, current, layer);
+        }
+        List<Scored> found = searchLayer(query, current, Math.max(ef, k), 0);
+        List<Hit<T>> out = new ArrayList<>(Math.min(k, found.size()));
+        for (int i = 0; i < found.size() && out.size() < k; i++) {
+            Scored scored = found.get(i);
+            out.add(new Hit<>(node(scored.id()).value, scored.similarity()));
+        }
+        return out;
+    }
+
+    private int greedyClosest(float[] query, int start, int layer) {
+        int current = start;
+        double best = dot(query, node(current).vector);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbour : node(current).neighbours(layer)) {
+                double similarity = dot(query, node(neighbour).vector);
+                if (similarity > best) {
+                    best = similarity;
+                    current = neighbour;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    // Best-first search on one layer; returns up to ef nodes ordered by descending similarity.
+    private List<Scored> searchLayer(float[] query, int start, int ef, int layer) {
+        VisitedMarks visited = visitedMarks.get();
+        visited.reset(nodes.length());
+        PriorityQueue<Scored> frontier = new PriorityQueue<>(Comparator.comparingDouble(Scored::similarity).reversed());
+        PriorityQueue<Scored> results = new PriorityQueue<>(Comparator.comparingDouble(Scored::similarity));
+
+        Scored first = new Scored(start, dot(query, node(start).vector));
+        visited.mark(start);
+        frontier.add(first);
+        results.add(first);
+        while (!frontier.isEmpty()) {
+            Scored closest = frontier.poll();
+            if (results.size() >= ef && closest.similarity() < results.peek().similarity()) {
+                break;
+            }
+            for (int neighbour : node(closest.id()).neighbours(layer)) {
+                if (!visited.mark(neighbour)) {
+                    continue;
+                }
+                double similarity = dot(query, node(neighbour).vector);
+                if (results.size() < ef || similarity > results.peek().similarity()) {
+                    Scored scored = new Scored(neighbour, similarity);
+                    frontier.add(scored);
+                    results.add(scored);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+
+        List<Scored> ordered = new ArrayList<>(results);
+        ordered.sort(Comparator.comparingDouble(Scored::similarity).reversed());
+        return ordered;
+    }
+
+    // HNSW neighbour heuristic: keep a candidate only if it is closer to the query than to every neighbour
+    // already kept, which preserves links across clusters instead of wiring one dense cluster together.
+    private int[] selectNeighbours(List<Scored> candidatesByDescendingSimilarity, int maxNeighbours) {
+        int[] selected = new int[Math.min(maxNeighbours, candidatesByDescendingSimilarity.size())];
+        List<Scored> pruned = new ArrayList<>();
+        int count = 0;
+        for (Scored candidate : candidatesByDescendingSimilarity) {
+            if (count == selected.length) {
+                break;
+            }
+            float[] vector = node(candidate.id()).vector;
+            boolean diverse = true;
+            for (int i = 0; i < count; i++) {
+                if (dot(vector, node(selected[i]).vector) > candidate.similarity()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[count++] = candidate.id();
+            } else {
+                pruned.add(candidate);
+            }
+        }
+        // Top up with the closest pruned candidates so sparse regions keep their degree.
+        for (int i = 0; i < pruned.size() && count < selected.length; i++) {
+            selected[count++] = pruned.get(i).id();
+        }
+        return count == selected.length ? selected : Arrays.copyOf(selected, count);
+    }
+
+    private void link(int from, int to, int layer, int maxNeighbours) {
+        Node<T> source = node(from);
+        int[] current = source.neighbours(layer);
+        int[] extended = Arrays.copyOf(current, current.length + 1);
+        extended[current.length] = to;
+        if (extended.length <= maxNeighbours) {
+            source.neighbours.set(layer, extended);
+            return;
+        }
+        List<Scored> scored = new ArrayList<>(extended.length);
+        for (int neighbour : extended) {
+            scored.add(new Scored(neighbour, dot(source.vector, node(neighbour).vector)));
+        }
+        scored.sort(Comparator.comparingDouble(Scored::similarity).reversed());
+        source.neighbours.set(layer, selectNeighbours(scored, maxNeighbours));
+    }
+
+    private Node<T> node(int id) {
+        return nodes.get(id);
+    }
+
+    private int randomLevel() {
+        return (int) Math.floor(-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+    }
+
+    static double dot(float[] left, float[] right) {
+        double sum = 0.0;
+        for (int i = 0; i < left.length; i++) {
+            sum += left[i] * right[i];
+        }
+        return sum;
+    }
+
+    record Hit<T>(T value, double similarity) {
+    }
+
+    private record Scored(int id, double similarity) {
+    }
+
+    private record EntryPoint(int id, int level) {
+    }
+
+    private static final class Node<T> {
+
+        private static final int[] NO_NEIGHBOURS = new int[0];
+
+        private final float[] vector;
+        private final T value;
+        private final AtomicReferenceArray<int[]> neighbours;
+
+        private Node(float[] vector, T value, int level) {
+            this.vector = vector;
+            this.value = value;
+            this.neighbours = new AtomicReferenceArray<>(level + 1);
+            for (int layer = 0; layer <= level; layer++) {
+                neighbours.set(layer, NO_NEIGHBOURS);
+            }
+        }
+
+        private int[] neighbours(int layer) {
+            return layer < neighbours.length() ? neighbours.get(layer) : NO_NEIGHBOURS;
+        }
+    }
+
+    // Generation-stamped visited set, reused per thread so a search does not allocate one per query.
+    private static final class VisitedMarks {
+
+        private int[] marks = new int[64];
+        private int generation;
+
+        private void reset(int capacity) {
+            if (marks.length < capacity) {
+                marks = new int[capacity];
+                generation = 0;
+            }
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                generation = 1;
+            }
+        }
+
+        private boolean mark(int id) {
+            if (id >= marks.length) {
+                marks = Arrays.copyOf(marks, Math.max(id + 1, marks.length * 2));
+            }
+            if (marks[id] == generation) {
+                return false;
+            }
+            marks[id] = generation;
+            return true;
+        }
+    }
+}
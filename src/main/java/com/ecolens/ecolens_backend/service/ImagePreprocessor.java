@@ -0,0 +1,352 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Decodes uploaded images and re-encodes them as JPEG no larger than maxDimension on either side before they
+// are sent to Gemini. Decoding and encoding run on a small bounded pool so a burst of large uploads cannot
+// take every request thread's CPU; when the pool is saturated, times out or the format is not readable, the
+// original image is sent unchanged. A re-encode that would not be smaller is discarded as well. The JPEG
+// encoder writes no EXIF, so a JPEG's EXIF orientation is applied to the pixels before downscaling; otherwise
+// rotated phone photos would reach Gemini sideways.
+//
+// Uploads are untrusted, so decode reads the declared size from the header first and refuses images above
+// maxPixels: a few hundred bytes of PNG can declare a 30000x30000 canvas, and a running ImageIO read cannot be
+// interrupted once it starts allocating. Images within the cap are subsampled while decoding so the raster
+// lands near maxDimension instead of being decoded at full resolution and halved afterwards.
+final class ImagePreprocessor {
+
+    private static final Logger log = LoggerFactory.getLogger(ImagePreprocessor.class);
+    private static final long TASK_TIMEOUT_MS = 5_000L;
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+
+    private final int maxDimension;
+    private final float jpegQuality;
+    private final long maxPixels;
+    private final ThreadPoolExecutor pool;
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder reencoded = new LongAdder();
+    private final LongAdder keptOriginal = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder oversized = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder processingMillis = new LongAdder();
+
+    ImagePreprocessor(int maxDimension, double jpegQuality, long maxPixels, int threads, int queueCapacity) {
+        this.maxDimension = Math.max(64, maxDimension);
+        this.jpegQuality = (float) Math.max(0.1, Math.min(1.0, jpegQuality));
+        this.maxPixels = Math.max(1L, maxPixels);
+        int poolSize = Math.max(1, threads);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-preprocess-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Null when the image cannot be decoded (e.g. WebP/HEIC), declares more than maxPixels, or the pool is
+    // saturated. The result may be subsampled, but is never smaller than maxDimension on its longer side.
+    BufferedImage decode(byte[] imageBytes) {
+        return runOnPool(() -> read(imageBytes));
+    }
+
+    PreparedImage prepare(byte[] originalBytes, String originalBase64, String originalMimeType, BufferedImage decoded) {
+        long startedNanos = System.nanoTime();
+        processed.increment();
+        bytesIn.add(originalBytes.length);
+        int orientation = exifOrientation(originalBytes);
+        byte[] encoded = decoded == null
+                ? null
+                : runOnPool(() -> encodeJpeg(downscale(applyOrientation(decoded, orientation))));
+        PreparedImage prepared;
+        if (encoded == null || encoded.length >= originalBytes.length) {
+            keptOriginal.increment();
+            prepared = new PreparedImage(originalBase64, originalMimeType, originalBytes.length, originalBytes.length);
+        } else {
+            reencoded.increment();
+            prepared = new PreparedImage(Base64.getEncoder().encodeToString(encoded), "image/jpeg",
+                    originalBytes.length, encoded.length);
+        }
+        bytesOut.add(prepared.uploadBytes());
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+        processingMillis.add(elapsedMs);
+        log.info("Vision image preprocessed: originalBytes={}, uploadBytes={}, bytesSaved={}, reencoded={}, elapsedMs={}",
+                prepared.originalBytes(), prepared.uploadBytes(), prepared.bytesSaved(),
+                prepared.uploadBytes() != prepared.originalBytes(), elapsedMs);
+        return prepared;
+    }
+
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    Map<String, Object> stats() {
+        long count = processed.sum();
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("maxDimension", maxDimension);
+        out.put("jpegQuality", jpegQuality);
+        out.put("threads", pool.getMaximumPoolSize());
+        out.put("queued", pool.getQueue().size());
+        out.put("processed", count);
+        out.put("reencoded", reencoded.sum());
+        out.put("keptOriginal", keptOriginal.sum());
+        out.put("rejected", rejected.sum());
+        out.put("maxPixels", maxPixels);
+        out.put("oversized", oversized.sum());
+        out.put("bytesIn", bytesIn.sum());
+        out.put("bytesOut", bytesOut.sum());
+        out.put("bytesSaved", bytesIn.sum() - bytesOut.sum());
+        out.put("meanBytesSaved", count == 0 ? 0L : (bytesIn.sum() - bytesOut.sum()) / count);
+        out.put("meanProcessingMs", count == 0 ? 0L : processingMillis.sum() / count);
+        return out;
+    }
+
+    // Halves with bilinear filtering until within 2x of the target, then scales once more, which keeps edges
+    // from aliasing the way a single large bilinear step would. Alpha is flattened onto white for JPEG.
+    BufferedImage downscale(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+        BufferedImage current = image;
+        do {
+            int nextWidth = width / 2 >= targetWidth ? width / 2 : targetWidth;
+            int nextHeight = height / 2 >= targetHeight ? height / 2 : targetHeight;
+            current = redraw(current, nextWidth, nextHeight);
+            width = nextWidth;
+            height = nextHeight;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    // Orientations 2-8 mirror and/or rotate the stored pixels; 5-8 swap width and height.
+    static BufferedImage applyOrientation(BufferedImage image, int orientation) {
+        if (orientation < 2 || orientation > 8) {
+            return image;
+        }
+        double w = image.getWidth();
+        double h = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            default -> new AffineTransform(0, -1, 1, 0, 0, w);
+        };
+        boolean swapped = orientation >= 5;
+        BufferedImage target = new BufferedImage(
+                swapped ? image.getHeight() : image.getWidth(),
+                swapped ? image.getWidth() : image.getHeight(),
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, target.getWidth(), target.getHeight());
+            graphics.drawImage(image, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    // The EXIF orientation (1-8) of a JPEG, or 1 when there is none. Only the segments before the image data
+    // are walked, and only IFD0 of the Exif block is read.
+    static int exifOrientation(byte[] bytes) {
+        if (bytes.length < 4 || (bytes[0] & 0xFF) != 0xFF || (bytes[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+        int offset = 2;
+        while (offset + 4 <= bytes.length && (bytes[offset] & 0xFF) == 0xFF) {
+            int marker = bytes[offset + 1] & 0xFF;
+            if (marker == 0xD9 || marker == 0xDA) {
+                return 1;
+            }
+            int length = readShort(bytes, offset + 2, false);
+            if (length < 2) {
+                return 1;
+            }
+            int segment = offset + 4;
+            int end = Math.min(bytes.length, offset + 2 + length);
+            if (marker == 0xE1 && segment + 6 <= end && bytes[segment] == 'E' && bytes[segment + 1] == 'x'
+                    && bytes[segment + 2] == 'i' && bytes[segment + 3] == 'f'
+                    && bytes[segment + 4] == 0 && bytes[segment + 5] == 0) {
+                return tiffOrientation(bytes, segment + 6, end);
+            }
+            offset += 2 + length;
+        }
+        return 1;
+    }
+
+    private static int tiffOrientation(byte[] bytes, int tiff, int end) {
+        if (tiff + 8 > end) {
+            return 1;
+        }
+        boolean littleEndian;
+        if (bytes[tiff] == 'I' && bytes[tiff + 1] == 'I') {
+            littleEndian = true;
+        } else if (bytes[tiff] == 'M' && bytes[tiff + 1] == 'M') {
+            littleEndian = false;
+        } else {
+            return 1;
+        }
+        long ifdOffset = readInt(bytes, tiff + 4, littleEndian) & 0xFFFFFFFFL;
+        if (ifdOffset > end - tiff - 2L) {
+            return 1;
+        }
+        int ifd = tiff + (int) ifdOffset;
+        int entries = readShort(bytes, ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > end) {
+                return 1;
+            }
+            if (readShort(bytes, entry, littleEndian) == EXIF_ORIENTATION_TAG) {
+                int orientation = readShort(bytes, entry + 8, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int readShort(byte[] bytes, int offset, boolean littleEndian) {
+        int first = bytes[offset] & 0xFF;
+        int second = bytes[offset + 1] & 0xFF;
+        return littleEndian ? second << 8 | first : first << 8 | second;
+    }
+
+    private static int readInt(byte[] bytes, int offset, boolean littleEndian) {
+        int high = readShort(bytes, offset, littleEndian);
+        int low = readShort(bytes, offset + 2, littleEndian);
+        return littleEndian ? low << 16 | high : high << 16 | low;
+    }
+
+    private static BufferedImage redraw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private BufferedImage read(byte[] imageBytes) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(imageBytes))) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long width = reader.getWidth(0);
+                long height = reader.getHeight(0);
+                if (width <= 0 || height <= 0 || width * height > maxPixels) {
+                    oversized.increment();
+                    log.warn("Vision image not decoded: declared size {}x{} exceeds maxPixels={}", width, height, maxPixels);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = (int) Math.max(1L, Math.max(width, height) / maxDimension);
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            return null;
+        }
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private <T> T runOnPool(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = pool.submit(task);
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            return null;
+        }
+        try {
+            return future.get(TASK_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException ex) {
+            future.cancel(true);
+            log.warn("Vision image preprocessing failed: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    record PreparedImage(String base64, String mimeType, long originalBytes, long uploadBytes) {
+
+        long bytesSaved() {
+            return originalBytes - uploadBytes;
+        }
+    }
+}
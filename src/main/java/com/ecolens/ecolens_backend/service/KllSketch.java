@@ -0,0 +1,274 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// KLL quantile sketch (Karnin, Lang, Liberty 2016). Level h holds items of weight 2^h; when the sketch is over
+// capacity the lowest full level is sorted and every other item (random offset) is promoted one level up.
+// Memory is O(k log(n/k)); rank error is independent of n. Sketches are mergeable and serialize to a compact
+// byte form so instances can exchange them. Writes are synchronized; reads use a cached sorted view.
+final class KllSketch {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int MIN_LEVEL_CAPACITY = 8;
+
+    private final int k;
+    private final List<Level> levels = new ArrayList<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private long count;
+    private int retained;
+    private int maxRetained;
+    private volatile SortedView sortedView;
+
+    KllSketch(int k) {
+        this.k = Math.max(MIN_LEVEL_CAPACITY, k);
+        grow();
+    }
+
+    int k() {
+        return k;
+    }
+
+    synchronized long count() {
+        return count;
+    }
+
+    synchronized int retained() {
+        return retained;
+    }
+
+    // Published single-sided normalized rank error at ~99% confidence for a KLL sketch of this k.
+    double normalizedRankError() {
+        return 2.296 / Math.pow(k, 0.9723);
+    }
+
+    synchronized void update(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        levels.get(0).add(value);
+        count++;
+        retained++;
+        if (retained >= maxRetained) {
+            compress();
+        }
+        sortedView = null;
+    }
+
+    synchronized void merge(KllSketch other) {
+        if (other == this) {
+            return;
+        }
+        List<double[]> otherLevels;
+        long otherCount;
+        synchronized (other) {
+            otherLevels = new ArrayList<>(other.levels.size());
+            for (Level level : other.levels) {
+                otherLevels.add(Arrays.copyOf(level.items, level.size));
+            }
+            otherCount = other.count;
+        }
+        while (levels.size() < otherLevels.size()) {
+            grow();
+        }
+        for (int h = 0; h < otherLevels.size(); h++) {
+            for (double value : otherLevels.get(h)) {
+                levels.get(h).add(value);
+            }
+            retained += otherLevels.get(h).length;
+        }
+        count += otherCount;
+        while (retained >= maxRetained) {
+            compress();
+        }
+        sortedView = null;
+    }
+
+    // Same mid-rank convention as Co2Distribution.percentileRank, over the weighted retained items.
+    double percentileRank(double value) {
+        SortedView view = sortedView();
+        if (view.total() < 2) {
+            return 0.5;
+        }
+        long below = view.weightBelow(value, false);
+        long atOrBelow = view.weightBelow(value, true);
+        double rank = below;
+        if (atOrBelow > below) {
+            rank = below + ((atOrBelow - below - 1) / 2.0);
+        }
+        return Math.max(0.0, Math.min(1.0, rank / (view.total() - 1.0)));
+    }
+
+    synchronized byte[] serialize() {
+        int bytes = 1 + 4 + 8 + 4;
+        for (Level level : levels) {
+            bytes += 4 + level.size * 8;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        buffer.put(FORMAT_VERSION).putInt(k).putLong(count).putInt(levels.size());
+        for (Level level : levels) {
+            buffer.putInt(level.size);
+            for (int i = 0; i < level.size; i++) {
+                buffer.putDouble(level.items[i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    static KllSketch deserialize(byte[] bytes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            byte version = buffer.get();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported sketch format version " + version);
+            }
+            KllSketch sketch = new KllSketch(buffer.getInt());
+            long count = buffer.getLong();
+            int levelCount = buffer.getInt();
+            if (levelCount < 1 || levelCount > 64) {
+                throw new IllegalArgumentException("Invalid sketch level count " + levelCount);
+            }
+            long weight = 0L;
+            for (int h = 0; h < levelCount; h++) {
+                if (h >= sketch.levels.size()) {
+                    sketch.grow();
+                }
+                int size = buffer.getInt();
+                if (size < 0 || size > buffer.remaining() / 8) {
+                    throw new IllegalArgumentException("Invalid sketch level size " + size);
+                }
+                for (int i = 0; i < size; i++) {
+                    sketch.levels.get(h).add(buffer.getDouble());
+                }
+                sketch.retained += size;
+                weight += (long) size << h;
+            }
+            if (weight != count) {
+                throw new IllegalArgumentException("Sketch weights do not add up to its count");
+            }
+            sketch.count = count;
+            return sketch;
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("Truncated sketch");
+        }
+    }
+
+    private SortedView sortedView() {
+        SortedView view = sortedView;
+        if (view != null) {
+            return view;
+        }
+        synchronized (this) {
+            if (sortedView == null) {
+                sortedView = SortedView.of(levels, retained);
+            }
+            return sortedView;
+        }
+    }
+
+    private void compress() {
+        for (int h = 0; h < levels.size(); h++) {
+            Level level = levels.get(h);
+            if (level.size < capacity(h)) {
+                continue;
+            }
+            if (h + 1 == levels.size()) {
+                grow();
+            }
+            Level next = levels.get(h + 1);
+            Arrays.sort(level.items, 0, level.size);
+            // An odd item out stays on this level so every promoted pair keeps the total weight exact.
+            boolean odd = (level.size & 1) == 1;
+            double kept = odd ? level.items[level.size - 1] : 0.0;
+            int pairs = level.size / 2;
+            int offset = random.nextBoolean() ? 1 : 0;
+            for (int i = 0; i < pairs; i++) {
+                next.add(level.items[2 * i + offset]);
+            }
+            retained -= pairs;
+            level.size = 0;
+            if (odd) {
+                level.add(kept);
+            }
+            if (retained < maxRetained) {
+                return;
+            }
+        }
+    }
+
+    private void grow() {
+        levels.add(new Level());
+        int total = 0;
+        for (int h = 0; h < levels.size(); h++) {
+            total += capacity(h);
+        }
+        maxRetained = total;
+    }
+
+    private int capacity(int level) {
+        int depth = levels.size() - level - 1;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    private static final class Level {
+
+        private double[] items = new double[MIN_LEVEL_CAPACITY];
+        private int size;
+
+        private void add(double value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, items.length * 2);
+            }
+            items[size++] = value;
+        }
+    }
+
+    private record SortedView(double[] values, long[] cumulativeWeights, long total) {
+
+        private static SortedView of(List<Level> levels, int retained) {
+            double[] values = new double[retained];
+            int[] levelOf = new int[retained];
+            Integer[] order = new Integer[retained];
+            int index = 0;
+            for (int h = 0; h < levels.size(); h++) {
+                Level level = levels.get(h);
+                for (int i = 0; i < level.size; i++) {
+                    values[index] = level.items[i];
+                    levelOf[index] = h;
+                    order[index] = index;
+                    index++;
+                }
+            }
+            Arrays.sort(order, (left, right) -> Double.compare(values[left], values[right]));
+            double[] sortedValues = new double[retained];
+            long[] cumulative = new long[retained];
+            long running = 0L;
+            for (int i = 0; i < retained; i++) {
+                sortedValues[i] = values[order[i]];
+                running += 1L << levelOf[order[i]];
+                cumulative[i] = running;
+            }
+            return new SortedView(sortedValues, cumulative, running);
+        }
+
+        // Total weight of items below value (inclusive = also items equal to it).
+        private long weightBelow(double value, boolean inclusive) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (inclusive ? values[mid] <= value : values[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low == 0 ? 0L : cumulativeWeights[low - 1];
+        }
+    }
+}
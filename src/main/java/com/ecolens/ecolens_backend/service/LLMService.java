@@ -1,17 +1,31 @@
 package com.ecolens.ecolens_backend.service;
 
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
@@ -23,6 +37,8 @@ import com.ecolens.ecolens_backend.model.Product;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.annotation.PreDestroy;
+
 @Service
 public class LLMService {
 
@@ -45,16 +61,77 @@ public class LLMService {
             "black", "white", "blue", "red", "green", "yellow", "orange",
             "purple", "pink", "brown", "gray", "grey", "silver", "gold"
     );
+    private static final long DEFAULT_EXPLANATION_TIMEOUT_MS = 20_000L;
+    private static final long DEFAULT_VISION_TIMEOUT_MS = 15_000L;
+    private static final long DEFAULT_VISION_HEDGE_DELAY_MS = 2_000L;
     private static final Logger log = LoggerFactory.getLogger(LLMService.class);
 
     private final Environment environment;
     private final ObjectMapper objectMapper;
     private final HttpClient httpClient;
+    private final ThreadPoolExecutor visionExecutor;
+    private final LongAdder visionHedgesSkipped = new LongAdder();
+    private final LongAdder visionAttemptsInline = new LongAdder();
+    // Separate breakers per purpose: explanation failures must not open the vision breaker of the same model.
+    private final GeminiRouter textRouter;
+    private final GeminiRouter visionRouter;
+    private final VisionLabelCache visionLabelCache;
+    private final ImagePreprocessor imagePreprocessor;
+    private final boolean preprocessEnabled;
 
     public LLMService(Environment environment) {
         this.environment = environment;
         this.objectMapper = new ObjectMapper();
         this.httpClient = HttpClient.newHttpClient();
+        AtomicInteger visionThreads = new AtomicInteger();
+        // Bounded and rejecting: once every thread is busy, a hedge is skipped rather than run on the request
+        // thread (see detectLabelWithCascade), so the pool does not grow under load.
+        this.visionExecutor = new ThreadPoolExecutor(0,
+                Math.max(1, environment.getProperty("llm.vision.max-threads", Integer.class, 16)),
+                60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "gemini-vision-" + visionThreads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.textRouter = newRouter(environment);
+        this.visionRouter = newRouter(environment);
+        this.visionLabelCache = environment.getProperty("llm.vision.cache.enabled", Boolean.class, Boolean.TRUE)
+                ? new VisionLabelCache(
+                environment.getProperty("llm.vision.cache.maximum-size", Long.class, 1024L),
+                environment.getProperty("llm.vision.cache.ttl-ms", Long.class, 600_000L),
+                environment.getProperty("llm.vision.cache.max-hamming-distance", Integer.class, 5))
+                : null;
+        this.preprocessEnabled = environment.getProperty("llm.vision.preprocess.enabled", Boolean.class, Boolean.TRUE);
+        // Also built when only the cache is on: it is the one place uploads are decoded, with the pixel cap,
+        // bounded pool and timeout, so the cache's perceptual hash never decodes on the request thread.
+        this.imagePreprocessor = preprocessEnabled || visionLabelCache != null
+                ? new ImagePreprocessor(
+                environment.getProperty("llm.vision.preprocess.max-dimension", Integer.class, 1024),
+                environment.getProperty("llm.vision.preprocess.jpeg-quality", Double.class, 0.85),
+                environment.getProperty("llm.vision.preprocess.max-pixels", Long.class, 64_000_000L),
+                environment.getProperty("llm.vision.preprocess.threads", Integer.class,
+                        Math.max(1, Runtime.getRuntime().availableProcessors() / 2)),
+                environment.getProperty("llm.vision.preprocess.queue-capacity", Integer.class, 32))
+                : null;
+    }
+
+    private static GeminiRouter newRouter(Environment environment) {
+        return new GeminiRouter(
+                environment.getProperty("llm.routing.failure-threshold", Integer.class, 3),
+                environment.getProperty("llm.routing.open-ms", Long.class, 30_000L),
+                environment.getProperty("llm.routing.quota-open-ms", Long.class, 60_000L)
+        );
+    }
+
+    @PreDestroy
+    void shutdownVisionExecutor() {
+        visionExecutor.shutdownNow();
+        if (imagePreprocessor != null) {
+            imagePreprocessor.shutdown();
+        }
     }
 
     public String generateExplanation(Product product) {
@@ -69,13 +146,21 @@ public class LLMService {
             return FALLBACK_MESSAGE;
         }
 
+        String model = resolveModel();
+        GeminiRouter.Permit permit = textRouter.tryAcquire(model);
+        if (permit == null) {
+            log.warn("Gemini explanation skipped: circuit breaker open for textModel={}.", model);
+            return FALLBACK_MESSAGE;
+        }
+        URI endpoint = buildGeminiUri(model, GEMINI_BASE_URL_V1BETA);
+        long startedNanos = System.nanoTime();
         try {
-            String model = resolveModel();
             log.info("Gemini text generation started: keySource={}, textModel={}.",
                     apiKeyResolution.source(), model);
 
             HttpRequest request = HttpRequest.newBuilder()
-                    .uri(buildGeminiUri(model, GEMINI_BASE_URL_V1BETA))
+                    .uri(endpoint)
+                    .timeout(Duration.ofMillis(resolveExplanationTimeoutMs()))
                     .header(GEMINI_API_KEY_HEADER, apiKeyResolution.key())
                     .header("Content-Type", "application/json")
                     .POST(HttpRequest.BodyPublishers.ofString(buildGeminiRequestBody(product)))
@@ -83,10 +168,12 @@ public class LLMService {
 
             HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
             if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                recordErrorStatus(textRouter, model, endpoint, response);
                 log.error("Gemini explanation generation failed for product={}: HTTP {} body={}",
                         safe(product.getName()), response.statusCode(), response.body());
                 return FALLBACK_MESSAGE;
             }
+            textRouter.recordSuccess(model, endpoint, System.nanoTime() - startedNanos);
 
             String content = extractGeneratedText(response.body());
             if (content.isBlank()) {
@@ -96,10 +183,16 @@ public class LLMService {
 
             log.info("Gemini explanation generated successfully for product={}.", safe(product.getName()));
             return content;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return FALLBACK_MESSAGE;
         } catch (Exception ex) {
+            textRouter.recordFailure(model, endpoint);
             log.error("Gemini explanation generation failed for product={}: {}: {}",
                     safe(product.getName()), ex.getClass().getSimpleName(), ex.getMessage());
             return FALLBACK_MESSAGE;
+        } finally {
+            textRouter.release(permit);
         }
     }
 
@@ -119,31 +212,51 @@ public class LLMService {
             return "";
         }
 
-        String sanitizedImage = sanitizeImageBase64(imageBase64);
-        if (sanitizedImage.isBlank()) {
+        // The base64 payload is decoded once; the bytes feed the cache fingerprint, MIME sniffing and re-encode.
+        String sanitizedImage = stripDataUrlPrefix(imageBase64);
+        byte[] imageBytes = decodeImageBase64(sanitizedImage);
+        if (imageBytes.length == 0) {
             log.warn("Gemini image detection skipped: invalid base64 image payload.");
             return "";
         }
 
-        String mimeType = detectMimeType(sanitizedImage);
+        // A re-upload is answered from the exact key before paying for the decode; only a miss decodes the
+        // image (once, on the preprocessing pool) for the near-duplicate lookup and the re-encode.
+        VisionLabelCache.Fingerprint fingerprint = null;
+        if (visionLabelCache != null) {
+            fingerprint = visionLabelCache.contentFingerprint(imageBytes);
+            Optional<String> cached = visionLabelCache.lookupExact(fingerprint);
+            if (cached.isPresent()) {
+                log.info("Gemini image detection served from vision cache: label='{}'", cached.get());
+                return cached.get();
+            }
+        }
+        BufferedImage decoded = imagePreprocessor == null ? null : imagePreprocessor.decode(imageBytes);
+        if (visionLabelCache != null) {
+            fingerprint = visionLabelCache.withImage(fingerprint, decoded);
+            Optional<String> cached = visionLabelCache.lookup(fingerprint);
+            if (cached.isPresent()) {
+                log.info("Gemini image detection served from vision cache: label='{}'", cached.get());
+                return cached.get();
+            }
+        }
+
+        String mimeType = detectMimeType(imageBytes);
+        String uploadImage = sanitizedImage;
+        if (preprocessEnabled) {
+            ImagePreprocessor.PreparedImage prepared = imagePreprocessor.prepare(imageBytes, sanitizedImage, mimeType, decoded);
+            uploadImage = prepared.base64();
+            mimeType = prepared.mimeType();
+        }
         List<String> visionModelCandidates = buildVisionModelCandidates();
         log.info("Gemini image detection started: keySource={}, mimeType={}, modelCandidates={}",
                 apiKeyResolution.source(), mimeType, visionModelCandidates);
 
-        for (String model : visionModelCandidates) {
-            try {
-                String label = detectLabelFromImageWithModel(model, apiKeyResolution.key(), sanitizedImage, mimeType);
-                if (!label.isBlank()) {
-                    return label;
-                }
-            } catch (Exception ex) {
-                log.warn("Gemini image detection attempt failed: model={} error={} message={}",
-                        model, ex.getClass().getSimpleName(), ex.getMessage());
-            }
+        String label = detectLabelWithCascade(visionRouter.orderModels(visionModelCandidates), apiKeyResolution.key(), uploadImage, mimeType);
+        if (fingerprint != null) {
+            visionLabelCache.put(fingerprint, label);
         }
-
-        log.warn("Gemini image detection exhausted all model candidates without a usable label.");
-        return "";
+        return label;
     }
 
     public String getConfiguredTextModel() {
@@ -154,6 +267,39 @@ public class LLMService {
         return resolveVisionModel();
     }
 
+    public Map<String, Object> routingStats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("textModel", resolveModel());
+        out.put("visionCandidates", visionRouter.orderModels(buildVisionModelCandidates()));
+        out.put("models", visionRouter.stats());
+        out.put("textModels", textRouter.stats());
+        Map<String, Object> pool = new LinkedHashMap<>();
+        pool.put("maxThreads", visionExecutor.getMaximumPoolSize());
+        pool.put("active", visionExecutor.getActiveCount());
+        pool.put("hedgesSkippedSaturated", visionHedgesSkipped.sum());
+        pool.put("attemptsRunInline", visionAttemptsInline.sum());
+        out.put("visionPool", pool);
+        return out;
+    }
+
+    public Map<String, Object> visionCacheStats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("enabled", visionLabelCache != null);
+        if (visionLabelCache != null) {
+            out.putAll(visionLabelCache.stats());
+        }
+        return out;
+    }
+
+    public Map<String, Object> imagePreprocessingStats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("enabled", preprocessEnabled);
+        if (imagePreprocessor != null) {
+            out.putAll(imagePreprocessor.stats());
+        }
+        return out;
+    }
+
     public boolean isFallbackExplanation(String explanation) {
         return explanation == null || explanation.isBlank() || FALLBACK_MESSAGE.equals(explanation);
     }
@@ -200,6 +346,10 @@ public class LLMService {
         return "gemini-2.0-flash";
     }
 
+    private long resolveExplanationTimeoutMs() {
+        return positiveOrDefault(environment.getProperty("llm.explanation.timeout-ms", Long.class), DEFAULT_EXPLANATION_TIMEOUT_MS);
+    }
+
     private String resolveVisionModel() {
         String envVisionModel = environment.getProperty("GEMINI_VISION_MODEL");
         if (envVisionModel != null && !envVisionModel.isBlank()) {
@@ -228,27 +378,211 @@ public class LLMService {
         return new ArrayList<>(models);
     }
 
-    private String detectLabelFromImageWithModel(String model, String apiKey, String imageBase64, String mimeType) throws IOException, InterruptedException {
-        List<URI> endpointCandidates = buildGeminiModelEndpointCandidates(model);
+    // Tries the vision models in preference order within one latency budget (llm.vision.timeout-ms). In hedged
+    // mode (llm.vision.hedged, default) the next model is also started when the running ones have not answered
+    // within llm.vision.hedge-delay-ms; otherwise it starts only after a failure. The first usable label wins
+    // and every attempt still running is cancelled. A saturated pool skips the hedge; only when no attempt of
+    // this request is in flight does the request thread make the call itself, under the same deadline.
+    private String detectLabelWithCascade(List<String> models, String apiKey, String imageBase64, String mimeType) {
+        boolean hedged = environment.getProperty("llm.vision.hedged", Boolean.class, Boolean.TRUE);
+        long budgetNanos = TimeUnit.MILLISECONDS.toNanos(
+                positiveOrDefault(environment.getProperty("llm.vision.timeout-ms", Long.class), DEFAULT_VISION_TIMEOUT_MS));
+        long hedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(
+                positiveOrDefault(environment.getProperty("llm.vision.hedge-delay-ms", Long.class), DEFAULT_VISION_HEDGE_DELAY_MS));
+        long startedNanos = System.nanoTime();
+        long deadlineNanos = startedNanos + budgetNanos;
+        if (models.isEmpty()) {
+            log.warn("Gemini image detection skipped: every vision model circuit breaker is open.");
+            return "";
+        }
+
+        ExecutorCompletionService<String> completions = new ExecutorCompletionService<>(visionExecutor);
+        List<Future<String>> attempts = new ArrayList<>(models.size());
+        int started = 0;
+        int running = 0;
+        boolean hedging = hedged;
+        try {
+            while (running > 0 || started < models.size()) {
+                long remainingNanos = deadlineNanos - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    log.warn("Gemini image detection exceeded its latency budget: budgetMs={}, modelsStarted={}",
+                            TimeUnit.NANOSECONDS.toMillis(budgetNanos), started);
+                    return "";
+                }
+                if (running == 0) {
+                    String model = models.get(started++);
+                    Future<String> attempt = trySubmitVisionAttempt(completions, model, apiKey, imageBase64, mimeType, deadlineNanos);
+                    if (attempt != null) {
+                        attempts.add(attempt);
+                        running++;
+                        continue;
+                    }
+                    // Saturated with nothing of ours in flight: this thread would only wait, so it makes the call
+                    // itself. The attempt's HTTP timeout is the remaining budget, so the deadline still holds.
+                    visionAttemptsInline.increment();
+                    String label = attemptVisionModel(model, apiKey, imageBase64, mimeType, deadlineNanos);
+                    if (!label.isBlank()) {
+                        return finishedVisionCascade(label, startedNanos, started);
+                    }
+                    continue;
+                }
+                boolean moreModels = started < models.size();
+                long waitNanos = hedging && moreModels ? Math.min(remainingNanos, hedgeDelayNanos) : remainingNanos;
+                Future<String> completed = completions.poll(waitNanos, TimeUnit.NANOSECONDS);
+                if (completed == null) {
+                    if (hedging && moreModels) {
+                        String model = models.get(started);
+                        Future<String> hedge = trySubmitVisionAttempt(completions, model, apiKey, imageBase64, mimeType, deadlineNanos);
+                        if (hedge == null) {
+                            // Saturated: keep waiting on the attempt in flight instead of blocking this thread
+                            // on a second Gemini call, which would turn the hedge back into a sequential cascade.
+                            visionHedgesSkipped.increment();
+                            hedging = false;
+                            log.info("Gemini image detection hedge skipped: vision pool saturated, model={}", model);
+                        } else {
+                            started++;
+                            attempts.add(hedge);
+                            running++;
+                            log.info("Gemini image detection hedging: no answer after {}ms, starting model={}",
+                                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos), model);
+                        }
+                    }
+                    continue;
+                }
+                running--;
+                String label;
+                try {
+                    label = completed.get();
+                } catch (ExecutionException ex) {
+                    // One model's unexpected error ends only that attempt; the cascade moves on.
+                    log.warn("Gemini image detection attempt failed unexpectedly: {}", ex.getCause().getMessage());
+                    label = "";
+                }
+                if (!label.isBlank()) {
+                    return finishedVisionCascade(label, startedNanos, started);
+                }
+                // Fail over at once while other attempts are still running; with none left, the loop starts the
+                // next model itself.
+                if (running > 0 && started < models.size()) {
+                    String model = models.get(started);
+                    Future<String> next = trySubmitVisionAttempt(completions, model, apiKey, imageBase64, mimeType, deadlineNanos);
+                    if (next != null) {
+                        started++;
+                        attempts.add(next);
+                        running++;
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return "";
+        } finally {
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+
+        log.warn("Gemini image detection exhausted all model candidates without a usable label.");
+        return "";
+    }
+
+    // Null when the vision pool is saturated.
+    private Future<String> trySubmitVisionAttempt(
+            ExecutorCompletionService<String> completions,
+            String model,
+            String apiKey,
+            String imageBase64,
+            String mimeType,
+            long deadlineNanos
+    ) {
+        try {
+            return completions.submit(() -> attemptVisionModel(model, apiKey, imageBase64, mimeType, deadlineNanos));
+        } catch (RejectedExecutionException ex) {
+            return null;
+        }
+    }
+
+    private String finishedVisionCascade(String label, long startedNanos, int modelsStarted) {
+        log.info("Gemini image detection finished: label='{}', elapsedMs={}, modelsStarted={}",
+                label, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos), modelsStarted);
+        return label;
+    }
+
+    // Failures of the HTTP call itself are recorded per endpoint where they happen; anything else that throws
+    // (building the request, reading the response) counts against the model here. A cancelled attempt records
+    // nothing, and the permit is released on every path so a half-open trial cannot stay held.
+    private String attemptVisionModel(String model, String apiKey, String imageBase64, String mimeType, long deadlineNanos) {
+        GeminiRouter.Permit permit = visionRouter.tryAcquire(model);
+        if (permit == null) {
+            log.info("Gemini image detection skipped model={}: circuit breaker open.", model);
+            return "";
+        }
+        try {
+            return detectLabelFromImageWithModel(model, apiKey, imageBase64, mimeType, deadlineNanos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return "";
+        } catch (Exception ex) {
+            visionRouter.recordFailure(model, null);
+            log.warn("Gemini image detection attempt failed: model={} error={} message={}",
+                    model, ex.getClass().getSimpleName(), ex.getMessage());
+            return "";
+        } finally {
+            visionRouter.release(permit);
+        }
+    }
+
+    private static long positiveOrDefault(Long configured, long fallback) {
+        return configured == null || configured <= 0 ? fallback : configured;
+    }
+
+    private String detectLabelFromImageWithModel(
+            String model,
+            String apiKey,
+            String imageBase64,
+            String mimeType,
+            long deadlineNanos
+    ) throws IOException, InterruptedException {
+        List<URI> endpointCandidates = visionRouter.orderEndpoints(model, buildGeminiModelEndpointCandidates(model));
+        boolean answered = false;
         for (URI endpoint : endpointCandidates) {
+            long remainingNanos = deadlineNanos - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return "";
+            }
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(endpoint)
+                    .timeout(Duration.ofNanos(remainingNanos))
                     .header(GEMINI_API_KEY_HEADER, apiKey)
                     .header("Content-Type", "application/json")
                     .POST(HttpRequest.BodyPublishers.ofString(buildGeminiVisionRequestBody(imageBase64, mimeType)))
                     .build();
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            long sentNanos = System.nanoTime();
+            HttpResponse<String> response;
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            } catch (IOException ex) {
+                visionRouter.recordFailure(model, endpoint);
+                log.warn("Gemini image detection request failed: model={} endpoint={} error={} message={}",
+                        model, endpoint, ex.getClass().getSimpleName(), ex.getMessage());
+                return "";
+            }
             if (response.statusCode() < 200 || response.statusCode() >= 300) {
                 String body = response.body() == null ? "" : response.body();
                 String trimmedBody = body.length() > 500 ? body.substring(0, 500) : body;
                 log.warn("Gemini image detection failed: model={} endpoint={} mimeType={} status={} body={}",
                         model, endpoint, mimeType, response.statusCode(), trimmedBody);
                 if (!shouldTryAlternateEndpoint(response.statusCode())) {
+                    recordErrorStatus(visionRouter, model, endpoint, response);
+                    answered = true;
                     break;
                 }
+                if (response.statusCode() == 404) {
+                    visionRouter.recordUnsupportedEndpoint(model, endpoint);
+                }
                 continue;
             }
+            answered = true;
+            visionRouter.recordSuccess(model, endpoint, System.nanoTime() - sentNanos);
 
             String content = extractGeneratedText(response.body());
             String label = normalizeVisionLabel(content);
@@ -262,9 +596,30 @@ public class LLMService {
                     model, endpoint, mimeType, label);
             return label;
         }
+        if (!answered) {
+            // No endpoint accepted the model (404/400 everywhere), which counts against the model itself.
+            visionRouter.recordFailure(model, null);
+        }
         return "";
     }
 
+    private void recordErrorStatus(GeminiRouter router, String model, URI endpoint, HttpResponse<String> response) {
+        if (response.statusCode() == 429) {
+            long retryAfterMillis = response.headers().firstValue("Retry-After")
+                    .map(value -> {
+                        try {
+                            return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+                        } catch (NumberFormatException ex) {
+                            return 0L;
+                        }
+                    })
+                    .orElse(0L);
+            router.recordQuotaExceeded(model, endpoint, retryAfterMillis);
+        } else {
+            router.recordFailure(model, endpoint);
+        }
+    }
+
     private boolean shouldTryAlternateEndpoint(int statusCode) {
         // Only retry the alternate API version for model-not-found style errors.
         return statusCode == 404 || statusCode == 400;
@@ -308,7 +663,7 @@ public class LLMService {
         return objectMapper.writeValueAsString(payload);
     }
 
-    private String buildGeminiVisionRequestBody(String imageBase64, String mimeType) throws IOException {
+    String buildGeminiVisionRequestBody(String imageBase64, String mimeType) throws IOException {
         String prompt = "You are labeling one object from a camera image for an eco-scanner app.\n"
                 + "Identify the single main everyday object.\n"
                 + "Return JSON only in this exact format: {\"label\":\"<1-4 word lowercase label>\"}.\n"
@@ -393,11 +748,7 @@ public class LLMService {
 
         value = value.replace("`", "");
         value = VISION_LABEL_PREFIX.matcher(value).replaceFirst("");
-        value = value.replaceAll("^\"+|\"+$", "");
-        value = value.replaceAll("^'+|'+$", "");
-        value = value.toLowerCase(Locale.ROOT);
-        value = value.replaceAll("[^a-z0-9\\s\\-/]", " ");
-        value = value.replaceAll("\\s+", " ").trim();
+        value = TextNormalizer.normalize(value, ' ', "-/");
 
         if (value.startsWith("a ")) {
             value = value.substring(2).trim();
@@ -462,23 +813,25 @@ public class LLMService {
         return value == null ? "unknown" : String.valueOf(value);
     }
 
-    private String sanitizeImageBase64(String imageBase64) {
+    private String stripDataUrlPrefix(String imageBase64) {
         String value = imageBase64.trim();
         int commaIndex = value.indexOf(',');
         if (value.startsWith("data:") && commaIndex >= 0) {
             value = value.substring(commaIndex + 1);
         }
+        return value;
+    }
 
+    // Empty when the payload is not valid base64.
+    private byte[] decodeImageBase64(String imageBase64) {
         try {
-            Base64.getDecoder().decode(value);
-            return value;
+            return Base64.getDecoder().decode(imageBase64);
         } catch (IllegalArgumentException ex) {
-            return "";
+            return new byte[0];
         }
     }
 
-    private String detectMimeType(String imageBase64) {
-        byte[] decoded = Base64.getDecoder().decode(imageBase64);
+    private String detectMimeType(byte[] decoded) {
         if (decoded.length >= 8
                 && (decoded[0] & 0xFF) == 0x89
                 && decoded[1] == 0x50
@@ -0,0 +1,160 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// SymSpell-style deletion-neighbourhood index. Every known term registers the deletes of its prefix up to
+// MAX_EDIT_DISTANCE; a lookup generates the deletes of the input prefix and only verifies the terms sharing
+// one of them, so the cost does not grow with the vocabulary. Terms are append-only and readers never lock:
+// each delete key holds an immutable array that writers replace. addAll groups a batch by delete key first,
+// so each array is copied once per batch rather than once per term; a common delete (the short deletes of a
+// frequent prefix) is shared by many terms, and adding those one at a time copies its array for every term.
+final class LabelSpellIndex {
+
+    static final int MAX_EDIT_DISTANCE = 2;
+    private static final int PREFIX_LENGTH = 7;
+    private static final String[] NO_TERMS = new String[0];
+
+    private final ConcurrentHashMap<String, Integer> termRanks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String[]> termsByDelete = new ConcurrentHashMap<>();
+    private int nextRank;
+
+    boolean contains(String term) {
+        return termRanks.containsKey(term);
+    }
+
+    int size() {
+        return termRanks.size();
+    }
+
+    void add(String term) {
+        addAll(List.of(term));
+    }
+
+    // Ranks follow the iteration order of terms, so earlier terms win ties between equally close matches.
+    synchronized void addAll(Collection<String> terms) {
+        Map<String, List<String>> added = new HashMap<>();
+        Set<String> batch = new LinkedHashSet<>();
+        for (String term : terms) {
+            if (term == null || term.isBlank() || termRanks.containsKey(term) || !batch.add(term)) {
+                continue;
+            }
+            for (String delete : deletes(prefix(term), MAX_EDIT_DISTANCE)) {
+                added.computeIfAbsent(delete, ignored -> new ArrayList<>()).add(term);
+            }
+        }
+        for (Map.Entry<String, List<String>> delete : added.entrySet()) {
+            String[] existing = termsByDelete.getOrDefault(delete.getKey(), NO_TERMS);
+            String[] merged = Arrays.copyOf(existing, existing.length + delete.getValue().size());
+            for (int i = 0; i < delete.getValue().size(); i++) {
+                merged[existing.length + i] = delete.getValue().get(i);
+            }
+            termsByDelete.put(delete.getKey(), merged);
+        }
+        // Ranks are published last, so a term is only reported as contained once its deletes are indexed.
+        for (String term : batch) {
+            termRanks.put(term, nextRank++);
+        }
+    }
+
+    Optional<String> nearest(String input, int maxDistance) {
+        if (input == null || input.isBlank() || maxDistance <= 0) {
+            return Optional.empty();
+        }
+        int distanceLimit = Math.min(maxDistance, MAX_EDIT_DISTANCE);
+        String best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        int bestRank = Integer.MAX_VALUE;
+        Set<String> verified = new HashSet<>();
+        for (String delete : deletes(prefix(input), distanceLimit)) {
+            String[] terms = termsByDelete.get(delete);
+            if (terms == null) {
+                continue;
+            }
+            for (String term : terms) {
+                if (Math.abs(term.length() - input.length()) > distanceLimit || !verified.add(term)) {
+                    continue;
+                }
+                int distance = boundedDistance(input, term, Math.min(distanceLimit, bestDistance));
+                if (distance < 0) {
+                    continue;
+                }
+                int rank = termRanks.getOrDefault(term, Integer.MAX_VALUE);
+                if (distance < bestDistance || (distance == bestDistance && rank < bestRank)) {
+                    best = term;
+                    bestDistance = distance;
+                    bestRank = rank;
+                }
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    private static String prefix(String value) {
+        return value.length() > PREFIX_LENGTH ? value.substring(0, PREFIX_LENGTH) : value;
+    }
+
+    private static Set<String> deletes(String value, int maxDistance) {
+        Set<String> out = new HashSet<>();
+        out.add(value);
+        Set<String> frontier = Set.of(value);
+        for (int distance = 0; distance < maxDistance; distance++) {
+            Set<String> next = new HashSet<>();
+            for (String current : frontier) {
+                for (int i = 0; i < current.length(); i++) {
+                    String delete = current.substring(0, i) + current.substring(i + 1);
+                    if (out.add(delete)) {
+                        next.add(delete);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return out;
+    }
+
+    // Optimal string alignment distance (adjacent transpositions count once); -1 when above maxDistance.
+    private static int boundedDistance(String source, String target, int maxDistance) {
+        int sourceLength = source.length();
+        int targetLength = target.length();
+        int[] previousPrevious = new int[targetLength + 1];
+        int[] previous = new int[targetLength + 1];
+        int[] current = new int[targetLength + 1];
+        for (int j = 0; j <= targetLength; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= sourceLength; i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= targetLength; j++) {
+                int cost = source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1
+                        && source.charAt(i - 1) == target.charAt(j - 2)
+                        && source.charAt(i - 2) == target.charAt(j - 1)) {
+                    value = Math.min(value, previousPrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMinimum = Math.min(rowMinimum, value);
+            }
+            if (rowMinimum > maxDistance) {
+                return -1;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        int distance = previous[targetLength];
+        return distance <= maxDistance ? distance : -1;
+    }
+}
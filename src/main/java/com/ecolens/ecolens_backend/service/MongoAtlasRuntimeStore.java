@@ -9,10 +9,13 @@ import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 import org.bson.Document;
@@ -30,9 +33,18 @@ import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.ConnectionString;
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.MongoClientSettings;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.ReplaceOneModel;
 import com.mongodb.client.model.ReplaceOptions;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
 
 @Service
 public class MongoAtlasRuntimeStore {
@@ -111,6 +123,86 @@ public class MongoAtlasRuntimeStore {
         });
     }
 
+    // Upserts products in one ordered bulk write, matched the way saveProduct matches them. The result has one
+    // slot per input; when the write stops at a failing row, that row and the ones after it are null, since an
+    // ordered bulk write applies nothing past its first error.
+    public List<Product> saveProducts(List<Product> toSave) {
+        if (toSave.isEmpty()) {
+            return List.of();
+        }
+        return withProductsCollection(products -> {
+            List<Document> docs = new ArrayList<>(toSave.size());
+            List<WriteModel<Document>> writes = new ArrayList<>(toSave.size());
+            for (Product product : toSave) {
+                String nameKey = normalizeKey(safeText(product.getName(), "Unknown Product"));
+                String categoryKey = normalizeKey(safeText(product.getCategory(), "unknown"));
+                Document doc = toProductDocument(product)
+                        .append("nameKey", nameKey)
+                        .append("categoryKey", categoryKey);
+                var filter = and(eq("nameKey", nameKey), eq("categoryKey", categoryKey));
+                if (product.getId() != null) {
+                    doc.append("legacyId", product.getId());
+                    filter = eq("legacyId", product.getId());
+                }
+                docs.add(doc);
+                writes.add(new ReplaceOneModel<>(filter, doc, new ReplaceOptions().upsert(true)));
+            }
+            int written = toSave.size();
+            try {
+                products.bulkWrite(writes, new BulkWriteOptions().ordered(true));
+            } catch (MongoBulkWriteException ex) {
+                written = ex.getWriteErrors().stream().mapToInt(BulkWriteError::getIndex).min().orElse(0);
+                log.warn("Mongo product bulk write stopped at row {} of {}: {}", written, toSave.size(), ex.getMessage());
+            }
+            List<Product> out = new ArrayList<>(toSave.size());
+            for (int i = 0; i < docs.size(); i++) {
+                out.add(i < written ? toProduct(docs.get(i)) : null);
+            }
+            return out;
+        });
+    }
+
+    // Streams the products collection through one cursor in batches, so only one batch is held in memory.
+    public long forEachProductBatch(int batchSize, Consumer<List<Product>> batchConsumer) {
+        int size = Math.max(1, batchSize);
+        return withProductsCollection(products -> {
+            long total = 0;
+            List<Product> batch = new ArrayList<>(size);
+            for (Document doc : products.find().batchSize(size)) {
+                batch.add(toProduct(doc));
+                if (batch.size() == size) {
+                    batchConsumer.accept(batch);
+                    total += batch.size();
+                    batch = new ArrayList<>(size);
+                }
+            }
+            if (!batch.isEmpty()) {
+                batchConsumer.accept(batch);
+                total += batch.size();
+            }
+            return total;
+        });
+    }
+
+    public long updateProductRatings(List<Product> rated) {
+        if (rated.isEmpty()) {
+            return 0L;
+        }
+        return withProductsCollection(products -> {
+            List<WriteModel<Document>> updates = new ArrayList<>(rated.size());
+            for (Product product : rated) {
+                var filter = product.getId() != null
+                        ? eq("legacyId", product.getId())
+                        : and(eq("nameKey", normalizeKey(safeText(product.getName(), "Unknown Product"))),
+                        eq("categoryKey", normalizeKey(safeText(product.getCategory(), "unknown"))));
+                updates.add(new UpdateOneModel<>(filter, Updates.combine(
+                        Updates.set("ratedEcoScore", product.getRatedEcoScore()),
+                        Updates.set("ratedScoringVersion", product.getRatedScoringVersion()))));
+            }
+            return (long) products.bulkWrite(updates).getModifiedCount();
+        });
+    }
+
     public List<Double> findAllProductCarbonImpactsOrdered() {
         return withProductsCollection(products -> {
             List<Double> out = new ArrayList<>();
@@ -157,6 +249,17 @@ public class MongoAtlasRuntimeStore {
         });
     }
 
+    public Map<String, Long> countHistoryByItem() {
+        return withHistoryCollection(history -> {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (Document doc : history.aggregate(List.of(Aggregates.group("$item", Accumulators.sum("scans", 1L))))) {
+                Object item = doc.get("_id");
+                counts.merge(item == null ? "Unknown item" : item.toString(), ((Number) doc.get("scans")).longValue(), Long::sum);
+            }
+            return counts;
+        });
+    }
+
     public boolean deleteHistoryEntryByUserAndId(String userId, String historyId) {
         String normalizedUserId = safeText(userId, "");
         String normalizedHistoryId = safeText(historyId, "");
@@ -236,7 +339,9 @@ public class MongoAtlasRuntimeStore {
                 .append("isReusable", product.getReusable())
                 .append("isSingleUse", product.getSingleUse())
                 .append("recycledContentPercent", product.getRecycledContentPercent())
-                .append("lifecycleType", safeText(product.getLifecycleType(), ""));
+                .append("lifecycleType", safeText(product.getLifecycleType(), ""))
+                .append("ratedEcoScore", product.getRatedEcoScore())
+                .append("ratedScoringVersion", product.getRatedScoringVersion());
     }
 
     private Product toProduct(Document doc) {
@@ -255,6 +360,8 @@ public class MongoAtlasRuntimeStore {
                 toInteger(doc.get("recycledContentPercent")),
                 safeText(doc.getString("lifecycleType"), "")
         );
+        product.setRatedEcoScore(toInteger(doc.get("ratedEcoScore")));
+        product.setRatedScoringVersion(doc.getString("ratedScoringVersion"));
 
         // Preserve JPA legacy id when available (best-effort reflection keeps Product API unchanged).
         if (legacyId != null) {
@@ -327,11 +434,7 @@ public class MongoAtlasRuntimeStore {
     }
 
     private String normalizeKey(String value) {
-        return safeText(value, "")
-                .toLowerCase(Locale.ROOT)
-                .replaceAll("[^a-z0-9]+", " ")
-                .trim()
-                .replaceAll("\\s+", "_");
+        return TextNormalizer.normalize(value, '_');
     }
 
     private String safeText(String value, String fallback) {
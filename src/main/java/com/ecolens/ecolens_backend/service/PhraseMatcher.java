@@ -0,0 +1,130 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+// Aho-Corasick automaton over normalized text. Each phrase carries a flag mask; match() walks the text once
+// and returns the union of the masks of every phrase occurring as a substring. The goto/failure functions are
+// folded into a dense transition table at build time, so matching is one array lookup per character.
+final class PhraseMatcher {
+
+    // 0 = any character that cannot appear in a normalized phrase, 1 = space, then a-z and 0-9.
+    private static final int ALPHABET = 38;
+
+    private final int[][] transitions;
+    private final long[] outputs;
+
+    private PhraseMatcher(int[][] transitions, long[] outputs) {
+        this.transitions = transitions;
+        this.outputs = outputs;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    long match(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0L;
+        }
+        int state = 0;
+        long flags = 0L;
+        for (int i = 0; i < text.length(); i++) {
+            state = transitions[state][symbol(text.charAt(i))];
+            flags |= outputs[state];
+        }
+        return flags;
+    }
+
+    private static int symbol(char value) {
+        if (value == ' ') {
+            return 1;
+        }
+        if (value >= 'a' && value <= 'z') {
+            return 2 + (value - 'a');
+        }
+        if (value >= '0' && value <= '9') {
+            return 28 + (value - '0');
+        }
+        return 0;
+    }
+
+    static final class Builder {
+
+        private final List<int[]> trie = new ArrayList<>();
+        private final List<Long> trieOutputs = new ArrayList<>();
+
+        private Builder() {
+            newState();
+        }
+
+        Builder add(long flags, String normalizedPhrase) {
+            if (normalizedPhrase == null || normalizedPhrase.isEmpty()) {
+                return this;
+            }
+            int state = 0;
+            for (int i = 0; i < normalizedPhrase.length(); i++) {
+                int symbol = symbol(normalizedPhrase.charAt(i));
+                if (symbol == 0) {
+                    throw new IllegalArgumentException("Phrase is not normalized: '" + normalizedPhrase + "'");
+                }
+                int next = trie.get(state)[symbol];
+                if (next < 0) {
+                    next = newState();
+                    trie.get(state)[symbol] = next;
+                }
+                state = next;
+            }
+            trieOutputs.set(state, trieOutputs.get(state) | flags);
+            return this;
+        }
+
+        PhraseMatcher build() {
+            int stateCount = trie.size();
+            int[][] transitions = new int[stateCount][];
+            long[] outputs = new long[stateCount];
+            int[] failure = new int[stateCount];
+            for (int state = 0; state < stateCount; state++) {
+                transitions[state] = Arrays.copyOf(trie.get(state), ALPHABET);
+                outputs[state] = trieOutputs.get(state);
+            }
+
+            // Breadth-first, so a state's failure target is complete before the state itself is resolved.
+            Deque<Integer> queue = new ArrayDeque<>();
+            for (int symbol = 0; symbol < ALPHABET; symbol++) {
+                int child = transitions[0][symbol];
+                if (child < 0) {
+                    transitions[0][symbol] = 0;
+                } else {
+                    failure[child] = 0;
+                    queue.add(child);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                outputs[state] |= outputs[failure[state]];
+                for (int symbol = 0; symbol < ALPHABET; symbol++) {
+                    int child = transitions[state][symbol];
+                    if (child < 0) {
+                        transitions[state][symbol] = transitions[failure[state]][symbol];
+                    } else {
+                        failure[child] = transitions[failure[state]][symbol];
+                        queue.add(child);
+                    }
+                }
+            }
+            return new PhraseMatcher(transitions, outputs);
+        }
+
+        private int newState() {
+            int[] row = new int[ALPHABET];
+            Arrays.fill(row, -1);
+            trie.add(row);
+            trieOutputs.add(0L);
+            return trie.size() - 1;
+        }
+    }
+}
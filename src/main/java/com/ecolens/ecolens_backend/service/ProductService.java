@@ -2,16 +2,31 @@ package com.ecolens.ecolens_backend.service;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.annotation.PreDestroy;
 
 import com.ecolens.ecolens_backend.config.CatalogProperties;
 import com.ecolens.ecolens_backend.config.ScoringProperties;
@@ -19,14 +34,24 @@ import com.ecolens.ecolens_backend.dto.RecognitionResponse;
 import com.ecolens.ecolens_backend.dto.ScoreFactor;
 import com.ecolens.ecolens_backend.model.Product;
 import com.ecolens.ecolens_backend.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 
 @Service
 public class ProductService {
 
     private static final Logger log = LoggerFactory.getLogger(ProductService.class);
-    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
     private static final double FUZZY_MATCH_THRESHOLD = 0.45;
+    private static final double NGRAM_MATCH_THRESHOLD = 0.5;
+    private static final double NGRAM_MIN_SHARED_RATIO = 0.3;
+    private static final int NGRAM_CANDIDATE_LIMIT = 32;
+    private static final int SEMANTIC_CANDIDATE_LIMIT = 8;
+    private static final int SPELL_MIN_TERM_LENGTH = 6;
+    private static final int SPELL_DOUBLE_EDIT_MIN_LENGTH = 10;
     private static final double DEFAULT_METADATA_INFERENCE_CONFIDENCE_MULTIPLIER = 0.84;
+    private static final int INFERENCE_RULE_FLAG_OFFSET = 32;
     private static final Map<String, String> LABEL_ALIASES = Map.ofEntries(
             Map.entry("paper coffee cup", "paper cup"),
             Map.entry("disposable coffee cup", "paper cup"),
@@ -93,26 +118,130 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final MongoAtlasRuntimeStore mongoAtlasRuntimeStore;
     private final LLMService llmService;
-    private final ScoringProperties scoringProperties;
     private final CatalogProperties catalogProperties;
+    private final AtomicReference<CatalogSnapshot> catalogSnapshot = new AtomicReference<>();
+    private final LabelSpellIndex labelSpellIndex = new LabelSpellIndex();
+    private final PhraseMatcher phraseMatcher;
+    private final AtomicReference<ScoringSnapshot> scoringSnapshot;
+    private final TokenVocabulary tokenVocabulary = new TokenVocabulary();
+    private final ForkJoinPool fuzzyScoringPool;
+    private final KllSketch co2Sketch;
+    private final HashedTextEmbedder textEmbedder;
+    private final HnswIndex<SemanticTarget> semanticIndex;
+    private final Set<String> semanticIndexed = ConcurrentHashMap.newKeySet();
+    private final Cache<String, ResolvedLabel> resolutionCache;
+    // Reverse index over resolutionCache, so a save only visits the labels it can affect. Entries are added after
+    // a value is cached and dropped by the cache's removal listener; a stale one only costs a lookup, since every
+    // candidate is checked against its cached value before removal.
+    private final ConcurrentHashMap<String, Set<String>> resolutionLabelsByMatchedKey = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Set<String>> resolutionLabelsByTrigram = new ConcurrentHashMap<>();
+    private final Set<String> unmatchedResolutionLabels = ConcurrentHashMap.newKeySet();
+    private final AtomicLong resolutionCacheGeneration = new AtomicLong();
+    private final AtomicLong co2DistributionVersion = new AtomicLong();
+    private final LongAdder resolutionCacheInvalidations = new LongAdder();
+    private final LongAdder resolutionCacheRatingRefreshes = new LongAdder();
+    private final ConcurrentHashMap<String, MaterializedRating> materializedRatings = new ConcurrentHashMap<>();
+    private final AtomicBoolean materializedRatingRefreshScheduled = new AtomicBoolean();
+    private final LongAdder materializedRatingHits = new LongAdder();
+    private final LongAdder materializedRatingRecomputes = new LongAdder();
+    private final LongAdder scoreFactorBuilds = new LongAdder();
+    private final SingleFlight<String, CatalogEntry> autoLearnFlights = new SingleFlight<>(0L);
+    private final Set<String> pendingAutoLearnKeys = ConcurrentHashMap.newKeySet();
+    private final LongAdder autoLearnUpserts = new LongAdder();
+    private final LongAdder autoLearnSynchronousWrites = new LongAdder();
+    private final LongAdder autoLearnAbandoned = new LongAdder();
+    private final WriteBehindQueue<PendingAutoLearn> autoLearnWrites;
+    private final ExplanationQueue explanationQueue;
+    private final SingleFlight<String, String> explanationFlights;
 
     public ProductService(
             ProductRepository productRepository,
             MongoAtlasRuntimeStore mongoAtlasRuntimeStore,
             LLMService llmService,
             ScoringProperties scoringProperties,
-            CatalogProperties catalogProperties
+            CatalogProperties catalogProperties,
+            TrainingDataService trainingDataService
     ) {
         this.productRepository = productRepository;
         this.mongoAtlasRuntimeStore = mongoAtlasRuntimeStore;
         this.llmService = llmService;
-        this.scoringProperties = scoringProperties;
         this.catalogProperties = catalogProperties;
+
+        List<String> spellTerms = new ArrayList<>();
+        for (Map.Entry<String, String> alias : LABEL_ALIASES.entrySet().stream().sorted(Map.Entry.comparingByKey()).toList()) {
+            addSpellTerms(spellTerms, alias.getValue());
+            addSpellTerms(spellTerms, alias.getKey());
+        }
+        trainingDataService.taxonomyTerms().stream().sorted().forEach(term -> addSpellTerms(spellTerms, term));
+        labelSpellIndex.addAll(spellTerms);
+        this.phraseMatcher = compilePhraseMatcher();
+        this.scoringSnapshot = new AtomicReference<>(ScoringSnapshot.of(scoringProperties));
+        CatalogProperties.ResolutionCache cacheProperties = catalogProperties.getResolutionCache();
+        this.resolutionCache = cacheProperties.isEnabled()
+                ? Caffeine.newBuilder()
+                .maximumSize(Math.max(1, cacheProperties.getMaximumSize()))
+                .recordStats()
+                .executor(Runnable::run)
+                .removalListener((String label, ResolvedLabel resolved, RemovalCause cause) -> {
+                    if (label != null && resolved != null) {
+                        unindexResolution(label, resolved);
+                    }
+                })
+                .build()
+                : null;
+        CatalogProperties.ParallelScoring parallelScoring = catalogProperties.getParallelScoring();
+        this.fuzzyScoringPool = parallelScoring.isEnabled() && parallelScoring.getParallelism() > 1
+                ? new ForkJoinPool(parallelScoring.getParallelism())
+                : null;
+        this.co2Sketch = new KllSketch(scoringProperties.getCo2Normalization().getSketchK());
+        CatalogProperties.Semantic semantic = catalogProperties.getSemantic();
+        this.textEmbedder = new HashedTextEmbedder(semantic.getDimensions());
+        this.semanticIndex = semantic.isEnabled()
+                ? new HnswIndex<>(semantic.getM(), semantic.getEfConstruction())
+                : null;
+        trainingDataService.taxonomyLeafLabelsByTerm().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(term -> indexSemanticTarget(new SemanticTarget(term.getKey(), null, normalizeLabel(term.getValue()))));
+        CatalogProperties.AutoLearnWriteBehind writeBehind = catalogProperties.getAutoLearnWriteBehind();
+        this.autoLearnWrites = writeBehind.isEnabled()
+                ? new WriteBehindQueue<>("catalog-auto-learn-writer", writeBehind.getQueueCapacity(),
+                writeBehind.getBatchSize(), writeBehind.getMaxAttempts(), this::writeAutoLearnedProducts,
+                this::abandonAutoLearnedProducts)
+                : null;
+        this.explanationQueue = catalogProperties.getExplanations().isAsync()
+                ? new ExplanationQueue(llmService, catalogProperties.getExplanations(), this::saveGeneratedExplanation)
+                : null;
+        this.explanationFlights = new SingleFlight<>(catalogProperties.getExplanations().getShareWindowMs());
+    }
+
+    @PreDestroy
+    void shutdownScoringPool() {
+        if (explanationQueue != null) {
+            explanationQueue.shutdown();
+        }
+        if (autoLearnWrites != null) {
+            autoLearnWrites.shutdown();
+        }
+        if (fuzzyScoringPool != null) {
+            fuzzyScoringPool.shutdown();
+        }
     }
 
     public RecognitionResponse handleRecognition(String detectedLabel, String imageBase64, double confidence) {
+        return handleRecognition(detectedLabel, imageBase64, confidence, true);
+    }
+
+    // includeScoreFactors=false (detail=summary) never builds the ScoreFactor breakdown, materialized ratings
+    // included; the response then carries no scoreFactors.
+    public RecognitionResponse handleRecognition(
+            String detectedLabel,
+            String imageBase64,
+            double confidence,
+            boolean includeScoreFactors
+    ) {
         log.info("Model routing for recognition request: textModel={}, visionModel={}",
                 llmService.getConfiguredTextModel(), llmService.getConfiguredVisionModel());
+        ScoringSnapshot scoring = scoringSnapshot.get();
 
         String providedLabel = canonicalizeLabel(normalizeLabel(detectedLabel));
         String labelForLookup = providedLabel;
@@ -144,40 +273,41 @@ public class ProductService {
         String normalizedLabel = labelForLookup;
         String generationStatus = "skipped_cached_explanation";
 
-        ProductMatchResult productMatchResult = findBestProduct(normalizedLabel);
-        Product product = productMatchResult.product().orElseGet(() -> createDefaultProduct(normalizedLabel));
-        if (!normalizedLabel.isBlank()) {
-            String productNameNormalized = normalizeLabel(product.getName());
-            if (isMissingText(productNameNormalized) || "unknown product".equals(productNameNormalized)) {
-                product.setName(toDisplayLabel(normalizedLabel));
-            }
-            String productCategoryNormalized = normalizeLabel(product.getCategory());
-            if (isMissingText(productCategoryNormalized) || "unknown".equals(productCategoryNormalized)) {
-                product.setCategory(normalizedLabel);
-            }
-        }
-
-        MetadataResolution metadataResolution = resolveMetadata(product, normalizedLabel);
+        ResolvedLabel resolvedLabel = resolveLabel(normalizedLabel, scoring, includeScoreFactors);
+        ProductMatchResult productMatchResult = resolvedLabel.match();
+        CatalogEntry catalogEntry = resolvedLabel.entry();
+        Product product = new Product(catalogEntry.product());
+        MetadataResolution metadataResolution = resolvedLabel.metadata();
+        RatingDecision ratingDecision = resolvedLabel.rating();
         boolean autoLearned = false;
         if (shouldAutoLearnProduct(productMatchResult, normalizedLabel, confidence, hasImage)) {
-            product = upsertAutoLearnedProduct(normalizedLabel, metadataResolution);
-            metadataResolution = resolveMetadata(product, normalizedLabel);
-            productMatchResult = new ProductMatchResult(Optional.of(product), "auto_learned", 0.0);
+            catalogEntry = autoLearnProduct(normalizedLabel, metadataResolution, scoring);
+            product = new Product(catalogEntry.product());
+            metadataResolution = resolveMetadata(catalogEntry, normalizedLabel);
+            productMatchResult = new ProductMatchResult(Optional.of(catalogEntry), "auto_learned", 0.0);
             autoLearned = true;
+            ratingDecision = ratingFor(catalogEntry, metadataResolution, scoring, includeScoreFactors);
         }
 
-        RatingDecision ratingDecision = rateProduct(product, metadataResolution);
-
         boolean shouldAttemptLlmExplanation =
                 "exact".equals(productMatchResult.strategy()) && !metadataResolution.inferred();
         if (product.getExplanation() == null || product.getExplanation().isBlank()) {
-            if (shouldAttemptLlmExplanation) {
+            if (pendingAutoLearnKeys.contains(catalogEntry.key())) {
+                // Saving now would race the queued insert; the explanation is generated once it is stored.
+                generationStatus = "skipped_pending_auto_learn";
+            } else if (shouldAttemptLlmExplanation && explanationQueue != null) {
+                // The response carries the rule-based summary; the generated text is stored for later scans.
+                generationStatus = explanationQueue.submit(catalogEntry.key(), product);
+            } else if (shouldAttemptLlmExplanation) {
                 generationStatus = "attempted";
                 try {
-                    String generatedExplanation = llmService.generateExplanation(product);
+                    // Concurrent scans of the product share one Gemini call, and its outcome for a short window.
+                    String entryKey = catalogEntry.key();
+                    Product source = product;
+                    String generatedExplanation = explanationFlights.execute(entryKey,
+                            () -> generateAndStoreExplanation(entryKey, source));
                     if (!llmService.isFallbackExplanation(generatedExplanation)) {
                         product.setExplanation(generatedExplanation);
-                        product = saveProduct(product);
                         generationStatus = "attempted_saved";
                     } else {
                         generationStatus = "attempted_fallback";
@@ -206,8 +336,8 @@ public class ProductService {
         response.setPreBoostScore(ratingDecision.preBoostScore());
         response.setGreenerAlternativeBoost(ratingDecision.greenerAlternativeBoost());
         response.setGreenerAlternativeBoostApplied(ratingDecision.greenerAlternative());
-        response.setScoringVersion(scoringProperties.getVersion());
-        response.setScoreFactors(ratingDecision.scoreFactors());
+        response.setScoringVersion(scoring.version());
+        response.setScoreFactors(includeScoreFactors ? ratingDecision.scoreFactors() : null);
         double catalogCoverage = computeCatalogCoverage(productMatchResult, metadataResolution);
         response.setCatalogMatchStrategy(productMatchResult.strategy());
         response.setCatalogCoverage(roundThreeDecimals(catalogCoverage));
@@ -243,19 +373,475 @@ public class ProductService {
         return response;
     }
 
-    private Product createDefaultProduct(String detectedLabel) {
+    public Map<String, Object> resolutionCacheStats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("enabled", resolutionCache != null);
+        out.put("maximumSize", catalogProperties.getResolutionCache().getMaximumSize());
+        out.put("scoringVersion", scoringSnapshot.get().version());
+        out.put("co2DistributionVersion", co2DistributionVersion.get());
+        out.put("materializedRatings", materializedRatings.size());
+        out.put("materializedRatingHits", materializedRatingHits.sum());
+        out.put("materializedRatingRecomputes", materializedRatingRecomputes.sum());
+        out.put("scoreFactorBuilds", scoreFactorBuilds.sum());
+        if (resolutionCache == null) {
+            return out;
+        }
+        CacheStats stats = resolutionCache.stats();
+        out.put("size", resolutionCache.estimatedSize());
+        out.put("hits", stats.hitCount());
+        out.put("misses", stats.missCount());
+        out.put("hitRate", roundThreeDecimals(stats.hitRate()));
+        out.put("evictions", stats.evictionCount());
+        out.put("invalidations", resolutionCacheInvalidations.sum());
+        out.put("ratingRefreshes", resolutionCacheRatingRefreshes.sum());
+        return out;
+    }
+
+    public Map<String, Object> autoLearnStats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("enabled", catalogProperties.isAutoLearnEnabled());
+        out.put("inFlight", autoLearnFlights.inFlight());
+        out.put("upserts", autoLearnUpserts.sum());
+        out.put("coalesced", autoLearnFlights.shared());
+        out.put("pendingWrites", pendingAutoLearnKeys.size());
+        out.put("synchronousWrites", autoLearnSynchronousWrites.sum());
+        out.put("abandoned", autoLearnAbandoned.sum());
+        out.put("writeBehind", autoLearnWrites == null ? Map.of("enabled", false) : autoLearnWrites.stats());
+        return out;
+    }
+
+    public Map<String, Object> explanationStats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("async", explanationQueue != null);
+        out.put("inlineCalls", explanationFlights.calls());
+        out.put("inlineShared", explanationFlights.shared());
+        out.put("inlineInFlight", explanationFlights.inFlight());
+        if (explanationQueue != null) {
+            out.putAll(explanationQueue.stats());
+        }
+        return out;
+    }
+
+    boolean explanationsIdle() {
+        return explanationQueue == null || explanationQueue.isIdle();
+    }
+
+    // Blocks until every queued auto-learned product has been written to the store.
+    void flushAutoLearnWrites() {
+        if (autoLearnWrites != null) {
+            autoLearnWrites.flush();
+        }
+    }
+
+    public Map<String, Object> invalidateResolutionCache() {
+        if (resolutionCache != null) {
+            resolutionCacheGeneration.incrementAndGet();
+            long removed = resolutionCache.estimatedSize();
+            resolutionCache.invalidateAll();
+            resolutionCacheInvalidations.add(removed);
+            log.info("Resolution cache invalidated: entries={}", removed);
+        }
+        scheduleMaterializedRatingRefresh();
+        return resolutionCacheStats();
+    }
+
+    // Rates a stored product the way a recognition of its own name would, without the factor breakdown.
+    public int rateStoredProduct(Product product) {
+        return rateStoredProduct(product, scoringSnapshot.get());
+    }
+
+    // For callers that stamp the result with a version: rating with the snapshot they captured keeps the score
+    // and the version from two different configs when a reload lands mid-run.
+    int rateStoredProduct(Product product, ScoringSnapshot scoring) {
+        CatalogEntry entry = toCatalogEntry(product, false);
+        MetadataResolution metadataResolution = resolveMetadata(entry, entry.normalizedName());
+        return rateProduct(entry, metadataResolution, scoring, false).ecoScore();
+    }
+
+    public String scoringVersion() {
+        return scoringSnapshot.get().version();
+    }
+
+    ScoringSnapshot scoringSnapshot() {
+        return scoringSnapshot.get();
+    }
+
+    // Publishes a reloaded config. Requests already running keep the snapshot they captured; cached and
+    // materialized ratings were computed with a specific snapshot, so they are recomputed on next use or by
+    // the background refresh. Cached unmatched labels also carry a default product built from the old config,
+    // so they are dropped outright.
+    void applyScoringSnapshot(ScoringSnapshot next) {
+        ScoringSnapshot previous = scoringSnapshot.getAndSet(next);
+        if (previous == next) {
+            return;
+        }
+        int removed = 0;
+        if (resolutionCache != null) {
+            resolutionCacheGeneration.incrementAndGet();
+            for (String label : List.copyOf(unmatchedResolutionLabels)) {
+                ResolvedLabel cached = resolutionCache.asMap().get(label);
+                if (cached != null && cached.match().entry().isEmpty() && resolutionCache.asMap().remove(label, cached)) {
+                    removed++;
+                }
+            }
+            resolutionCacheInvalidations.add(removed);
+        }
+        log.info("Scoring config applied: version={} (was {}), featureRules={}, unmatchedResolutionsDropped={}",
+                next.version(), previous.version(), next.ruleTable().size(), removed);
+        scheduleMaterializedRatingRefresh();
+    }
+
+    ScoringSimulator.Builder newSimulationBuilder() {
+        CatalogSnapshot snapshot = catalogSnapshot();
+        boolean sketchMode = scoringSnapshot.get().co2SketchMode();
+        Co2Distribution distribution = snapshot.co2Distribution();
+        boolean empty = sketchMode ? co2Sketch.count() == 0 : distribution.isEmpty();
+        return new ScoringSimulator.Builder(
+                sketchMode ? co2Sketch::percentileRank : distribution::percentileRank, empty);
+    }
+
+    // Catalog rows use the metadata a product's own name resolves to, like rateStoredProduct.
+    void addCatalogSimulationRows(ScoringSimulator.Builder builder) {
+        catalogSnapshot().entries().parallelStream().forEach(entry -> addSimulationRow(builder,
+                ScoringSimulator.SCOPE_CATALOG, 1L, entry, resolveMetadata(entry, entry.normalizedName())));
+    }
+
+    // A history label is matched the way a new recognition of it would be, bypassing the resolution cache.
+    void addLabelSimulationRow(ScoringSimulator.Builder builder, String label, long scans) {
+        String normalizedLabel = canonicalizeLabel(normalizeLabel(label));
+        CatalogEntry entry = entryForMatch(findBestProduct(normalizedLabel), normalizedLabel, scoringSnapshot.get());
+        addSimulationRow(builder, ScoringSimulator.SCOPE_HISTORY, scans, entry, resolveMetadata(entry, normalizedLabel));
+    }
+
+    private void addSimulationRow(
+            ScoringSimulator.Builder builder,
+            int scope,
+            long weight,
+            CatalogEntry entry,
+            MetadataResolution metadataResolution
+    ) {
+        Product product = entry.product();
+        String combined = entry.categoryName();
+        String material = metadataResolution.material();
+        boolean materialMissing = material == null || material.isBlank();
+        boolean naturePositiveItem = isNaturePositiveItem(
+                phraseMatcher.match(combined),
+                phraseMatcher.match(material),
+                phraseMatcher.match(metadataResolution.lifecycleType()));
+        builder.add(
+                scope,
+                weight,
+                product.getEcoScore(),
+                product.getCarbonImpact(),
+                metadataResolution.singleUse(),
+                metadataResolution.reusable(),
+                naturePositiveItem,
+                metadataResolution.lifecycleType(),
+                materialMissing ? combined : material,
+                normalizeLabel(metadataResolution.recyclability()),
+                clamp(metadataResolution.recycledContentPercent(), 0, 100)
+        );
+    }
+
+    public Map<String, Object> co2SketchStats() {
+        catalogSnapshot();
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("mode", scoringSnapshot.get().co2SketchMode() ? "sketch" : "exact");
+        out.put("k", co2Sketch.k());
+        out.put("count", co2Sketch.count());
+        out.put("retained", co2Sketch.retained());
+        out.put("normalizedRankError", roundThreeDecimals(co2Sketch.normalizedRankError()));
+        out.put("sketch", Base64.getEncoder().encodeToString(co2Sketch.serialize()));
+        return out;
+    }
+
+    // Merges a peer's sketch (from GET co2-sketch) so instances that took disjoint catalog writes share one view.
+    public Map<String, Object> mergeCo2Sketch(String serializedSketch) {
+        KllSketch other;
+        try {
+            other = KllSketch.deserialize(Base64.getDecoder().decode(safe(serializedSketch).trim()));
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid CO2 sketch: " + ex.getMessage());
+        }
+        catalogSnapshot();
+        co2Sketch.merge(other);
+        co2DistributionVersion.incrementAndGet();
+        scheduleMaterializedRatingRefresh();
+        log.info("CO2 sketch merged: mergedCount={}, count={}", other.count(), co2Sketch.count());
+        return co2SketchStats();
+    }
+
+    private ResolvedLabel resolveLabel(String normalizedLabel, ScoringSnapshot scoring, boolean explain) {
+        long distributionVersion = co2DistributionVersion.get();
+        if (resolutionCache == null) {
+            return computeResolvedLabel(normalizedLabel, scoring, distributionVersion, explain);
+        }
+
+        ResolvedLabel cached = resolutionCache.getIfPresent(normalizedLabel);
+        // An unmatched label's default product is built from the scoring config, so a new config rebuilds it.
+        if (cached != null && cached.match().entry().isEmpty() && cached.scoring() != scoring) {
+            resolutionCache.asMap().remove(normalizedLabel, cached);
+            cached = null;
+        }
+        if (cached != null) {
+            if (cached.ratedWith(scoring, distributionVersion) && (!explain || cached.rating().explained())) {
+                return cached;
+            }
+            // Match and metadata are still valid; only the rating depends on the CO2 distribution and scoring config
+            // (or was cached from a summary request without its factor breakdown).
+            ResolvedLabel refreshed = cached.withRating(
+                    ratingFor(cached.entry(), cached.metadata(), scoring, explain), scoring, distributionVersion);
+            if (resolutionCache.asMap().replace(normalizedLabel, cached, refreshed)) {
+                indexResolution(normalizedLabel, refreshed);
+            }
+            resolutionCacheRatingRefreshes.increment();
+            return refreshed;
+        }
+
+        long generation = resolutionCacheGeneration.get();
+        ResolvedLabel computed = computeResolvedLabel(normalizedLabel, scoring, distributionVersion, explain);
+        resolutionCache.put(normalizedLabel, computed);
+        indexResolution(normalizedLabel, computed);
+        // A product saved while this was computing may have changed the match; drop rather than serve it.
+        if (resolutionCacheGeneration.get() != generation) {
+            resolutionCache.asMap().remove(normalizedLabel, computed);
+        }
+        return computed;
+    }
+
+    private ResolvedLabel computeResolvedLabel(
+            String normalizedLabel,
+            ScoringSnapshot scoring,
+            long distributionVersion,
+            boolean explain
+    ) {
+        ProductMatchResult productMatchResult = findBestProduct(normalizedLabel);
+        CatalogEntry catalogEntry = entryForMatch(productMatchResult, normalizedLabel, scoring);
+        MetadataResolution metadataResolution = resolveMetadata(catalogEntry, normalizedLabel);
+        RatingDecision ratingDecision = ratingFor(catalogEntry, metadataResolution, scoring, explain);
+        String matchedKey = productMatchResult.entry().map(CatalogEntry::key).orElse("");
+        return new ResolvedLabel(
+                productMatchResult,
+                catalogEntry,
+                metadataResolution,
+                ratingDecision,
+                Trigrams.signature(normalizedLabel),
+                matchedKey,
+                scoring,
+                distributionVersion
+        );
+    }
+
+    private CatalogEntry entryForMatch(ProductMatchResult productMatchResult, String normalizedLabel, ScoringSnapshot scoring) {
+        CatalogEntry catalogEntry = productMatchResult.entry()
+                .orElseGet(() -> toCatalogEntry(createDefaultProduct(normalizedLabel, scoring), false));
+        if (!normalizedLabel.isBlank()) {
+            Product product = new Product(catalogEntry.product());
+            boolean relabeled = false;
+            if (isMissingText(catalogEntry.normalizedName()) || "unknown product".equals(catalogEntry.normalizedName())) {
+                product.setName(toDisplayLabel(normalizedLabel));
+                relabeled = true;
+            }
+            if (isMissingText(catalogEntry.normalizedCategory()) || "unknown".equals(catalogEntry.normalizedCategory())) {
+                product.setCategory(normalizedLabel);
+                relabeled = true;
+            }
+            if (relabeled) {
+                catalogEntry = toCatalogEntry(product, false);
+            }
+        }
+        return catalogEntry;
+    }
+
+    // Drops only the labels whose match could change: those that resolved to this product and those sharing
+    // a trigram with its name or category (every exact, token and n-gram match shares at least one). Semantic
+    // matches go through taxonomy leaf labels instead, so unmatched and semantic labels are always dropped.
+    private void invalidateResolutions(CatalogEntry saved, boolean distributionChanged) {
+        if (distributionChanged) {
+            co2DistributionVersion.incrementAndGet();
+            scheduleMaterializedRatingRefresh();
+        }
+        if (resolutionCache == null) {
+            return;
+        }
+        resolutionCacheGeneration.incrementAndGet();
+        String savedKey = saved.key();
+        Set<String> candidates = new HashSet<>(resolutionLabelsByMatchedKey.getOrDefault(savedKey, Set.of()));
+        for (int[] trigrams : List.of(saved.nameTrigrams(), saved.categoryTrigrams())) {
+            for (int trigram : trigrams) {
+                candidates.addAll(resolutionLabelsByTrigram.getOrDefault(trigram, Set.of()));
+            }
+        }
+        if (semanticIndex != null) {
+            candidates.addAll(unmatchedResolutionLabels);
+        }
+        int removed = 0;
+        for (String label : candidates) {
+            ResolvedLabel value = resolutionCache.asMap().get(label);
+            if (value == null) {
+                continue;
+            }
+            String strategy = value.match().strategy();
+            boolean affected = savedKey.equals(value.matchedKey())
+                    || Trigrams.sharedCount(value.labelTrigrams(), saved.nameTrigrams()) > 0
+                    || Trigrams.sharedCount(value.labelTrigrams(), saved.categoryTrigrams()) > 0
+                    || (semanticIndex != null && isUnmatchedOrSemantic(value));
+            if (affected && resolutionCache.asMap().remove(label, value)) {
+                removed++;
+            }
+        }
+        resolutionCacheInvalidations.add(removed);
+        if (removed > 0) {
+            log.info("Resolution cache invalidated: product='{}', entries={}, distributionChanged={}",
+                    safe(saved.product().getName()), removed, distributionChanged);
+        }
+    }
+
+    private void indexResolution(String label, ResolvedLabel resolved) {
+        if (!resolved.matchedKey().isEmpty()) {
+            resolutionLabelsByMatchedKey.computeIfAbsent(resolved.matchedKey(), ignored -> ConcurrentHashMap.newKeySet())
+                    .add(label);
+        }
+        for (int trigram : resolved.labelTrigrams()) {
+            resolutionLabelsByTrigram.computeIfAbsent(trigram, ignored -> ConcurrentHashMap.newKeySet()).add(label);
+        }
+        if (isUnmatchedOrSemantic(resolved)) {
+            unmatchedResolutionLabels.add(label);
+        }
+    }
+
+    private void unindexResolution(String label, ResolvedLabel resolved) {
+        resolutionLabelsByMatchedKey.computeIfPresent(resolved.matchedKey(), (ignored, labels) -> {
+            labels.remove(label);
+            return labels.isEmpty() ? null : labels;
+        });
+        for (int trigram : resolved.labelTrigrams()) {
+            resolutionLabelsByTrigram.computeIfPresent(trigram, (ignored, labels) -> {
+                labels.remove(label);
+                return labels.isEmpty() ? null : labels;
+            });
+        }
+        unmatchedResolutionLabels.remove(label);
+        // The listener runs after the map operation, so a value cached for the label meanwhile may share these
+        // postings; re-adding it keeps the index a superset of the cache.
+        ResolvedLabel current = resolutionCache.asMap().get(label);
+        if (current != null) {
+            indexResolution(label, current);
+        }
+    }
+
+    private static boolean isUnmatchedOrSemantic(ResolvedLabel resolved) {
+        String strategy = resolved.match().strategy();
+        return resolved.match().entry().isEmpty() || "semantic".equals(strategy) || "none".equals(strategy);
+    }
+
+    // A catalog product's rating depends only on the product, the inference rule applied to its metadata, the
+    // scoring config and the CO2 distribution, so it is materialized per (product, rule). The factor breakdown
+    // is built only once a request explains: a summary miss stores the rating without factors, and the first
+    // explaining request replaces it with the explained one. Transient entries built for unmatched labels are
+    // rated directly, with factors only when explain is set.
+    private RatingDecision ratingFor(
+            CatalogEntry entry,
+            MetadataResolution metadataResolution,
+            ScoringSnapshot scoring,
+            boolean explain
+    ) {
+        if (!catalogProperties.getMaterializedRatings().isEnabled()
+                || catalogSnapshot().findByKey(entry.key()).orElse(null) != entry) {
+            return rateProduct(entry, metadataResolution, scoring, explain);
+        }
+        String key = materializedRatingKey(entry, metadataResolution);
+        long distributionVersion = co2DistributionVersion.get();
+        MaterializedRating current = materializedRatings.get(key);
+        boolean fresh = current != null && current.entry() == entry && current.ratedWith(scoring, distributionVersion);
+        if (fresh && (!explain || current.rating().explained())) {
+            materializedRatingHits.increment();
+            return current.rating();
+        }
+        RatingDecision rating = rateProduct(entry, metadataResolution, scoring, explain);
+        if (fresh) {
+            // Only the breakdown was missing; the score itself is unchanged.
+            materializedRatings.replace(key, current, new MaterializedRating(entry, metadataResolution, rating, scoring, distributionVersion));
+            return rating;
+        }
+        // A request still holding a replaced snapshot must not overwrite a rating made with the current one.
+        if (scoring == scoringSnapshot.get()) {
+            materializedRatings.put(key, new MaterializedRating(entry, metadataResolution, rating, scoring, distributionVersion));
+        }
+        materializedRatingRecomputes.increment();
+        if (current != null && current.entry() == entry) {
+            scheduleMaterializedRatingRefresh();
+        }
+        return rating;
+    }
+
+    private static String materializedRatingKey(CatalogEntry entry, MetadataResolution metadataResolution) {
+        return entry.key() + "|" + metadataResolution.ruleCode();
+    }
+
+    // Coalesces change notifications into one background pass; a change during a pass schedules another.
+    private void scheduleMaterializedRatingRefresh() {
+        if (!catalogProperties.getMaterializedRatings().isEnabled()
+                || !materializedRatingRefreshScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        ForkJoinPool pool = fuzzyScoringPool != null ? fuzzyScoringPool : ForkJoinPool.commonPool();
+        pool.execute(this::refreshMaterializedRatings);
+    }
+
+    private void refreshMaterializedRatings() {
+        materializedRatingRefreshScheduled.set(false);
+        try {
+            CatalogSnapshot snapshot = catalogSnapshot();
+            ScoringSnapshot scoring = scoringSnapshot.get();
+            long distributionVersion = co2DistributionVersion.get();
+            // Runs inside the pool, so the parallel streams fork onto it rather than the common pool.
+            List<Map.Entry<String, MaterializedRating>> stale = materializedRatings.entrySet().stream()
+                    .filter(cached -> !cached.getValue().ratedWith(scoring, distributionVersion))
+                    .toList();
+            stale.parallelStream().forEach(cached -> {
+                MaterializedRating value = cached.getValue();
+                if (snapshot.findByKey(value.entry().key()).orElse(null) != value.entry()) {
+                    materializedRatings.remove(cached.getKey(), value);
+                    return;
+                }
+                // Keeps the breakdown only where a request already asked for it.
+                RatingDecision rating = rateProduct(value.entry(), value.metadata(), scoring, value.rating().explained());
+                materializedRatings.replace(cached.getKey(), value,
+                        new MaterializedRating(value.entry(), value.metadata(), rating, scoring, distributionVersion));
+                materializedRatingRecomputes.increment();
+            });
+            // Products not rated yet are warmed with the metadata their own name resolves to.
+            snapshot.entries().parallelStream().forEach(entry -> {
+                MetadataResolution metadata = resolveMetadata(entry, entry.normalizedName());
+                String key = materializedRatingKey(entry, metadata);
+                MaterializedRating existing = materializedRatings.get(key);
+                if (existing == null || existing.entry() != entry) {
+                    RatingDecision rating = rateProduct(entry, metadata, scoring, false);
+                    materializedRatings.put(key, new MaterializedRating(entry, metadata, rating, scoring, distributionVersion));
+                    materializedRatingRecomputes.increment();
+                }
+            });
+            log.info("Materialized ratings refreshed: stale={}, total={}, scoringVersion={}, co2DistributionVersion={}",
+                    stale.size(), materializedRatings.size(), scoring.version(), distributionVersion);
+        } catch (RuntimeException ex) {
+            log.warn("Materialized rating refresh failed: {}", ex.getMessage());
+        }
+    }
+
+    private Product createDefaultProduct(String detectedLabel, ScoringSnapshot scoring) {
         String fallbackName = detectedLabel.isBlank() ? "Unknown Product" : toDisplayLabel(detectedLabel);
         String fallbackCategory = detectedLabel.isBlank() ? "unknown" : detectedLabel;
         boolean naturePositiveLabel = isNaturePositiveLabel(detectedLabel);
         int fallbackEcoScore = naturePositiveLabel
                 ? clamp(
-                Math.max(scoringProperties.getGreenerAlternativeThreshold(), scoringProperties.getModerateImpactThreshold()),
-                scoringProperties.getMinScore(),
-                scoringProperties.getMaxScore())
-                : scoringProperties.getDefaultCatalogEcoScore();
+                Math.max(scoring.greenerAlternativeThreshold(), scoring.moderateImpactThreshold()),
+                scoring.minScore(),
+                scoring.maxScore())
+                : scoring.defaultCatalogEcoScore();
         double fallbackCo2 = naturePositiveLabel
-                ? Math.max(1.0, Math.min(12.0, scoringProperties.getDefaultCarbonImpactGram() * 0.05))
-                : scoringProperties.getDefaultCarbonImpactGram();
+                ? Math.max(1.0, Math.min(12.0, scoring.defaultCarbonImpactGram() * 0.05))
+                : scoring.defaultCarbonImpactGram();
         String fallbackRecyclability = naturePositiveLabel ? "Organic" : "Unknown";
         String fallbackAlternative = naturePositiveLabel
                 ? "Already eco-positive. Keep protecting and maintaining this natural item."
@@ -290,7 +876,7 @@ public class ProductService {
         if (!catalogProperties.isAutoLearnEnabled()) {
             return false;
         }
-        if (productMatchResult.product().isPresent()) {
+        if (productMatchResult.entry().isPresent()) {
             return false;
         }
         if (catalogProperties.isAutoLearnRequireImage() && !hasImage) {
@@ -305,17 +891,114 @@ public class ProductService {
         return clampDouble(confidence, 0.0, 1.0) >= clampDouble(catalogProperties.getAutoLearnMinConfidence(), 0.0, 1.0);
     }
 
-    private Product upsertAutoLearnedProduct(String normalizedLabel, MetadataResolution metadataResolution) {
-        String category = normalizedLabel;
-        String displayName = toDisplayLabel(normalizedLabel);
+    // Concurrent scans of the same new label share one upsert: the first caller runs it and the rest wait for
+    // its entry. A label another caller already learned is in the catalog, so it is returned without a lookup.
+    private CatalogEntry autoLearnProduct(
+            String normalizedLabel,
+            MetadataResolution metadataResolution,
+            ScoringSnapshot scoring
+    ) {
+        return autoLearnFlights.execute(normalizedLabel, () -> catalogSnapshot().findExact(normalizedLabel)
+                .orElseGet(() -> upsertAutoLearnedProduct(normalizedLabel, metadataResolution, scoring)));
+    }
 
-        Optional<Product> existing = findByNameIgnoreCase(displayName);
-        if (existing.isEmpty()) {
-            existing = findFirstByCategoryIgnoreCase(category);
+    // With write-behind the learned product is published to the catalog right away and queued for the store;
+    // the store lookups for an existing product move to the writer. A full queue falls back to writing inline.
+    private CatalogEntry upsertAutoLearnedProduct(
+            String normalizedLabel,
+            MetadataResolution metadataResolution,
+            ScoringSnapshot scoring
+    ) {
+        autoLearnUpserts.increment();
+        Product learned = buildAutoLearnedProduct(normalizedLabel, metadataResolution, scoring);
+        if (autoLearnWrites != null) {
+            CatalogEntry published = publishToCatalog(learned);
+            PendingAutoLearn pending = new PendingAutoLearn(learned, published.key());
+            pendingAutoLearnKeys.add(published.key());
+            if (autoLearnWrites.offer(pending)) {
+                log.info("Catalog auto-learned new product queued: label='{}', name='{}'",
+                        normalizedLabel, learned.getName());
+                return published;
+            }
+            autoLearnSynchronousWrites.increment();
+            try {
+                return writeAutoLearnedProducts(List.of(pending)).get(0);
+            } catch (RuntimeException ex) {
+                abandonAutoLearnedProducts(List.of(pending));
+                throw ex;
+            }
         }
+
+        autoLearnSynchronousWrites.increment();
+        Optional<Product> existing = findExistingAutoLearned(learned);
         if (existing.isPresent()) {
-            return existing.get();
+            return publishToCatalog(existing.get());
         }
+        Product saved = persistProduct(learned);
+        log.info("Catalog auto-learned new product: label='{}', savedName='{}', category='{}'",
+                normalizedLabel, saved.getName(), saved.getCategory());
+        return publishToCatalog(saved);
+    }
+
+    // Writer side of the auto-learn queue: products already in the store win, the rest are saved in one batch,
+    // and each stored product replaces its provisional catalog entry. A batch that throws stays pending, since
+    // the queue retries it; a retry finds the products that did get stored as existing ones.
+    private List<CatalogEntry> writeAutoLearnedProducts(List<PendingAutoLearn> batch) {
+        List<CatalogEntry> published = new ArrayList<>(batch.size());
+        List<PendingAutoLearn> toSave = new ArrayList<>(batch.size());
+        for (PendingAutoLearn pending : batch) {
+            Optional<Product> existing = findExistingAutoLearned(pending.product());
+            if (existing.isPresent()) {
+                published.add(publishToCatalog(existing.get(), pending.catalogKey()));
+            } else {
+                toSave.add(pending);
+            }
+        }
+        if (!toSave.isEmpty()) {
+            List<Product> saved = persistProducts(toSave.stream().map(PendingAutoLearn::product).toList());
+            for (int i = 0; i < toSave.size(); i++) {
+                published.add(publishToCatalog(saved.get(i), toSave.get(i).catalogKey()));
+            }
+            log.info("Catalog auto-learned products written: saved={}, existing={}",
+                    toSave.size(), batch.size() - toSave.size());
+        }
+        batch.forEach(pending -> pendingAutoLearnKeys.remove(pending.catalogKey()));
+        return published;
+    }
+
+    // Products that could not be stored are taken back out of the catalog, so scans do not keep matching an
+    // entry that would disappear on restart; the next scan of the label learns it again.
+    private void abandonAutoLearnedProducts(List<PendingAutoLearn> abandoned) {
+        for (PendingAutoLearn pending : abandoned) {
+            CatalogSnapshot previous = catalogSnapshot.getAndUpdate(current -> current == null
+                    ? null
+                    : current.withoutEntry(pending.catalogKey()));
+            Optional<CatalogEntry> removed = previous == null
+                    ? Optional.empty()
+                    : previous.findByKey(pending.catalogKey());
+            removed.ifPresent(entry -> invalidateResolutions(entry, entry.product().getCarbonImpact() != null));
+            pendingAutoLearnKeys.remove(pending.catalogKey());
+            autoLearnAbandoned.increment();
+            log.warn("Catalog auto-learned product dropped after failed writes: name='{}'",
+                    safe(pending.product().getName()));
+        }
+    }
+
+    private Optional<Product> findExistingAutoLearned(Product learned) {
+        Optional<Product> existing = findByNameIgnoreCase(learned.getName());
+        if (existing.isEmpty()) {
+            existing = findFirstByCategoryIgnoreCase(learned.getCategory());
+        }
+        return existing;
+    }
+
+    private Product buildAutoLearnedProduct(
+            String normalizedLabel,
+            MetadataResolution metadataResolution,
+            ScoringSnapshot scoring
+    ) {
+        String category = normalizedLabel;
+        String displayName = toDisplayLabel(normalizedLabel);
 
         boolean inferredMaterial = metadataResolution.inferredFields().contains("material");
         boolean inferredReusable = metadataResolution.inferredFields().contains("isReusable");
@@ -327,13 +1010,13 @@ public class ProductService {
 
         int learnedEcoScore = naturePositiveLabel
                 ? clamp(
-                Math.max(scoringProperties.getGreenerAlternativeThreshold(), scoringProperties.getModerateImpactThreshold()),
-                scoringProperties.getMinScore(),
-                scoringProperties.getMaxScore())
-                : scoringProperties.getDefaultCatalogEcoScore();
+                Math.max(scoring.greenerAlternativeThreshold(), scoring.moderateImpactThreshold()),
+                scoring.minScore(),
+                scoring.maxScore())
+                : scoring.defaultCatalogEcoScore();
         double learnedCo2 = naturePositiveLabel
-                ? Math.max(1.0, Math.min(12.0, scoringProperties.getDefaultCarbonImpactGram() * 0.05))
-                : scoringProperties.getDefaultCarbonImpactGram();
+                ? Math.max(1.0, Math.min(12.0, scoring.defaultCarbonImpactGram() * 0.05))
+                : scoring.defaultCarbonImpactGram();
         String learnedRecyclability = inferredRecyclability
                 ? metadataResolution.recyclability()
                 : naturePositiveLabel ? "Organic" : "Unknown";
@@ -365,7 +1048,7 @@ public class ProductService {
                 ? metadataResolution.lifecycleType()
                 : naturePositiveLabel ? "living_natural" : "";
 
-        Product learned = new Product(
+        return new Product(
                 displayName,
                 category,
                 learnedEcoScore,
@@ -379,24 +1062,21 @@ public class ProductService {
                 learnedRecycledContent,
                 learnedLifecycle
         );
-        Product saved = saveProduct(learned);
-        log.info("Catalog auto-learned new product: label='{}', savedName='{}', category='{}'",
-                normalizedLabel, saved.getName(), saved.getCategory());
-        return saved;
     }
 
-    private MetadataResolution resolveMetadata(Product product, String normalizedLabel) {
-        String combined = normalizeLabel((safe(product.getCategory()) + " " + safe(product.getName())).trim());
-        String materialNormalized = normalizeLabel(product.getMaterial());
-        String lifecycleNormalized = normalizeLabel(product.getLifecycleType());
+    private MetadataResolution resolveMetadata(CatalogEntry entry, String normalizedLabel) {
+        Product product = entry.product();
+        String combined = entry.categoryName();
+        String materialNormalized = entry.normalizedMaterial();
+        String lifecycleNormalized = entry.normalizedLifecycle();
         String recyclabilityRaw = safe(product.getRecyclability());
 
-        boolean materialMissing = isMissingText(materialNormalized);
-        boolean lifecycleMissing = isMissingText(lifecycleNormalized);
+        boolean materialMissing = entry.materialMissing();
+        boolean lifecycleMissing = entry.lifecycleMissing();
         boolean reusableMissing = product.getReusable() == null;
         boolean singleUseMissing = product.getSingleUse() == null;
         boolean recycledContentMissing = product.getRecycledContentPercent() == null;
-        boolean recyclabilityMissing = isMissingText(normalizeLabel(recyclabilityRaw));
+        boolean recyclabilityMissing = entry.recyclabilityMissing();
 
         boolean anyMissing = materialMissing || lifecycleMissing || reusableMissing
                 || singleUseMissing || recycledContentMissing || recyclabilityMissing;
@@ -405,10 +1085,12 @@ public class ProductService {
                 ? matchInferenceRule(normalizedLabel, combined)
                 : Optional.empty();
 
+        long combinedFlags = phraseMatcher.match(combined);
+        long lifecycleFlags = phraseMatcher.match(lifecycleNormalized);
         String resolvedMaterial = materialNormalized;
         String resolvedLifecycle = lifecycleNormalized;
-        boolean resolvedReusable = resolveReusable(product, lifecycleNormalized, combined);
-        boolean resolvedSingleUse = resolveSingleUse(product, lifecycleNormalized, combined);
+        boolean resolvedReusable = resolveReusable(product, lifecycleFlags, combinedFlags);
+        boolean resolvedSingleUse = resolveSingleUse(product, lifecycleFlags, combinedFlags);
         int resolvedRecycledContent = product.getRecycledContentPercent() == null
                 ? -1
                 : clamp(product.getRecycledContentPercent(), 0, 100);
@@ -451,10 +1133,10 @@ public class ProductService {
             resolvedRecycledContent = 0;
         }
         if (isMissingText(resolvedMaterial)) {
-            resolvedMaterial = normalizeLabel(combined);
+            resolvedMaterial = combined;
         }
         if (isMissingText(resolvedLifecycle)) {
-            resolvedLifecycle = normalizeLabel(product.getLifecycleType());
+            resolvedLifecycle = lifecycleNormalized;
         }
         if (isMissingText(normalizeLabel(resolvedRecyclability))) {
             resolvedRecyclability = "Unknown";
@@ -468,93 +1150,115 @@ public class ProductService {
                 resolvedRecycledContent,
                 resolvedRecyclability,
                 !inferredFields.isEmpty(),
-                inferredFields,
+                List.copyOf(inferredFields),
                 inferredFields.isEmpty() ? 1.0 : confidenceMultiplier,
                 ruleCode
         );
     }
 
-    private RatingDecision rateProduct(Product product, MetadataResolution metadataResolution) {
+    private RatingDecision rateProduct(
+            CatalogEntry entry,
+            MetadataResolution metadataResolution,
+            ScoringSnapshot scoring,
+            boolean explain
+    ) {
+        Product product = entry.product();
         int catalogEcoScore = product.getEcoScore() == null
-                ? scoringProperties.getDefaultCatalogEcoScore()
+                ? scoring.defaultCatalogEcoScore()
                 : product.getEcoScore();
         double co2 = product.getCarbonImpact() == null
-                ? scoringProperties.getDefaultCarbonImpactGram()
+                ? scoring.defaultCarbonImpactGram()
                 : product.getCarbonImpact();
-        Co2ScoreResult co2ScoreResult = computeCo2Score(co2);
+        Co2ScoreResult co2ScoreResult = computeCo2Score(co2, scoring, explain);
         int co2Score = co2ScoreResult.score();
-        double catalogContribution = scoringProperties.getCatalogWeight() * catalogEcoScore;
-        double co2Contribution = scoringProperties.getCo2Weight() * co2Score;
+        double catalogContribution = scoring.catalogWeight() * catalogEcoScore;
+        double co2Contribution = scoring.co2Weight() * co2Score;
         String recyclability = metadataResolution.recyclability();
         String recyclabilityNormalized = normalizeLabel(recyclability);
-        String category = normalizeLabel(product.getCategory());
-        String name = normalizeLabel(product.getName());
-        String combined = (category + " " + name).trim();
+        String combined = entry.categoryName();
         String material = metadataResolution.material();
         String lifecycleType = metadataResolution.lifecycleType();
 
         boolean reusable = metadataResolution.reusable();
         boolean singleUse = metadataResolution.singleUse();
-        FeatureAdjustmentResult featureAdjustmentResult = computeFeatureAdjustment(
-                singleUse, reusable, material, combined, recyclabilityNormalized, lifecycleType, metadataResolution.recycledContentPercent()
+        long combinedFlags = phraseMatcher.match(combined);
+        long materialFlags = phraseMatcher.match(material);
+        long lifecycleFlags = phraseMatcher.match(lifecycleType);
+        boolean materialMissing = material == null || material.isBlank();
+        ScoringRuleTable.FeatureAdjustment featureAdjustmentResult = scoring.ruleTable().evaluate(
+                singleUse,
+                reusable,
+                lifecycleType,
+                materialMissing ? combined : material,
+                materialMissing ? "fallback_name_category" : "catalog_material",
+                recyclabilityNormalized,
+                clamp(metadataResolution.recycledContentPercent(), 0, 100),
+                explain
         );
         int featureAdjustment = featureAdjustmentResult.total();
-        List<ScoreFactor> scoreFactors = new ArrayList<>();
-        boolean naturePositiveItem = isNaturePositiveItem(combined, material, lifecycleType);
+        if (explain) {
+            scoreFactorBuilds.increment();
+        }
+        List<ScoreFactor> scoreFactors = explain ? new ArrayList<>() : null;
+        boolean naturePositiveItem = isNaturePositiveItem(combinedFlags, materialFlags, lifecycleFlags);
 
-        scoreFactors.add(new ScoreFactor(
-                "catalog_weight",
-                "Catalog eco score contribution",
-                roundTwoDecimals(catalogContribution),
-                "catalogEcoScore=" + catalogEcoScore + ", weight=" + scoringProperties.getCatalogWeight()
-        ));
-        scoreFactors.add(new ScoreFactor(
-                "co2_weight",
-                "CO2 score contribution",
-                roundTwoDecimals(co2Contribution),
-                "co2Score=" + co2Score + ", co2Gram=" + roundTwoDecimals(co2) + ", weight=" + scoringProperties.getCo2Weight()
-                        + ", " + co2ScoreResult.detail()
-        ));
-        if (metadataResolution.inferred()) {
+        if (explain) {
             scoreFactors.add(new ScoreFactor(
-                    "metadata_inference",
-                    "Metadata inferred from label/category",
-                    0.0,
-                    "rule=" + metadataResolution.ruleCode()
-                            + ", fields=" + String.join("|", metadataResolution.inferredFields())
-                            + ", confidenceMultiplier=" + metadataResolution.confidenceMultiplier()
+                    "catalog_weight",
+                    "Catalog eco score contribution",
+                    roundTwoDecimals(catalogContribution),
+                    "catalogEcoScore=" + catalogEcoScore + ", weight=" + scoring.catalogWeight()
             ));
-        }
-        if (naturePositiveItem) {
             scoreFactors.add(new ScoreFactor(
-                    "nature_positive_context",
-                    "Nature-positive context detected",
-                    0.0,
-                    "label/material/lifecycle indicates a living natural item"
+                    "co2_weight",
+                    "CO2 score contribution",
+                    roundTwoDecimals(co2Contribution),
+                    "co2Score=" + co2Score + ", co2Gram=" + roundTwoDecimals(co2) + ", weight=" + scoring.co2Weight()
+                            + ", " + co2ScoreResult.detail()
             ));
+            if (metadataResolution.inferred()) {
+                scoreFactors.add(new ScoreFactor(
+                        "metadata_inference",
+                        "Metadata inferred from label/category",
+                        0.0,
+                        "rule=" + metadataResolution.ruleCode()
+                                + ", fields=" + String.join("|", metadataResolution.inferredFields())
+                                + ", confidenceMultiplier=" + metadataResolution.confidenceMultiplier()
+                ));
+            }
+            if (naturePositiveItem) {
+                scoreFactors.add(new ScoreFactor(
+                        "nature_positive_context",
+                        "Nature-positive context detected",
+                        0.0,
+                        "label/material/lifecycle indicates a living natural item"
+                ));
+            }
+            scoreFactors.addAll(featureAdjustmentResult.factors());
         }
-        scoreFactors.addAll(featureAdjustmentResult.factors());
 
         double score = catalogContribution
                 + co2Contribution
                 + featureAdjustment;
 
         boolean greenerAlternative =
-                reusable || score >= scoringProperties.getGreenerAlternativeThreshold() || naturePositiveItem;
+                reusable || score >= scoring.greenerAlternativeThreshold() || naturePositiveItem;
         int greenerBoost = 0;
         if (greenerAlternative) {
-            greenerBoost = scoringProperties.getGreenerAlternativeBoost();
+            greenerBoost = scoring.greenerAlternativeBoost();
             score += greenerBoost;
-            scoreFactors.add(new ScoreFactor(
-                    "greener_boost",
-                    "Greener alternative boost",
-                    (double) greenerBoost,
-                    naturePositiveItem
-                            ? "reason=nature_positive_context"
-                            : "threshold=" + scoringProperties.getGreenerAlternativeThreshold()
-            ));
+            if (explain) {
+                scoreFactors.add(new ScoreFactor(
+                        "greener_boost",
+                        "Greener alternative boost",
+                        (double) greenerBoost,
+                        naturePositiveItem
+                                ? "reason=nature_positive_context"
+                                : "threshold=" + scoring.greenerAlternativeThreshold()
+                ));
+            }
         }
-        int ecoScore = clamp((int) Math.round(score), scoringProperties.getMinScore(), scoringProperties.getMaxScore());
+        int ecoScore = clamp((int) Math.round(score), scoring.minScore(), scoring.maxScore());
 
         String recommendation;
         String summary;
@@ -565,10 +1269,10 @@ public class ProductService {
         } else if (greenerAlternative) {
             recommendation = "Great choice. This is already a greener alternative.";
             summary = "This item is a greener alternative with a strong eco profile. Keep using reusable or refillable options.";
-        } else if (ecoScore < scoringProperties.getHighImpactThreshold()) {
+        } else if (ecoScore < scoring.highImpactThreshold()) {
             recommendation = "Consider switching to reusable/refillable alternatives when possible.";
             summary = "This item has a relatively high environmental impact due to material or single-use pattern.";
-        } else if (ecoScore < scoringProperties.getModerateImpactThreshold()) {
+        } else if (ecoScore < scoring.moderateImpactThreshold()) {
             recommendation = "Try a lower-impact alternative or improve recycling habits.";
             summary = "This item has a moderate impact and can be improved with better reuse or recycling choices.";
         } else {
@@ -590,211 +1294,63 @@ public class ProductService {
                 featureAdjustment,
                 roundTwoDecimals(catalogContribution + co2Contribution + featureAdjustment),
                 greenerBoost,
-                scoreFactors
+                explain ? List.copyOf(scoreFactors) : null
         );
     }
 
-    private FeatureAdjustmentResult computeFeatureAdjustment(
-            boolean singleUse,
-            boolean reusable,
-            String material,
-            String combined,
-            String recyclabilityNormalized,
-            String lifecycleType,
-            Integer recycledContentPercent
-    ) {
-        ScoringProperties.Adjustments adjustments = scoringProperties.getAdjustments();
-        ScoringProperties.FeatureThresholds thresholds = scoringProperties.getFeatureThresholds();
-        int adjustment = 0;
-        List<ScoreFactor> factors = new ArrayList<>();
-        String materialContext = material == null || material.isBlank() ? combined : material;
-        String materialSource = material == null || material.isBlank() ? "fallback_name_category" : "catalog_material";
-        int recycledContent = recycledContentPercent == null ? -1 : clamp(recycledContentPercent, 0, 100);
-
-        if (singleUse) {
-            adjustment += adjustments.getSingleUsePenalty();
-            factors.add(new ScoreFactor("single_use_penalty", "Single-use penalty",
-                    (double) adjustments.getSingleUsePenalty(), "lifecycle indicates single-use"));
-        }
-        if (reusable) {
-            adjustment += adjustments.getReusableBonus();
-            factors.add(new ScoreFactor("reusable_bonus", "Reusable bonus",
-                    (double) adjustments.getReusableBonus(), "isReusable=true or lifecycle indicates reusable"));
-        }
-        if (containsAny(lifecycleType, "refillable")) {
-            adjustment += adjustments.getRefillableLifecycleBonus();
-            factors.add(new ScoreFactor("refillable_lifecycle_bonus", "Refillable lifecycle bonus",
-                    (double) adjustments.getRefillableLifecycleBonus(), "lifecycleType=refillable"));
-        }
-        if (containsAny(lifecycleType, "long life", "long_life", "durable")) {
-            adjustment += adjustments.getLongLifeLifecycleBonus();
-            factors.add(new ScoreFactor("long_life_lifecycle_bonus", "Long-life lifecycle bonus",
-                    (double) adjustments.getLongLifeLifecycleBonus(), "lifecycleType=long_life/durable"));
-        }
-        if (containsAny(lifecycleType, "biodegradable", "compostable")) {
-            adjustment += adjustments.getBiodegradableLifecycleBonus();
-            factors.add(new ScoreFactor("biodegradable_lifecycle_bonus", "Biodegradable lifecycle bonus",
-                    (double) adjustments.getBiodegradableLifecycleBonus(), "lifecycleType=biodegradable/compostable"));
-        }
-        if (containsAny(lifecycleType, "living natural", "living_natural", "nature positive", "natural living")) {
-            adjustment += adjustments.getNaturePositiveBonus();
-            factors.add(new ScoreFactor("nature_positive_bonus", "Natural item bonus",
-                    (double) adjustments.getNaturePositiveBonus(), "lifecycleType=living_natural"));
-        }
-        if (containsAny(materialContext, "plastic", "polystyrene", "polyester")) {
-            adjustment += adjustments.getPlasticPenalty();
-            factors.add(new ScoreFactor("plastic_penalty", "Plastic material penalty",
-                    (double) adjustments.getPlasticPenalty(), "source=" + materialSource + ", material contains plastic"));
-        }
-        if (containsAny(materialContext, "paper", "carton")) {
-            adjustment += adjustments.getPaperPenalty();
-            factors.add(new ScoreFactor("paper_penalty", "Paper material adjustment",
-                    (double) adjustments.getPaperPenalty(), "source=" + materialSource + ", material contains paper/carton"));
-        }
-        if (containsAny(materialContext, "aluminum", "glass")) {
-            adjustment += adjustments.getAluminumGlassBonus();
-            factors.add(new ScoreFactor("aluminum_glass_bonus", "Aluminum/Glass bonus",
-                    (double) adjustments.getAluminumGlassBonus(), "source=" + materialSource + ", material contains aluminum/glass"));
-        }
-        if (containsAny(materialContext, "cloth", "jute", "bamboo", "beeswax")) {
-            adjustment += adjustments.getClothRecycledBonus();
-            factors.add(new ScoreFactor("cloth_recycled_bonus", "Cloth/Recycled bonus",
-                    (double) adjustments.getClothRecycledBonus(), "source=" + materialSource + ", material contains cloth/jute/bamboo/beeswax"));
-        }
-        if (recycledContent >= thresholds.getRecycledContentHighPercent()) {
-            adjustment += adjustments.getRecycledContentHighBonus();
-            factors.add(new ScoreFactor("recycled_content_high_bonus", "High recycled-content bonus",
-                    (double) adjustments.getRecycledContentHighBonus(),
-                    "recycledContentPercent=" + recycledContent + ", threshold=" + thresholds.getRecycledContentHighPercent()));
-        } else if (recycledContent >= thresholds.getRecycledContentMediumPercent()) {
-            adjustment += adjustments.getRecycledContentMediumBonus();
-            factors.add(new ScoreFactor("recycled_content_medium_bonus", "Medium recycled-content bonus",
-                    (double) adjustments.getRecycledContentMediumBonus(),
-                    "recycledContentPercent=" + recycledContent + ", threshold=" + thresholds.getRecycledContentMediumPercent()));
-        }
-        if (containsAny(recyclabilityNormalized, "high")) {
-            adjustment += adjustments.getRecyclabilityHighBonus();
-            factors.add(new ScoreFactor("recyclability_high_bonus", "High recyclability bonus",
-                    (double) adjustments.getRecyclabilityHighBonus(), "recyclability=high"));
-        } else if (containsAny(recyclabilityNormalized, "medium")) {
-            adjustment += adjustments.getRecyclabilityMediumBonus();
-            factors.add(new ScoreFactor("recyclability_medium_bonus", "Medium recyclability bonus",
-                    (double) adjustments.getRecyclabilityMediumBonus(), "recyclability=medium"));
-        } else if (containsAny(recyclabilityNormalized, "low", "unknown")) {
-            adjustment += adjustments.getRecyclabilityLowPenalty();
-            factors.add(new ScoreFactor("recyclability_low_penalty", "Low recyclability penalty",
-                    (double) adjustments.getRecyclabilityLowPenalty(), "recyclability=low/unknown"));
-        } else if (containsAny(recyclabilityNormalized, "organic")) {
-            adjustment += adjustments.getRecyclabilityOrganicBonus();
-            factors.add(new ScoreFactor("recyclability_organic_bonus", "Organic recyclability bonus",
-                    (double) adjustments.getRecyclabilityOrganicBonus(), "recyclability=organic"));
-        }
-
-        return new FeatureAdjustmentResult(adjustment, factors);
-    }
-
-    private Co2ScoreResult computeCo2Score(double co2Gram) {
-        List<Double> distribution = findAllCarbonImpactsOrdered();
-        if (distribution == null || distribution.isEmpty()) {
-            return new Co2ScoreResult(scoringProperties.getDefaultCo2Score(), "method=default;reason=missing_distribution");
-        }
-
-        double percentileRank = computePercentileRank(co2Gram, distribution);
-        ScoringProperties.Co2Normalization normalization = scoringProperties.getCo2Normalization();
-        double lowerPercentile = clampDouble(normalization.getLowerPercentile(), 0.0, 1.0);
-        double upperPercentile = clampDouble(normalization.getUpperPercentile(), 0.0, 1.0);
-        if (upperPercentile <= lowerPercentile) {
-            lowerPercentile = 0.0;
-            upperPercentile = 1.0;
+    private Co2ScoreResult computeCo2Score(double co2Gram, ScoringSnapshot scoring, boolean explain) {
+        Co2Distribution distribution = catalogSnapshot().co2Distribution();
+        boolean sketchMode = scoring.co2SketchMode();
+        long sampleSize = sketchMode ? co2Sketch.count() : distribution.size();
+        if (sampleSize == 0) {
+            return new Co2ScoreResult(scoring.defaultCo2Score(), "method=default;reason=missing_distribution");
         }
 
+        double percentileRank = sketchMode ? co2Sketch.percentileRank(co2Gram) : distribution.percentileRank(co2Gram);
+        double lowerPercentile = scoring.co2LowerPercentile();
+        double upperPercentile = scoring.co2UpperPercentile();
+
         double normalized = (percentileRank - lowerPercentile) / (upperPercentile - lowerPercentile);
         normalized = clampDouble(normalized, 0.0, 1.0);
         double inverseNormalized = 1.0 - normalized;
-        int range = scoringProperties.getMaxScore() - scoringProperties.getMinScore();
-        int co2Score = (int) Math.round(scoringProperties.getMinScore() + (inverseNormalized * range));
-        String detail = "method=percentile_rank, percentileRank=" + roundThreeDecimals(percentileRank)
+        int range = scoring.maxScore() - scoring.minScore();
+        int co2Score = (int) Math.round(scoring.minScore() + (inverseNormalized * range));
+        String detail = !explain ? "" : (sketchMode ? "method=kll_sketch" : "method=percentile_rank")
+                + ", percentileRank=" + roundThreeDecimals(percentileRank)
                 + ", bounds=[" + roundThreeDecimals(lowerPercentile) + "," + roundThreeDecimals(upperPercentile) + "]"
-                + ", sampleSize=" + distribution.size();
-        return new Co2ScoreResult(clamp(co2Score, scoringProperties.getMinScore(), scoringProperties.getMaxScore()), detail);
+                + (sketchMode ? ", rankError=" + roundThreeDecimals(co2Sketch.normalizedRankError()) : "")
+                + ", sampleSize=" + sampleSize;
+        return new Co2ScoreResult(clamp(co2Score, scoring.minScore(), scoring.maxScore()), detail);
     }
 
-    private double computePercentileRank(double value, List<Double> sortedValues) {
-        if (sortedValues == null || sortedValues.isEmpty()) {
-            return 0.5;
-        }
-        if (sortedValues.size() == 1) {
-            return 0.5;
-        }
-
-        int lowerBound = firstIndexGreaterOrEqual(sortedValues, value);
-        int upperBound = firstIndexGreater(sortedValues, value);
-        double rank = lowerBound;
-        if (upperBound > lowerBound) {
-            rank = lowerBound + ((upperBound - lowerBound - 1) / 2.0);
-        }
-        return clampDouble(rank / (sortedValues.size() - 1.0), 0.0, 1.0);
-    }
-
-    private int firstIndexGreaterOrEqual(List<Double> values, double target) {
-        int low = 0;
-        int high = values.size();
-        while (low < high) {
-            int mid = (low + high) >>> 1;
-            if (values.get(mid) >= target) {
-                high = mid;
-            } else {
-                low = mid + 1;
-            }
-        }
-        return low;
-    }
-
-    private int firstIndexGreater(List<Double> values, double target) {
-        int low = 0;
-        int high = values.size();
-        while (low < high) {
-            int mid = (low + high) >>> 1;
-            if (values.get(mid) > target) {
-                high = mid;
-            } else {
-                low = mid + 1;
-            }
-        }
-        return low;
-    }
-
-    private boolean resolveSingleUse(Product product, String lifecycleType, String combined) {
+    private boolean resolveSingleUse(Product product, long lifecycleFlags, long combinedFlags) {
         if (product.getSingleUse() != null) {
             return product.getSingleUse();
         }
-        if (containsAny(lifecycleType, "single use", "single_use", "single-use", "disposable")) {
+        if (hasFlag(lifecycleFlags, PhraseFeature.SINGLE_USE_LIFECYCLE)) {
             return true;
         }
-        return containsAny(combined, "single use", "single-use", "disposable", "plastic bottle", "plastic bag");
+        return hasFlag(combinedFlags, PhraseFeature.SINGLE_USE_CONTEXT);
     }
 
-    private boolean resolveReusable(Product product, String lifecycleType, String combined) {
+    private boolean resolveReusable(Product product, long lifecycleFlags, long combinedFlags) {
         if (product.getReusable() != null) {
             return product.getReusable();
         }
-        if (containsAny(lifecycleType, "reusable", "refillable", "long life", "long_life", "durable")) {
+        if (hasFlag(lifecycleFlags, PhraseFeature.REUSABLE_LIFECYCLE)) {
             return true;
         }
-        return containsAny(combined, "reusable", "refillable", "cloth bag", "steel bottle", "led");
+        return hasFlag(combinedFlags, PhraseFeature.REUSABLE_CONTEXT);
     }
 
     private Optional<MetadataInferenceRule> matchInferenceRule(String normalizedLabel, String combined) {
         String inferenceContext = (safe(normalizedLabel) + " " + safe(combined)).trim();
-        for (MetadataInferenceRule rule : METADATA_INFERENCE_RULES) {
-            for (String phrase : rule.matchPhrases()) {
-                String normalizedPhrase = normalizeLabel(phrase);
-                if (!normalizedPhrase.isBlank() && inferenceContext.contains(normalizedPhrase)) {
-                    return Optional.of(rule);
-                }
-            }
+        long ruleFlags = phraseMatcher.match(inferenceContext) >>> INFERENCE_RULE_FLAG_OFFSET;
+        if (ruleFlags == 0L) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        // Rules keep their declaration order as priority: the lowest matched bit wins.
+        return Optional.of(METADATA_INFERENCE_RULES.get(Long.numberOfTrailingZeros(ruleFlags)));
     }
 
     private double applyMetadataConfidencePenalty(double confidence, MetadataResolution metadataResolution) {
@@ -825,6 +1381,9 @@ public class ProductService {
             case "fuzzy":
                 strategyConfidence = clampDouble(Math.max(0.4, productMatchResult.score()), 0.0, 1.0);
                 break;
+            case "semantic":
+                strategyConfidence = clampDouble(Math.max(0.4, productMatchResult.score() * 0.9), 0.0, 1.0);
+                break;
             case "auto_learned":
                 strategyConfidence = 0.55;
                 break;
@@ -853,6 +1412,9 @@ public class ProductService {
             case "fuzzy":
                 value = Math.max(coverage.getFuzzyMin(), productMatchResult.score());
                 break;
+            case "semantic":
+                value = Math.max(coverage.getSemanticMin(), productMatchResult.score() * 0.9);
+                break;
             case "auto_learned":
                 value = coverage.getAutoLearned();
                 break;
@@ -888,18 +1450,73 @@ public class ProductService {
     }
 
     private String normalizeLabel(String label) {
-        if (label == null) {
-            return "";
-        }
-        String value = NON_ALPHANUMERIC.matcher(label.toLowerCase()).replaceAll(" ").trim();
-        return value.replaceAll("\\s+", " ");
+        return TextNormalizer.normalizeInterned(label);
     }
 
     private String canonicalizeLabel(String normalizedLabel) {
         if (normalizedLabel == null || normalizedLabel.isBlank()) {
             return "";
         }
-        return LABEL_ALIASES.getOrDefault(normalizedLabel, normalizedLabel);
+        String corrected = spellCorrect(normalizedLabel);
+        if (!corrected.equals(normalizedLabel)) {
+            log.info("Label spell-corrected: '{}' -> '{}'", normalizedLabel, corrected);
+        }
+        return LABEL_ALIASES.getOrDefault(corrected, corrected);
+    }
+
+    private String spellCorrect(String normalizedLabel) {
+        if (LABEL_ALIASES.containsKey(normalizedLabel)) {
+            return normalizedLabel;
+        }
+        // Catalog terms are registered when the snapshot loads.
+        catalogSnapshot();
+        if (labelSpellIndex.contains(normalizedLabel)) {
+            return normalizedLabel;
+        }
+        Optional<String> wholeLabel = labelSpellIndex.nearest(normalizedLabel, allowedEdits(normalizedLabel));
+        if (wholeLabel.isPresent()) {
+            return wholeLabel.get();
+        }
+
+        String[] tokens = normalizedLabel.split(" ");
+        boolean changed = false;
+        for (int i = 0; i < tokens.length; i++) {
+            if (labelSpellIndex.contains(tokens[i])) {
+                continue;
+            }
+            Optional<String> token = labelSpellIndex.nearest(tokens[i], allowedEdits(tokens[i]));
+            if (token.isPresent() && token.get().indexOf(' ') < 0) {
+                tokens[i] = token.get();
+                changed = true;
+            }
+        }
+        return changed ? String.join(" ", tokens) : normalizedLabel;
+    }
+
+    // Short words are too close to unrelated words to correct safely.
+    private int allowedEdits(String term) {
+        if (term.length() < SPELL_MIN_TERM_LENGTH) {
+            return 0;
+        }
+        return term.length() < SPELL_DOUBLE_EDIT_MIN_LENGTH ? 1 : LabelSpellIndex.MAX_EDIT_DISTANCE;
+    }
+
+    // A term is indexed whole and token by token.
+    private void addSpellTerms(List<String> out, String normalizedTerm) {
+        if (normalizedTerm == null || normalizedTerm.isBlank()) {
+            return;
+        }
+        out.add(normalizedTerm);
+        out.addAll(Arrays.asList(tokenArray(normalizedTerm)));
+    }
+
+    private void indexSpellTerms(Collection<CatalogEntry> entries) {
+        List<String> terms = new ArrayList<>();
+        for (CatalogEntry entry : entries) {
+            addSpellTerms(terms, entry.normalizedName());
+            addSpellTerms(terms, entry.normalizedCategory());
+        }
+        labelSpellIndex.addAll(terms);
     }
 
     private boolean isMissingText(String value) {
@@ -916,48 +1533,271 @@ public class ProductService {
             return new ProductMatchResult(Optional.empty(), "none", 0.0);
         }
 
-        List<Product> products = findAllProducts();
-        for (Product product : products) {
-            String normalizedName = normalizeLabel(product.getName());
-            String normalizedCategory = normalizeLabel(product.getCategory());
-            if (normalizedLabel.equals(normalizedName) || normalizedLabel.equals(normalizedCategory)) {
-                log.info("Product match strategy=normalized_exact label='{}' product='{}'",
-                        normalizedLabel, safe(product.getName()));
-                return new ProductMatchResult(Optional.of(product), "exact", 1.0);
-            }
+        CatalogSnapshot snapshot = catalogSnapshot();
+        Optional<CatalogEntry> exact = snapshot.findExact(normalizedLabel);
+        if (exact.isPresent()) {
+            log.info("Product match strategy=normalized_exact label='{}' product='{}'",
+                    normalizedLabel, safe(exact.get().product().getName()));
+            return new ProductMatchResult(exact, "exact", 1.0);
         }
 
-        Product best = null;
+        String[] labelTokens = tokenArray(normalizedLabel);
+        int[] labelTokenIds = tokenVocabulary.lookup(labelTokens);
+        List<CatalogEntry> candidates = snapshot.findTokenCandidates(labelTokens);
+        FuzzyBest fuzzyBest = scoreFuzzyCandidates(candidates, normalizedLabel, labelTokenIds);
+        CatalogEntry best = fuzzyBest.index() < 0 ? null : candidates.get(fuzzyBest.index());
+        double bestScore = fuzzyBest.score();
+
+        if (best != null && bestScore >= FUZZY_MATCH_THRESHOLD) {
+            log.info("Product match strategy=fuzzy label='{}' product='{}' score={}",
+                    normalizedLabel, safe(best.product().getName()), String.format("%.3f", bestScore));
+            return new ProductMatchResult(Optional.of(best), "fuzzy", bestScore);
+        }
+
+        Optional<ProductMatchResult> ngramMatch = findBestNgramProduct(snapshot, normalizedLabel, labelTokens);
+        if (ngramMatch.isPresent()) {
+            return ngramMatch.get();
+        }
+
+        Optional<ProductMatchResult> semanticMatch = findBestSemanticProduct(snapshot, normalizedLabel);
+        if (semanticMatch.isPresent()) {
+            return semanticMatch.get();
+        }
+
+        log.info("Product match strategy=none label='{}' bestScore={}",
+                normalizedLabel, String.format("%.3f", bestScore));
+        return new ProductMatchResult(Optional.empty(), "none", bestScore);
+    }
+
+    private FuzzyBest scoreFuzzyCandidates(List<CatalogEntry> candidates, String normalizedLabel, int[] labelTokenIds) {
+        CatalogProperties.ParallelScoring parallelScoring = catalogProperties.getParallelScoring();
+        if (fuzzyScoringPool == null || candidates.size() < Math.max(1, parallelScoring.getMinCandidates())) {
+            return scoreFuzzyRange(candidates, 0, candidates.size(), normalizedLabel, labelTokenIds);
+        }
+        int chunkSize = Math.max(1, parallelScoring.getChunkSize());
+        return fuzzyScoringPool.invoke(
+                new FuzzyScoringTask(candidates, 0, candidates.size(), chunkSize, normalizedLabel, labelTokenIds));
+    }
+
+    private FuzzyBest scoreFuzzyRange(
+            List<CatalogEntry> candidates,
+            int from,
+            int to,
+            String normalizedLabel,
+            int[] labelTokenIds
+    ) {
+        int bestIndex = -1;
         double bestScore = 0.0;
-        for (Product product : products) {
-            String normalizedName = normalizeLabel(product.getName());
-            String normalizedCategory = normalizeLabel(product.getCategory());
-            String combined = (normalizedName + " " + normalizedCategory).trim();
+        for (int i = from; i < to; i++) {
+            CatalogEntry candidate = candidates.get(i);
             double score = Math.max(
-                    fuzzySimilarity(normalizedLabel, normalizedName),
+                    fuzzySimilarity(normalizedLabel, labelTokenIds, candidate.normalizedName(), candidate.nameTokenIds()),
                     Math.max(
-                            fuzzySimilarity(normalizedLabel, normalizedCategory),
-                            fuzzySimilarity(normalizedLabel, combined)
+                            fuzzySimilarity(normalizedLabel, labelTokenIds, candidate.normalizedCategory(), candidate.categoryTokenIds()),
+                            fuzzySimilarity(normalizedLabel, labelTokenIds, candidate.nameCategory(), candidate.nameCategoryTokenIds())
                     )
             );
             if (score > bestScore) {
                 bestScore = score;
-                best = product;
+                bestIndex = i;
             }
         }
+        return new FuzzyBest(bestIndex, bestScore);
+    }
 
-        if (best != null && bestScore >= FUZZY_MATCH_THRESHOLD) {
-            log.info("Product match strategy=fuzzy label='{}' product='{}' score={}",
-                    normalizedLabel, safe(best.getName()), String.format("%.3f", bestScore));
-            return new ProductMatchResult(Optional.of(best), "fuzzy", bestScore);
+    private Optional<ProductMatchResult> findBestNgramProduct(
+            CatalogSnapshot snapshot,
+            String normalizedLabel,
+            String[] labelTokens
+    ) {
+        int[] labelTrigrams = Trigrams.signature(normalizedLabel);
+        if (labelTrigrams.length == 0) {
+            return Optional.empty();
+        }
+        int minShared = Math.max(1, (int) Math.ceil(labelTrigrams.length * NGRAM_MIN_SHARED_RATIO));
+        List<CatalogEntry> candidates = snapshot.findTrigramCandidates(labelTrigrams, minShared, NGRAM_CANDIDATE_LIMIT);
+        if (candidates.isEmpty()) {
+            return Optional.empty();
         }
 
-        log.info("Product match strategy=none label='{}' bestScore={}",
-                normalizedLabel, String.format("%.3f", bestScore));
-        return new ProductMatchResult(Optional.empty(), "none", bestScore);
+        int[][] labelTokenTrigrams = Trigrams.tokenSignatures(labelTokens);
+        CatalogEntry best = null;
+        double bestScore = 0.0;
+        for (CatalogEntry candidate : candidates) {
+            double score = Math.max(
+                    Math.max(
+                            Trigrams.dice(labelTrigrams, candidate.nameTrigrams()),
+                            Trigrams.dice(labelTrigrams, candidate.categoryTrigrams())
+                    ),
+                    Trigrams.tokenAlignedScore(labelTokenTrigrams, candidate.tokenTrigrams())
+            );
+            if (score > bestScore) {
+                bestScore = score;
+                best = candidate;
+            }
+        }
+
+        if (best == null || bestScore < NGRAM_MATCH_THRESHOLD) {
+            return Optional.empty();
+        }
+        log.info("Product match strategy=ngram label='{}' product='{}' score={}",
+                normalizedLabel, safe(best.product().getName()), String.format("%.3f", bestScore));
+        return Optional.of(new ProductMatchResult(Optional.of(best), "fuzzy", bestScore));
     }
 
-    private double fuzzySimilarity(String input, String candidate) {
+    private Optional<ProductMatchResult> findBestSemanticProduct(CatalogSnapshot snapshot, String normalizedLabel) {
+        if (semanticIndex == null) {
+            return Optional.empty();
+        }
+        CatalogProperties.Semantic semantic = catalogProperties.getSemantic();
+        List<HnswIndex.Hit<SemanticTarget>> hits = new ArrayList<>(semanticIndex.search(
+                textEmbedder.embed(normalizedLabel), SEMANTIC_CANDIDATE_LIMIT, semantic.getEfSearch()));
+        // On equal similarity a catalog name/category beats a taxonomy synonym pointing at a leaf.
+        hits.sort((left, right) -> left.similarity() != right.similarity()
+                ? Double.compare(right.similarity(), left.similarity())
+                : Boolean.compare(left.value().entryKey() == null, right.value().entryKey() == null));
+        for (HnswIndex.Hit<SemanticTarget> hit : hits) {
+            if (hit.similarity() < semantic.getMinSimilarity()) {
+                break;
+            }
+            Optional<CatalogEntry> entry = resolveSemanticTarget(snapshot, hit.value());
+            if (entry.isPresent()) {
+                double score = roundThreeDecimals(Math.min(1.0, hit.similarity()));
+                log.info("Product match strategy=semantic label='{}' via='{}' product='{}' score={}",
+                        normalizedLabel, hit.value().text(), safe(entry.get().product().getName()), score);
+                return Optional.of(new ProductMatchResult(entry, "semantic", score));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<CatalogEntry> resolveSemanticTarget(CatalogSnapshot snapshot, SemanticTarget target) {
+        if (target.entryKey() != null) {
+            return snapshot.findByKey(target.entryKey());
+        }
+        Optional<CatalogEntry> exact = snapshot.findExact(target.leafLabel());
+        if (exact.isPresent()) {
+            return exact;
+        }
+        String[] leafTokens = tokenArray(target.leafLabel());
+        List<CatalogEntry> candidates = snapshot.findTokenCandidates(leafTokens);
+        FuzzyBest best = scoreFuzzyCandidates(candidates, target.leafLabel(), tokenVocabulary.lookup(leafTokens));
+        if (best.index() < 0 || best.score() < FUZZY_MATCH_THRESHOLD) {
+            return Optional.empty();
+        }
+        return Optional.of(candidates.get(best.index()));
+    }
+
+    private void indexSemanticTerms(CatalogEntry entry) {
+        indexSemanticTarget(new SemanticTarget(entry.normalizedName(), entry.key(), null));
+        indexSemanticTarget(new SemanticTarget(entry.normalizedCategory(), entry.key(), null));
+    }
+
+    private void indexSemanticTarget(SemanticTarget target) {
+        if (semanticIndex == null || target.text() == null || target.text().isBlank()) {
+            return;
+        }
+        // The first product to claim a name/category keeps it, matching findExact's lowest-ordinal rule.
+        String dedupeKey = target.text() + "|" + (target.entryKey() == null ? "leaf:" + target.leafLabel() : "catalog");
+        if (semanticIndexed.add(dedupeKey)) {
+            semanticIndex.add(textEmbedder.embed(target.text()), target);
+        }
+    }
+
+    private void recordCo2Sample(Double carbonImpact) {
+        if (carbonImpact != null) {
+            co2Sketch.update(carbonImpact);
+        }
+    }
+
+    private CatalogSnapshot catalogSnapshot() {
+        CatalogSnapshot snapshot = catalogSnapshot.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (catalogSnapshot) {
+            snapshot = catalogSnapshot.get();
+            if (snapshot == null) {
+                List<CatalogEntry> entries = new ArrayList<>();
+                for (Product product : findAllProducts()) {
+                    entries.add(toCatalogEntry(product, true));
+                }
+                snapshot = CatalogSnapshot.of(entries);
+                indexSpellTerms(snapshot.entries());
+                snapshot.entries().forEach(this::indexSemanticTerms);
+                snapshot.entries().forEach(entry -> recordCo2Sample(entry.product().getCarbonImpact()));
+                catalogSnapshot.set(snapshot);
+                log.info("Catalog snapshot loaded: products={}", snapshot.size());
+                scheduleMaterializedRatingRefresh();
+            }
+            return snapshot;
+        }
+    }
+
+    private CatalogEntry publishToCatalog(Product product) {
+        return publishToCatalog(product, null);
+    }
+
+    private CatalogEntry publishToCatalog(Product product, String replacedKey) {
+        CatalogEntry entry = toCatalogEntry(new Product(product), true);
+        CatalogSnapshot previous = catalogSnapshot.getAndUpdate(current -> current == null
+                ? null
+                : replacedKey == null ? current.withEntry(entry) : current.withEntryReplacing(replacedKey, entry));
+        indexSpellTerms(List.of(entry));
+        indexSemanticTerms(entry);
+        String previousKey = replacedKey != null && previous != null && previous.findByKey(replacedKey).isPresent()
+                ? replacedKey
+                : entry.key();
+        boolean distributionChanged = previous == null || previous.findByKey(previousKey)
+                .map(existing -> !Objects.equals(existing.product().getCarbonImpact(), product.getCarbonImpact()))
+                .orElse(true);
+        // A snapshot that is not loaded yet will read this product from the store, so only feed loaded catalogs.
+        if (previous != null && distributionChanged) {
+            recordCo2Sample(product.getCarbonImpact());
+        }
+        invalidateResolutions(entry, distributionChanged);
+        return entry;
+    }
+
+    // Only catalog entries grow the token vocabulary; transient entries for unmatched labels just look it up.
+    private CatalogEntry toCatalogEntry(Product product, boolean inCatalog) {
+        String normalizedName = normalizeLabel(product.getName());
+        String normalizedCategory = normalizeLabel(product.getCategory());
+        String nameCategory = (normalizedName + " " + normalizedCategory).trim();
+        String categoryName = (normalizedCategory + " " + normalizedName).trim();
+        String[] nameTokens = tokenArray(normalizedName);
+        String[] categoryTokens = tokenArray(normalizedCategory);
+        String[] nameCategoryTokens = tokenArray(nameCategory);
+        String normalizedMaterial = normalizeLabel(product.getMaterial());
+        String normalizedLifecycle = normalizeLabel(product.getLifecycleType());
+        String normalizedRecyclability = normalizeLabel(product.getRecyclability());
+        return new CatalogEntry(
+                product,
+                normalizedName,
+                normalizedCategory,
+                nameCategory,
+                categoryName,
+                nameCategoryTokens,
+                tokenIds(nameTokens, inCatalog),
+                tokenIds(categoryTokens, inCatalog),
+                tokenIds(nameCategoryTokens, inCatalog),
+                Trigrams.signature(normalizedName),
+                Trigrams.signature(normalizedCategory),
+                Trigrams.tokenSignatures(nameCategoryTokens),
+                normalizedMaterial,
+                normalizedLifecycle,
+                normalizedRecyclability,
+                isMissingText(normalizedMaterial),
+                isMissingText(normalizedLifecycle),
+                isMissingText(normalizedRecyclability)
+        );
+    }
+
+    private int[] tokenIds(String[] tokens, boolean intern) {
+        return intern ? tokenVocabulary.intern(tokens) : tokenVocabulary.lookup(tokens);
+    }
+
+    private double fuzzySimilarity(String input, int[] inputTokenIds, String candidate, int[] candidateTokenIds) {
         if (input == null || candidate == null || input.isBlank() || candidate.isBlank()) {
             return 0.0;
         }
@@ -970,18 +1810,7 @@ public class ProductService {
             return 0.9;
         }
 
-        Set<String> inputTokens = tokens(input);
-        Set<String> candidateTokens = tokens(candidate);
-        if (inputTokens.isEmpty() || candidateTokens.isEmpty()) {
-            return 0.0;
-        }
-
-        long intersection = inputTokens.stream().filter(candidateTokens::contains).count();
-        long union = inputTokens.size() + candidateTokens.size() - intersection;
-        if (union == 0) {
-            return 0.0;
-        }
-        return (double) intersection / union;
+        return TokenVocabulary.jaccard(inputTokenIds, candidateTokenIds);
     }
 
     private Set<String> tokens(String value) {
@@ -991,16 +1820,31 @@ public class ProductService {
                 .collect(Collectors.toSet());
     }
 
-    private boolean containsAny(String value, String... phrases) {
-        if (value == null || value.isBlank()) {
-            return false;
+    private String[] tokenArray(String value) {
+        return tokens(value).toArray(new String[0]);
+    }
+
+    private PhraseMatcher compilePhraseMatcher() {
+        if (INFERENCE_RULE_FLAG_OFFSET + METADATA_INFERENCE_RULES.size() > Long.SIZE) {
+            throw new IllegalStateException("Too many phrase features for a 64-bit flag mask");
         }
-        for (String phrase : phrases) {
-            if (value.contains(normalizeLabel(phrase))) {
-                return true;
+        PhraseMatcher.Builder builder = PhraseMatcher.builder();
+        for (PhraseFeature feature : PhraseFeature.values()) {
+            for (String phrase : feature.phrases) {
+                builder.add(feature.flag(), normalizeLabel(phrase));
             }
         }
-        return false;
+        for (int i = 0; i < METADATA_INFERENCE_RULES.size(); i++) {
+            long ruleFlag = 1L << (INFERENCE_RULE_FLAG_OFFSET + i);
+            for (String phrase : METADATA_INFERENCE_RULES.get(i).matchPhrases()) {
+                builder.add(ruleFlag, normalizeLabel(phrase));
+            }
+        }
+        return builder.build();
+    }
+
+    private boolean hasFlag(long flags, PhraseFeature feature) {
+        return (flags & feature.flag()) != 0L;
     }
 
     private boolean isNaturePositiveLabel(String value) {
@@ -1008,20 +1852,23 @@ public class ProductService {
         if (normalized.isBlank()) {
             return false;
         }
-        if (containsAny(normalized,
-                "plastic", "bottle", "cup", "bag", "straw", "container", "packaging", "disposable", "artificial")) {
+        return isNaturePositiveLabel(phraseMatcher.match(normalized));
+    }
+
+    private boolean isNaturePositiveLabel(long flags) {
+        if (hasFlag(flags, PhraseFeature.NATURE_EXCLUDED)) {
             return false;
         }
-        return containsAny(normalized, "tree", "sapling", "seedling", "houseplant", "potted plant", "flower", "shrub", "plant");
+        return hasFlag(flags, PhraseFeature.NATURE_LABEL);
     }
 
-    private boolean isNaturePositiveItem(String combined, String material, String lifecycleType) {
-        if (containsAny(lifecycleType, "living natural", "living_natural", "nature positive", "natural living")) {
+    private boolean isNaturePositiveItem(long combinedFlags, long materialFlags, long lifecycleFlags) {
+        if (hasFlag(lifecycleFlags, PhraseFeature.LIVING_NATURAL)) {
             return true;
         }
-        return isNaturePositiveLabel(combined)
-                || (containsAny(material, "organic", "plant", "leaf", "tree")
-                && containsAny(combined, "tree", "plant", "sapling", "flower", "shrub"));
+        return isNaturePositiveLabel(combinedFlags)
+                || (hasFlag(materialFlags, PhraseFeature.NATURAL_MATERIAL)
+                && hasFlag(combinedFlags, PhraseFeature.NATURE_CONTEXT));
     }
 
     private int clamp(int value, int min, int max) {
@@ -1032,7 +1879,35 @@ public class ProductService {
         return value == null ? "" : value;
     }
 
+    private String generateAndStoreExplanation(String entryKey, Product product) {
+        Product generated = new Product(product);
+        String explanation = llmService.generateExplanation(generated);
+        if (!llmService.isFallbackExplanation(explanation)) {
+            generated.setExplanation(explanation);
+            saveGeneratedExplanation(entryKey, generated);
+        }
+        return explanation;
+    }
+
+    // Applies a generated explanation to the product as currently published, unless one was stored meanwhile.
+    private void saveGeneratedExplanation(String entryKey, Product generated) {
+        Product current = catalogSnapshot().findByKey(entryKey)
+                .map(entry -> new Product(entry.product()))
+                .orElse(generated);
+        if (current.getExplanation() != null && !current.getExplanation().isBlank()) {
+            return;
+        }
+        current.setExplanation(generated.getExplanation());
+        saveProduct(current);
+    }
+
     private Product saveProduct(Product product) {
+        Product saved = persistProduct(product);
+        publishToCatalog(saved);
+        return saved;
+    }
+
+    private Product persistProduct(Product product) {
         if (mongoAtlasRuntimeStore.isRuntimeEnabled()) {
             try {
                 return mongoAtlasRuntimeStore.saveProduct(product);
@@ -1043,6 +1918,35 @@ public class ProductService {
         return productRepository.save(product);
     }
 
+    // One bulk write; when it stops partway, only the rows it did not write fall back to JPA.
+    private List<Product> persistProducts(List<Product> products) {
+        if (!mongoAtlasRuntimeStore.isRuntimeEnabled()) {
+            return productRepository.saveAll(products);
+        }
+        List<Product> saved;
+        try {
+            saved = new ArrayList<>(mongoAtlasRuntimeStore.saveProducts(products));
+        } catch (Exception ex) {
+            log.warn("Mongo runtime product batch save failed, falling back to JPA: {}", ex.getMessage());
+            return productRepository.saveAll(products);
+        }
+        List<Integer> unwritten = new ArrayList<>();
+        for (int i = 0; i < saved.size(); i++) {
+            if (saved.get(i) == null) {
+                unwritten.add(i);
+            }
+        }
+        if (!unwritten.isEmpty()) {
+            log.warn("Mongo runtime product batch save stopped partway, falling back to JPA for {} of {} rows",
+                    unwritten.size(), products.size());
+            List<Product> fallback = productRepository.saveAll(unwritten.stream().map(products::get).toList());
+            for (int i = 0; i < unwritten.size(); i++) {
+                saved.set(unwritten.get(i), fallback.get(i));
+            }
+        }
+        return saved;
+    }
+
     private Optional<Product> findByNameIgnoreCase(String name) {
         if (mongoAtlasRuntimeStore.isRuntimeEnabled()) {
             try {
@@ -1065,17 +1969,6 @@ public class ProductService {
         return productRepository.findFirstByCategoryIgnoreCase(category);
     }
 
-    private List<Double> findAllCarbonImpactsOrdered() {
-        if (mongoAtlasRuntimeStore.isRuntimeEnabled()) {
-            try {
-                return mongoAtlasRuntimeStore.findAllProductCarbonImpactsOrdered();
-            } catch (Exception ex) {
-                log.warn("Mongo runtime carbon distribution read failed, falling back to JPA: {}", ex.getMessage());
-            }
-        }
-        return productRepository.findAllCarbonImpactsOrdered();
-    }
-
     private List<Product> findAllProducts() {
         if (mongoAtlasRuntimeStore.isRuntimeEnabled()) {
             try {
@@ -1118,16 +2011,103 @@ public class ProductService {
             int greenerAlternativeBoost,
             List<ScoreFactor> scoreFactors
     ) {
+        // Summary ratings (detail=summary) carry no factor breakdown.
+        boolean explained() {
+            return scoreFactors != null;
+        }
+    }
+
+    private record MaterializedRating(
+            CatalogEntry entry,
+            MetadataResolution metadata,
+            RatingDecision rating,
+            ScoringSnapshot scoring,
+            long co2DistributionVersion
+    ) {
+        boolean ratedWith(ScoringSnapshot currentScoring, long currentDistributionVersion) {
+            return scoring == currentScoring && co2DistributionVersion == currentDistributionVersion;
+        }
     }
 
-    private record FeatureAdjustmentResult(int total, List<ScoreFactor> factors) {
+    // An auto-learned product published under catalogKey before it was written to the store.
+    private record PendingAutoLearn(Product product, String catalogKey) {
     }
 
     private record Co2ScoreResult(int score, String detail) {
     }
 
+    // Best (index, score) over a candidate range; on equal scores the lower index wins, as in a sequential scan.
+    private record FuzzyBest(int index, double score) {
+        FuzzyBest orBetter(FuzzyBest later) {
+            return later.score() > score ? later : this;
+        }
+    }
+
+    private final class FuzzyScoringTask extends RecursiveTask<FuzzyBest> {
+
+        private final List<CatalogEntry> candidates;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final String normalizedLabel;
+        private final int[] labelTokenIds;
+
+        private FuzzyScoringTask(
+                List<CatalogEntry> candidates,
+                int from,
+                int to,
+                int chunkSize,
+                String normalizedLabel,
+                int[] labelTokenIds
+        ) {
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.normalizedLabel = normalizedLabel;
+            this.labelTokenIds = labelTokenIds;
+        }
+
+        @Override
+        protected FuzzyBest compute() {
+            if (to - from <= chunkSize) {
+                return scoreFuzzyRange(candidates, from, to, normalizedLabel, labelTokenIds);
+            }
+            int middle = (from + to) >>> 1;
+            FuzzyScoringTask left = new FuzzyScoringTask(candidates, from, middle, chunkSize, normalizedLabel, labelTokenIds);
+            FuzzyScoringTask right = new FuzzyScoringTask(candidates, middle, to, chunkSize, normalizedLabel, labelTokenIds);
+            left.fork();
+            FuzzyBest rightBest = right.compute();
+            return left.join().orBetter(rightBest);
+        }
+    }
+
+    // A semantic index item: either a catalog name/category (entryKey) or a taxonomy term pointing at a leaf label.
+    private record SemanticTarget(String text, String entryKey, String leafLabel) {
+    }
+
+    private record ResolvedLabel(
+            ProductMatchResult match,
+            CatalogEntry entry,
+            MetadataResolution metadata,
+            RatingDecision rating,
+            int[] labelTrigrams,
+            String matchedKey,
+            ScoringSnapshot scoring,
+            long co2DistributionVersion
+    ) {
+        boolean ratedWith(ScoringSnapshot currentScoring, long currentDistributionVersion) {
+            return scoring == currentScoring && co2DistributionVersion == currentDistributionVersion;
+        }
+
+        ResolvedLabel withRating(RatingDecision newRating, ScoringSnapshot newScoring, long newDistributionVersion) {
+            return new ResolvedLabel(match, entry, metadata, newRating, labelTrigrams, matchedKey,
+                    newScoring, newDistributionVersion);
+        }
+    }
+
     private record ProductMatchResult(
-            Optional<Product> product,
+            Optional<CatalogEntry> entry,
             String strategy,
             double score
     ) {
@@ -1147,6 +2127,28 @@ public class ProductService {
     ) {
     }
 
+    private enum PhraseFeature {
+        LIVING_NATURAL("living natural", "living_natural", "nature positive", "natural living"),
+        SINGLE_USE_LIFECYCLE("single use", "single_use", "single-use", "disposable"),
+        REUSABLE_LIFECYCLE("reusable", "refillable", "long life", "long_life", "durable"),
+        SINGLE_USE_CONTEXT("single use", "single-use", "disposable", "plastic bottle", "plastic bag"),
+        REUSABLE_CONTEXT("reusable", "refillable", "cloth bag", "steel bottle", "led"),
+        NATURAL_MATERIAL("organic", "plant", "leaf", "tree"),
+        NATURE_EXCLUDED("plastic", "bottle", "cup", "bag", "straw", "container", "packaging", "disposable", "artificial"),
+        NATURE_LABEL("tree", "sapling", "seedling", "houseplant", "potted plant", "flower", "shrub", "plant"),
+        NATURE_CONTEXT("tree", "plant", "sapling", "flower", "shrub");
+
+        private final String[] phrases;
+
+        PhraseFeature(String... phrases) {
+            this.phrases = phrases;
+        }
+
+        long flag() {
+            return 1L << ordinal();
+        }
+    }
+
     private record MetadataInferenceRule(
             String code,
             List<String> matchPhrases,
@@ -0,0 +1,173 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.BindException;
+import org.springframework.boot.context.properties.bind.BindHandler;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.handler.NoUnboundElementsBindHandler;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.ecolens.ecolens_backend.config.ScoringProperties;
+
+import jakarta.annotation.PreDestroy;
+
+// Rebuilds the scoring snapshot from scoring.* at runtime. Keys in scoring.reload.file (a .properties file)
+// take precedence over the application environment; the file is polled for changes when configured. A config
+// that fails to bind or validate is rejected and the current snapshot stays in place.
+@Service
+public class ScoringConfigReloader {
+
+    private static final Logger log = LoggerFactory.getLogger(ScoringConfigReloader.class);
+
+    private final ProductService productService;
+    private final Environment environment;
+    private final Path reloadFile;
+    private final ScheduledExecutorService watcher;
+    private volatile long lastModifiedMillis;
+    private volatile Instant lastReloadAt;
+    private volatile String lastError;
+    private volatile long reloads;
+
+    public ScoringConfigReloader(ProductService productService, ScoringProperties scoringProperties, Environment environment) {
+        this.productService = productService;
+        this.environment = environment;
+        ScoringProperties.Reload reload = scoringProperties.getReload();
+        String file = reload.getFile() == null ? "" : reload.getFile().trim();
+        this.reloadFile = file.isEmpty() ? null : Path.of(file);
+        if (reloadFile != null && reload.getPollIntervalMs() > 0) {
+            this.watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "scoring-config-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            watcher.scheduleWithFixedDelay(this::reloadIfFileChanged, 0L, reload.getPollIntervalMs(), TimeUnit.MILLISECONDS);
+        } else {
+            this.watcher = null;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+    }
+
+    public synchronized Map<String, Object> reload() {
+        try {
+            applyCurrentConfig();
+        } catch (IllegalStateException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+        return status();
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("file", reloadFile == null ? "" : reloadFile.toString());
+        out.put("watching", watcher != null);
+        out.put("reloads", reloads);
+        out.put("lastReloadAt", lastReloadAt == null ? null : lastReloadAt.toString());
+        out.put("lastError", lastError);
+        out.put("active", productService.scoringSnapshot().describe());
+        return out;
+    }
+
+    // The scoring config the next reload would apply, with overrides on top; unknown override keys are rejected.
+    ScoringProperties bind(Map<String, Object> overrides) {
+        Map<String, Object> flattened = new LinkedHashMap<>();
+        flatten("scoring", overrides == null ? Map.of() : overrides, flattened);
+        MapConfigurationPropertySource overrideSource = new MapConfigurationPropertySource(flattened);
+        try {
+            new Binder(overrideSource).bind("scoring", Bindable.of(ScoringProperties.class),
+                    new NoUnboundElementsBindHandler(BindHandler.DEFAULT));
+            List<ConfigurationPropertySource> sources = new ArrayList<>();
+            sources.add(overrideSource);
+            sources.add(new MapConfigurationPropertySource(readReloadFile()));
+            ConfigurationPropertySources.get(environment).forEach(sources::add);
+            return new Binder(sources).bindOrCreate("scoring", Bindable.of(ScoringProperties.class));
+        } catch (BindException ex) {
+            throw new IllegalStateException("Invalid scoring configuration: " + ex.getMessage(), ex);
+        }
+    }
+
+    private void reloadIfFileChanged() {
+        try {
+            long modified = Files.exists(reloadFile) ? Files.getLastModifiedTime(reloadFile).toMillis() : 0L;
+            if (modified == lastModifiedMillis) {
+                return;
+            }
+            lastModifiedMillis = modified;
+            synchronized (this) {
+                applyCurrentConfig();
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Scoring config reload from {} failed: {}", reloadFile, ex.getMessage());
+        }
+    }
+
+    private void applyCurrentConfig() {
+        try {
+            ScoringSnapshot next = ScoringSnapshot.of(bind(Map.of()));
+            productService.applyScoringSnapshot(next);
+            reloads++;
+            lastReloadAt = Instant.now();
+            lastError = null;
+        } catch (IllegalStateException ex) {
+            lastError = ex.getMessage();
+            throw ex;
+        }
+    }
+
+    private Map<String, Object> readReloadFile() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (reloadFile == null || !Files.exists(reloadFile)) {
+            return values;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(reloadFile, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Cannot read scoring config file " + reloadFile + ": " + ex.getMessage(), ex);
+        }
+        properties.stringPropertyNames().stream()
+                .filter(name -> name.startsWith("scoring."))
+                .forEach(name -> values.put(name, properties.getProperty(name)));
+        return values;
+    }
+
+    private static void flatten(String prefix, Object value, Map<String, Object> out) {
+        if (value instanceof Map<?, ?> map) {
+            map.forEach((key, nested) -> flatten(prefix + "." + key, nested, out));
+        } else if (value instanceof List<?> list) {
+            for (int i = 0; i < list.size(); i++) {
+                flatten(prefix + "[" + i + "]", list.get(i), out);
+            }
+        } else if (value != null) {
+            out.put(prefix, value.toString());
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.ecolens.ecolens_backend.config.ScoringProperties;
+import com.ecolens.ecolens_backend.dto.ScoreFactor;
+
+// Feature adjustment rules compiled into a flat table: rule i owns bit i. One matcher pass per text field
+// yields the fired bits, exclusive groups are resolved with precomputed suppression masks, and the
+// adjustment is summed from the weight vector. Factors are built only when the caller asks for them.
+final class ScoringRuleTable {
+
+    private enum Field {
+        SINGLE_USE, REUSABLE, LIFECYCLE, MATERIAL, RECYCLABILITY, RECYCLED_CONTENT
+    }
+
+    private final PhraseMatcher matcher;
+    private final long[] fieldMasks;
+    private final long[] suppressedBy;
+    private final int[] weights;
+    private final int[] minPercents;
+    private final String[] codes;
+    private final String[] labels;
+    private final String[] details;
+    private final List<String> matchSignature;
+
+    private ScoringRuleTable(
+            PhraseMatcher matcher,
+            long[] fieldMasks,
+            long[] suppressedBy,
+            int[] weights,
+            int[] minPercents,
+            String[] codes,
+            String[] labels,
+            String[] details,
+            List<String> matchSignature
+    ) {
+        this.matcher = matcher;
+        this.fieldMasks = fieldMasks;
+        this.suppressedBy = suppressedBy;
+        this.weights = weights;
+        this.minPercents = minPercents;
+        this.codes = codes;
+        this.labels = labels;
+        this.details = details;
+        this.matchSignature = matchSignature;
+    }
+
+    int size() {
+        return weights.length;
+    }
+
+    // Configured rules replace the defaults entirely; without any, the table mirrors scoring.adjustments.
+    static ScoringRuleTable compile(ScoringProperties scoringProperties) {
+        List<ScoringProperties.FeatureRule> rules = scoringProperties.getFeatureRules();
+        return compile(rules == null || rules.isEmpty() ? defaultRules(scoringProperties) : rules);
+    }
+
+    static ScoringRuleTable compile(List<ScoringProperties.FeatureRule> rules) {
+        if (rules.size() > Long.SIZE) {
+            throw new IllegalStateException("Too many scoring feature rules for a 64-bit mask: " + rules.size());
+        }
+        int count = rules.size();
+        PhraseMatcher.Builder builder = PhraseMatcher.builder();
+        long[] fieldMasks = new long[Field.values().length];
+        long[] suppressedBy = new long[count];
+        int[] weights = new int[count];
+        int[] minPercents = new int[count];
+        String[] codes = new String[count];
+        String[] labels = new String[count];
+        String[] details = new String[count];
+        Map<String, Long> groupMembers = new HashMap<>();
+        List<String> matchSignature = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            ScoringProperties.FeatureRule rule = rules.get(i);
+            long bit = 1L << i;
+            Field field = parseField(rule);
+            fieldMasks[field.ordinal()] |= bit;
+            StringBuilder signature = new StringBuilder(field.name());
+            if (field == Field.LIFECYCLE || field == Field.MATERIAL || field == Field.RECYCLABILITY) {
+                for (String phrase : rule.getPhrases() == null ? List.<String>of() : rule.getPhrases()) {
+                    String normalized = TextNormalizer.normalize(phrase);
+                    builder.add(bit, normalized);
+                    signature.append('|').append(normalized);
+                }
+            }
+            matchSignature.add(signature.toString());
+            if (field == Field.RECYCLED_CONTENT && rule.getMinPercent() == null) {
+                throw new IllegalStateException("Scoring rule '" + rule.getCode() + "' needs min-percent");
+            }
+            weights[i] = rule.getWeight();
+            minPercents[i] = rule.getMinPercent() == null ? 0 : rule.getMinPercent();
+            codes[i] = rule.getCode();
+            labels[i] = rule.getLabel();
+            details[i] = rule.getDetail() == null ? "" : rule.getDetail();
+            String group = rule.getExclusiveGroup();
+            if (group != null && !group.isBlank()) {
+                groupMembers.merge(group.trim(), bit, (left, right) -> left | right);
+            }
+        }
+        // A rule suppresses every later rule of its group, so the first one to fire wins like an else-if chain.
+        for (int i = 0; i < count; i++) {
+            String group = rules.get(i).getExclusiveGroup();
+            if (group != null && !group.isBlank()) {
+                long later = -1L << i << 1;
+                suppressedBy[i] = groupMembers.get(group.trim()) & later;
+            }
+        }
+        return new ScoringRuleTable(builder.build(), fieldMasks, suppressedBy, weights, minPercents, codes, labels, details,
+                List.copyOf(matchSignature));
+    }
+
+    FeatureAdjustment evaluate(
+            boolean singleUse,
+            boolean reusable,
+            String lifecycle,
+            String materialContext,
+            String materialSource,
+            String recyclability,
+            int recycledContent,
+            boolean explain
+    ) {
+        long applied = applied(matchText(lifecycle, materialContext, recyclability), singleUse, reusable, recycledContent);
+        int total = 0;
+        List<ScoreFactor> factors = explain ? new ArrayList<>(Long.bitCount(applied)) : null;
+        for (long pending = applied; pending != 0L; pending &= pending - 1) {
+            int rule = Long.numberOfTrailingZeros(pending);
+            total += weights[rule];
+            if (explain) {
+                factors.add(new ScoreFactor(codes[rule], labels[rule], (double) weights[rule],
+                        renderDetail(details[rule], materialSource, recycledContent, minPercents[rule])));
+            }
+        }
+        return new FeatureAdjustment(total, factors);
+    }
+
+    // Bits of the phrase rules that fire on the text fields. Depends only on the phrases, so tables with the same
+    // match signature can share these masks and differ in weights and thresholds only.
+    long matchText(String lifecycle, String materialContext, String recyclability) {
+        return (matcher.match(lifecycle) & fieldMasks[Field.LIFECYCLE.ordinal()])
+                | (matcher.match(materialContext) & fieldMasks[Field.MATERIAL.ordinal()])
+                | (matcher.match(recyclability) & fieldMasks[Field.RECYCLABILITY.ordinal()]);
+    }
+
+    // Same total as evaluate(...) for text bits from matchText, without building factors.
+    int adjustment(long textMask, boolean singleUse, boolean reusable, int recycledContent) {
+        int total = 0;
+        for (long pending = applied(textMask, singleUse, reusable, recycledContent); pending != 0L; pending &= pending - 1) {
+            total += weights[Long.numberOfTrailingZeros(pending)];
+        }
+        return total;
+    }
+
+    boolean sameMatching(ScoringRuleTable other) {
+        return matchSignature.equals(other.matchSignature);
+    }
+
+    private long applied(long textMask, boolean singleUse, boolean reusable, int recycledContent) {
+        long fired = textMask;
+        if (singleUse) {
+            fired |= fieldMasks[Field.SINGLE_USE.ordinal()];
+        }
+        if (reusable) {
+            fired |= fieldMasks[Field.REUSABLE.ordinal()];
+        }
+        for (long pending = fieldMasks[Field.RECYCLED_CONTENT.ordinal()]; pending != 0L; pending &= pending - 1) {
+            int rule = Long.numberOfTrailingZeros(pending);
+            if (recycledContent >= minPercents[rule]) {
+                fired |= 1L << rule;
+            }
+        }
+
+        long applied = fired;
+        for (long pending = fired; pending != 0L; pending &= pending - 1) {
+            int rule = Long.numberOfTrailingZeros(pending);
+            if ((applied & (1L << rule)) != 0L) {
+                applied &= ~suppressedBy[rule];
+            }
+        }
+        return applied;
+    }
+
+    private static String renderDetail(String template, String materialSource, int recycledContent, int threshold) {
+        if (template.indexOf('{') < 0) {
+            return template;
+        }
+        return template
+                .replace("{materialSource}", materialSource)
+                .replace("{recycledContent}", String.valueOf(recycledContent))
+                .replace("{threshold}", String.valueOf(threshold));
+    }
+
+    private static Field parseField(ScoringProperties.FeatureRule rule) {
+        String field = rule.getField() == null ? "" : rule.getField().trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        try {
+            return Field.valueOf(field);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalStateException("Scoring rule '" + rule.getCode() + "' has unknown field '" + rule.getField() + "'");
+        }
+    }
+
+    // The rules that were hard-coded in ProductService, in the same order, with the same weights and details.
+    static List<ScoringProperties.FeatureRule> defaultRules(ScoringProperties scoringProperties) {
+        ScoringProperties.Adjustments adjustments = scoringProperties.getAdjustments();
+        ScoringProperties.FeatureThresholds thresholds = scoringProperties.getFeatureThresholds();
+        List<ScoringProperties.FeatureRule> rules = new ArrayList<>();
+        rules.add(rule("single_use_penalty", "Single-use penalty", "single_use", List.of(),
+                adjustments.getSingleUsePenalty(), null, null, "lifecycle indicates single-use"));
+        rules.add(rule("reusable_bonus", "Reusable bonus", "reusable", List.of(),
+                adjustments.getReusableBonus(), null, null, "isReusable=true or lifecycle indicates reusable"));
+        rules.add(rule("refillable_lifecycle_bonus", "Refillable lifecycle bonus", "lifecycle", List.of("refillable"),
+                adjustments.getRefillableLifecycleBonus(), null, null, "lifecycleType=refillable"));
+        rules.add(rule("long_life_lifecycle_bonus", "Long-life lifecycle bonus", "lifecycle",
+                List.of("long life", "long_life", "durable"),
+                adjustments.getLongLifeLifecycleBonus(), null, null, "lifecycleType=long_life/durable"));
+        rules.add(rule("biodegradable_lifecycle_bonus", "Biodegradable lifecycle bonus", "lifecycle",
+                List.of("biodegradable", "compostable"),
+                adjustments.getBiodegradableLifecycleBonus(), null, null, "lifecycleType=biodegradable/compostable"));
+        rules.add(rule("nature_positive_bonus", "Natural item bonus", "lifecycle",
+                List.of("living natural", "living_natural", "nature positive", "natural living"),
+                adjustments.getNaturePositiveBonus(), null, null, "lifecycleType=living_natural"));
+        rules.add(rule("plastic_penalty", "Plastic material penalty", "material",
+                List.of("plastic", "polystyrene", "polyester"),
+                adjustments.getPlasticPenalty(), null, null, "source={materialSource}, material contains plastic"));
+        rules.add(rule("paper_penalty", "Paper material adjustment", "material", List.of("paper", "carton"),
+                adjustments.getPaperPenalty(), null, null, "source={materialSource}, material contains paper/carton"));
+        rules.add(rule("aluminum_glass_bonus", "Aluminum/Glass bonus", "material", List.of("aluminum", "glass"),
+                adjustments.getAluminumGlassBonus(), null, null, "source={materialSource}, material contains aluminum/glass"));
+        rules.add(rule("cloth_recycled_bonus", "Cloth/Recycled bonus", "material",
+                List.of("cloth", "jute", "bamboo", "beeswax"),
+                adjustments.getClothRecycledBonus(), null, null,
+                "source={materialSource}, material contains cloth/jute/bamboo/beeswax"));
+        rules.add(rule("recycled_content_high_bonus", "High recycled-content bonus", "recycled_content", List.of(),
+                adjustments.getRecycledContentHighBonus(), thresholds.getRecycledContentHighPercent(), "recycled_content",
+                "recycledContentPercent={recycledContent}, threshold={threshold}"));
+        rules.add(rule("recycled_content_medium_bonus", "Medium recycled-content bonus", "recycled_content", List.of(),
+                adjustments.getRecycledContentMediumBonus(), thresholds.getRecycledContentMediumPercent(), "recycled_content",
+                "recycledContentPercent={recycledContent}, threshold={threshold}"));
+        rules.add(rule("recyclability_high_bonus", "High recyclability bonus", "recyclability", List.of("high"),
+                adjustments.getRecyclabilityHighBonus(), null, "recyclability", "recyclability=high"));
+        rules.add(rule("recyclability_medium_bonus", "Medium recyclability bonus", "recyclability", List.of("medium"),
+                adjustments.getRecyclabilityMediumBonus(), null, "recyclability", "recyclability=medium"));
+        rules.add(rule("recyclability_low_penalty", "Low recyclability penalty", "recyclability", List.of("low", "unknown"),
+                adjustments.getRecyclabilityLowPenalty(), null, "recyclability", "recyclability=low/unknown"));
+        rules.add(rule("recyclability_organic_bonus", "Organic recyclability bonus", "recyclability", List.of("organic"),
+                adjustments.getRecyclabilityOrganicBonus(), null, "recyclability", "recyclability=organic"));
+        return rules;
+    }
+
+    private static ScoringProperties.FeatureRule rule(String code, String label, String field, List<String> phrases,
+                                                      int weight, Integer minPercent, String exclusiveGroup,
+                                                      String detail) {
+        return new ScoringProperties.FeatureRule(code, label, field, phrases, weight, minPercent, exclusiveGroup, detail);
+    }
+
+    record FeatureAdjustment(int total, List<ScoreFactor> factors) {
+    }
+}
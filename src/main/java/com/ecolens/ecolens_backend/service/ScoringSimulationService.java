@@ -0,0 +1,102 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.ecolens.ecolens_backend.dto.ScoringSimulationRequest;
+import com.ecolens.ecolens_backend.repository.ScanHistoryRepository;
+
+// Offline what-if runs of candidate scoring configurations against the catalog and scan history. Candidates
+// are the scoring.* config a reload would apply with per-candidate overrides on top; the live snapshot is
+// always evaluated first as the baseline.
+@Service
+public class ScoringSimulationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ScoringSimulationService.class);
+    private static final int MAX_CANDIDATES = 16;
+    private static final int DEFAULT_BUCKET_WIDTH = 10;
+
+    private final ProductService productService;
+    private final ScanHistoryRepository scanHistoryRepository;
+    private final MongoAtlasRuntimeStore mongoAtlasRuntimeStore;
+    private final ScoringConfigReloader scoringConfigReloader;
+
+    public ScoringSimulationService(
+            ProductService productService,
+            ScanHistoryRepository scanHistoryRepository,
+            MongoAtlasRuntimeStore mongoAtlasRuntimeStore,
+            ScoringConfigReloader scoringConfigReloader
+    ) {
+        this.productService = productService;
+        this.scanHistoryRepository = scanHistoryRepository;
+        this.mongoAtlasRuntimeStore = mongoAtlasRuntimeStore;
+        this.scoringConfigReloader = scoringConfigReloader;
+    }
+
+    public Map<String, Object> simulate(ScoringSimulationRequest request) {
+        List<ScoringSimulationRequest.Candidate> requested = request.getCandidates() == null
+                ? List.of()
+                : request.getCandidates();
+        if (requested.size() > MAX_CANDIDATES) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_CANDIDATES + " candidates per run");
+        }
+        ScoringSnapshot current = productService.scoringSnapshot();
+        List<ScoringSimulator.Candidate> candidates = new ArrayList<>(requested.size() + 1);
+        candidates.add(new ScoringSimulator.Candidate("current", current));
+        for (int i = 0; i < requested.size(); i++) {
+            ScoringSimulationRequest.Candidate candidate = requested.get(i);
+            String name = candidate.getName() == null || candidate.getName().isBlank()
+                    ? "candidate-" + (i + 1)
+                    : candidate.getName().trim();
+            candidates.add(new ScoringSimulator.Candidate(name, bindCandidate(name, candidate.getOverrides())));
+        }
+
+        long loadStartedNanos = System.nanoTime();
+        ScoringSimulator.Builder builder = productService.newSimulationBuilder();
+        productService.addCatalogSimulationRows(builder);
+        if (!Boolean.FALSE.equals(request.getIncludeHistory())) {
+            historyScansByItem().entrySet().parallelStream()
+                    .forEach(item -> productService.addLabelSimulationRow(builder, item.getKey(), item.getValue()));
+        }
+        ScoringSimulator simulator = builder.build();
+        long loadMs = (System.nanoTime() - loadStartedNanos) / 1_000_000L;
+
+        int[] thresholds = request.getThresholds() == null || request.getThresholds().isEmpty()
+                ? new int[] {current.highImpactThreshold(), current.moderateImpactThreshold()}
+                : request.getThresholds().stream().mapToInt(Integer::intValue).toArray();
+        int bucketWidth = request.getBucketWidth() == null ? DEFAULT_BUCKET_WIDTH : request.getBucketWidth();
+        Map<String, Object> result = simulator.simulate(candidates, bucketWidth, thresholds);
+        result.put("loadMs", loadMs);
+        log.info("Scoring simulation: candidates={}, rows={}, loadMs={}, simulateMs={}",
+                candidates.size(), simulator.size(), loadMs, result.get("elapsedMs"));
+        return result;
+    }
+
+    private ScoringSnapshot bindCandidate(String name, Map<String, Object> overrides) {
+        try {
+            return ScoringSnapshot.of(scoringConfigReloader.bind(overrides));
+        } catch (IllegalStateException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid overrides for candidate '" + name + "': " + ex.getMessage());
+        }
+    }
+
+    private Map<String, Long> historyScansByItem() {
+        if (mongoAtlasRuntimeStore.isRuntimeEnabled()) {
+            return mongoAtlasRuntimeStore.countHistoryByItem();
+        }
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Object[] row : scanHistoryRepository.countScansByItemName()) {
+            counts.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,331 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.IntStream;
+
+// What-if scoring in a struct-of-arrays layout: one primitive column per rating input and one row per catalog
+// product or distinct history label, weighted by the scans it stands for. All candidate configurations are
+// evaluated in the same pass; rows are split into chunks that fill their own tallies in parallel. Text rule
+// masks are computed once per distinct rule-table match signature, so candidates that only change weights or
+// thresholds never touch the strings again.
+final class ScoringSimulator {
+
+    static final int SCOPE_CATALOG = 0;
+    static final int SCOPE_HISTORY = 1;
+    private static final String[] SCOPES = {"catalog", "history"};
+    private static final byte FLAG_SINGLE_USE = 1;
+    private static final byte FLAG_REUSABLE = 2;
+    private static final byte FLAG_NATURE_POSITIVE = 4;
+    private static final int MISSING_ECO_SCORE = Integer.MIN_VALUE;
+    private static final int CHUNK_SIZE = 16_384;
+
+    private final int size;
+    private final byte[] scopes;
+    private final long[] weights;
+    private final int[] catalogEcoScores;
+    private final double[] co2Ranks;
+    private final byte[] flags;
+    private final int[] recycledContents;
+    private final String[] lifecycles;
+    private final String[] materialContexts;
+    private final String[] recyclabilities;
+    private final DoubleUnaryOperator co2Rank;
+    private final boolean co2DistributionEmpty;
+
+    private ScoringSimulator(Builder builder) {
+        this.size = builder.size;
+        this.scopes = Arrays.copyOf(builder.scopes, size);
+        this.weights = Arrays.copyOf(builder.weights, size);
+        this.catalogEcoScores = Arrays.copyOf(builder.catalogEcoScores, size);
+        this.co2Ranks = Arrays.copyOf(builder.co2Ranks, size);
+        this.flags = Arrays.copyOf(builder.flags, size);
+        this.recycledContents = Arrays.copyOf(builder.recycledContents, size);
+        this.lifecycles = Arrays.copyOf(builder.lifecycles, size);
+        this.materialContexts = Arrays.copyOf(builder.materialContexts, size);
+        this.recyclabilities = Arrays.copyOf(builder.recyclabilities, size);
+        this.co2Rank = builder.co2Rank;
+        this.co2DistributionEmpty = builder.co2DistributionEmpty;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // The first candidate is the baseline every delta is measured against.
+    Map<String, Object> simulate(List<Candidate> candidates, int bucketWidth, int[] thresholds) {
+        long startedNanos = System.nanoTime();
+        List<Plan> plans = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            plans.add(plan(candidate, plans));
+        }
+        int low = Integer.MAX_VALUE;
+        int high = Integer.MIN_VALUE;
+        for (Plan plan : plans) {
+            low = Math.min(low, plan.scoring().minScore());
+            high = Math.max(high, plan.scoring().maxScore());
+        }
+        int width = Math.max(1, bucketWidth);
+        Layout layout = new Layout(plans.size(), (high - low) / width + 1, thresholds.length, low, width);
+
+        int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        Tally tally = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> tallyChunk(plans, layout, thresholds, chunk * CHUNK_SIZE,
+                        Math.min(size, (chunk + 1) * CHUNK_SIZE)))
+                .reduce(Tally::merge)
+                .orElseGet(() -> new Tally(layout));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rows", size);
+        result.put("bucketWidth", width);
+        result.put("thresholds", thresholds);
+        List<Map<String, Object>> candidateResults = new ArrayList<>(plans.size());
+        for (int c = 0; c < plans.size(); c++) {
+            Map<String, Object> candidateResult = new LinkedHashMap<>();
+            candidateResult.put("name", plans.get(c).name());
+            candidateResult.put("scoringVersion", plans.get(c).scoring().version());
+            Map<String, Object> scopeResults = new LinkedHashMap<>();
+            for (int scope = 0; scope < SCOPES.length; scope++) {
+                scopeResults.put(SCOPES[scope], scopeResult(tally, layout, thresholds, scope, c));
+            }
+            candidateResult.put("scopes", scopeResults);
+            candidateResults.add(candidateResult);
+        }
+        result.put("candidates", candidateResults);
+        result.put("elapsedMs", (System.nanoTime() - startedNanos) / 1_000_000L);
+        return result;
+    }
+
+    private Map<String, Object> scopeResult(Tally tally, Layout layout, int[] thresholds, int scope, int candidate) {
+        long total = tally.totals[scope];
+        int cell = layout.cell(scope, candidate);
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("weightedRows", total);
+        out.put("meanScore", total == 0 ? 0.0 : roundTwoDecimals((double) tally.scoreSums[cell] / total));
+        out.put("meanShift", total == 0 ? 0.0 : roundTwoDecimals((double) tally.shiftSums[cell] / total));
+        out.put("changedFromBaseline", tally.changed[cell]);
+        List<Map<String, Object>> histogram = new ArrayList<>(layout.buckets);
+        for (int bucket = 0; bucket < layout.buckets; bucket++) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("from", layout.low + bucket * layout.width);
+            entry.put("to", layout.low + (bucket + 1) * layout.width - 1);
+            entry.put("count", tally.histograms[cell * layout.buckets + bucket]);
+            histogram.add(entry);
+        }
+        out.put("histogram", histogram);
+        Map<String, Object> below = new LinkedHashMap<>();
+        int baselineCell = layout.cell(scope, 0);
+        for (int t = 0; t < thresholds.length; t++) {
+            long count = tally.below[cell * thresholds.length + t];
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("count", count);
+            entry.put("delta", count - tally.below[baselineCell * thresholds.length + t]);
+            below.put(String.valueOf(thresholds[t]), entry);
+        }
+        out.put("belowThreshold", below);
+        return out;
+    }
+
+    private Tally tallyChunk(List<Plan> plans, Layout layout, int[] thresholds, int from, int to) {
+        Tally tally = new Tally(layout);
+        int candidates = plans.size();
+        int[] scores = new int[candidates];
+        for (int row = from; row < to; row++) {
+            int scope = scopes[row];
+            long weight = weights[row];
+            tally.totals[scope] += weight;
+            for (int c = 0; c < candidates; c++) {
+                scores[c] = score(plans.get(c), row);
+            }
+            for (int c = 0; c < candidates; c++) {
+                int score = scores[c];
+                int cell = layout.cell(scope, c);
+                tally.scoreSums[cell] += weight * score;
+                tally.shiftSums[cell] += weight * (score - scores[0]);
+                if (score != scores[0]) {
+                    tally.changed[cell] += weight;
+                }
+                tally.histograms[cell * layout.buckets + (score - layout.low) / layout.width] += weight;
+                for (int t = 0; t < thresholds.length; t++) {
+                    if (score < thresholds[t]) {
+                        tally.below[cell * thresholds.length + t] += weight;
+                    }
+                }
+            }
+        }
+        return tally;
+    }
+
+    // Mirrors ProductService.rateProduct and computeCo2Score term for term, so the baseline reproduces live scores.
+    private int score(Plan plan, int row) {
+        ScoringSnapshot scoring = plan.scoring();
+        int minScore = scoring.minScore();
+        int maxScore = scoring.maxScore();
+        int catalogEcoScore = catalogEcoScores[row] == MISSING_ECO_SCORE ? scoring.defaultCatalogEcoScore() : catalogEcoScores[row];
+        int co2Score;
+        if (co2DistributionEmpty) {
+            co2Score = scoring.defaultCo2Score();
+        } else {
+            double percentileRank = Double.isNaN(co2Ranks[row]) ? plan.defaultCo2Rank() : co2Ranks[row];
+            double normalized = Math.max(0.0, Math.min(1.0, (percentileRank - scoring.co2LowerPercentile())
+                    / (scoring.co2UpperPercentile() - scoring.co2LowerPercentile())));
+            co2Score = (int) Math.round(minScore + ((1.0 - normalized) * (maxScore - minScore)));
+            co2Score = Math.max(minScore, Math.min(maxScore, co2Score));
+        }
+        byte rowFlags = flags[row];
+        boolean reusable = (rowFlags & FLAG_REUSABLE) != 0;
+        double score = scoring.catalogWeight() * catalogEcoScore
+                + scoring.co2Weight() * co2Score
+                + scoring.ruleTable().adjustment(plan.textMasks()[row], (rowFlags & FLAG_SINGLE_USE) != 0, reusable,
+                recycledContents[row]);
+        if (reusable || score >= scoring.greenerAlternativeThreshold() || (rowFlags & FLAG_NATURE_POSITIVE) != 0) {
+            score += scoring.greenerAlternativeBoost();
+        }
+        return Math.max(minScore, Math.min(maxScore, (int) Math.round(score)));
+    }
+
+    private Plan plan(Candidate candidate, List<Plan> earlier) {
+        ScoringSnapshot scoring = candidate.scoring();
+        ScoringRuleTable table = scoring.ruleTable();
+        long[] textMasks = null;
+        for (Plan plan : earlier) {
+            if (plan.scoring().ruleTable().sameMatching(table)) {
+                textMasks = plan.textMasks();
+                break;
+            }
+        }
+        if (textMasks == null) {
+            textMasks = new long[size];
+            for (int row = 0; row < size; row++) {
+                textMasks[row] = table.matchText(lifecycles[row], materialContexts[row], recyclabilities[row]);
+            }
+        }
+        return new Plan(
+                candidate.name(),
+                scoring,
+                textMasks,
+                co2DistributionEmpty ? 0.0 : co2Rank.applyAsDouble(scoring.defaultCarbonImpactGram())
+        );
+    }
+
+    private static double roundTwoDecimals(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    record Candidate(String name, ScoringSnapshot scoring) {
+    }
+
+    private record Plan(String name, ScoringSnapshot scoring, long[] textMasks, double defaultCo2Rank) {
+    }
+
+    private record Layout(int candidates, int buckets, int thresholds, int low, int width) {
+
+        int cell(int scope, int candidate) {
+            return scope * candidates + candidate;
+        }
+    }
+
+    private static final class Tally {
+
+        private final long[] totals = new long[SCOPES.length];
+        private final long[] scoreSums;
+        private final long[] shiftSums;
+        private final long[] changed;
+        private final long[] histograms;
+        private final long[] below;
+
+        private Tally(Layout layout) {
+            int cells = SCOPES.length * layout.candidates();
+            this.scoreSums = new long[cells];
+            this.shiftSums = new long[cells];
+            this.changed = new long[cells];
+            this.histograms = new long[cells * layout.buckets()];
+            this.below = new long[cells * layout.thresholds()];
+        }
+
+        private Tally merge(Tally other) {
+            add(totals, other.totals);
+            add(scoreSums, other.scoreSums);
+            add(shiftSums, other.shiftSums);
+            add(changed, other.changed);
+            add(histograms, other.histograms);
+            add(below, other.below);
+            return this;
+        }
+
+        private static void add(long[] into, long[] from) {
+            for (int i = 0; i < into.length; i++) {
+                into[i] += from[i];
+            }
+        }
+    }
+
+    static final class Builder {
+
+        private final DoubleUnaryOperator co2Rank;
+        private final boolean co2DistributionEmpty;
+        private int size;
+        private byte[] scopes = new byte[64];
+        private long[] weights = new long[64];
+        private int[] catalogEcoScores = new int[64];
+        private double[] co2Ranks = new double[64];
+        private byte[] flags = new byte[64];
+        private int[] recycledContents = new int[64];
+        private String[] lifecycles = new String[64];
+        private String[] materialContexts = new String[64];
+        private String[] recyclabilities = new String[64];
+
+        // co2Rank maps grams to the percentile rank the live normalization would use.
+        Builder(DoubleUnaryOperator co2Rank, boolean co2DistributionEmpty) {
+            this.co2Rank = co2Rank;
+            this.co2DistributionEmpty = co2DistributionEmpty;
+        }
+
+        // catalogEcoScore and co2Gram are the stored values; null means the candidate's default applies.
+        synchronized void add(
+                int scope,
+                long weight,
+                Integer catalogEcoScore,
+                Double co2Gram,
+                boolean singleUse,
+                boolean reusable,
+                boolean naturePositive,
+                String lifecycle,
+                String materialContext,
+                String recyclability,
+                int recycledContent
+        ) {
+            if (size == scopes.length) {
+                int capacity = size * 2;
+                scopes = Arrays.copyOf(scopes, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+                catalogEcoScores = Arrays.copyOf(catalogEcoScores, capacity);
+                co2Ranks = Arrays.copyOf(co2Ranks, capacity);
+                flags = Arrays.copyOf(flags, capacity);
+                recycledContents = Arrays.copyOf(recycledContents, capacity);
+                lifecycles = Arrays.copyOf(lifecycles, capacity);
+                materialContexts = Arrays.copyOf(materialContexts, capacity);
+                recyclabilities = Arrays.copyOf(recyclabilities, capacity);
+            }
+            scopes[size] = (byte) scope;
+            weights[size] = weight;
+            catalogEcoScores[size] = catalogEcoScore == null ? MISSING_ECO_SCORE : catalogEcoScore;
+            co2Ranks[size] = co2Gram == null || co2DistributionEmpty ? Double.NaN : co2Rank.applyAsDouble(co2Gram);
+            flags[size] = (byte) ((singleUse ? FLAG_SINGLE_USE : 0) | (reusable ? FLAG_REUSABLE : 0)
+                    | (naturePositive ? FLAG_NATURE_POSITIVE : 0));
+            recycledContents[size] = recycledContent;
+            lifecycles[size] = lifecycle;
+            materialContexts[size] = materialContext;
+            recyclabilities[size] = recyclability;
+            size++;
+        }
+
+        ScoringSimulator build() {
+            return new ScoringSimulator(this);
+        }
+    }
+}
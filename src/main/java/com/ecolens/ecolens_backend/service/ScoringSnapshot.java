@@ -0,0 +1,97 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.ecolens.ecolens_backend.config.ScoringProperties;
+
+// Immutable, validated copy of scoring.* with the feature rules already compiled. ProductService publishes one
+// through an AtomicReference and every rating captures a single instance, so a reload never mixes two configs
+// within one request. Cached ratings remember the instance they were computed with.
+record ScoringSnapshot(
+        String version,
+        int minScore,
+        int maxScore,
+        int defaultCatalogEcoScore,
+        int defaultCo2Score,
+        double defaultCarbonImpactGram,
+        double catalogWeight,
+        double co2Weight,
+        int greenerAlternativeBoost,
+        int greenerAlternativeThreshold,
+        int highImpactThreshold,
+        int moderateImpactThreshold,
+        int historyGreenerThreshold,
+        double co2LowerPercentile,
+        double co2UpperPercentile,
+        boolean co2SketchMode,
+        ScoringRuleTable ruleTable
+) {
+
+    static ScoringSnapshot of(ScoringProperties properties) {
+        String version = properties.getVersion() == null ? "" : properties.getVersion().trim();
+        require(!version.isEmpty(), "scoring.version must not be blank");
+        require(properties.getMinScore() < properties.getMaxScore(), "scoring.min-score must be below scoring.max-score");
+        require(isWeight(properties.getCatalogWeight()), "scoring.catalog-weight must be a finite non-negative number");
+        require(isWeight(properties.getCo2Weight()), "scoring.co2-weight must be a finite non-negative number");
+        require(isWeight(properties.getDefaultCarbonImpactGram()),
+                "scoring.default-carbon-impact-gram must be a finite non-negative number");
+        require(properties.getHighImpactThreshold() <= properties.getModerateImpactThreshold(),
+                "scoring.high-impact-threshold must not exceed scoring.moderate-impact-threshold");
+        ScoringProperties.Co2Normalization normalization = properties.getCo2Normalization();
+        double lower = normalization.getLowerPercentile();
+        double upper = normalization.getUpperPercentile();
+        require(lower >= 0.0 && upper <= 1.0 && lower < upper,
+                "scoring.co2-normalization percentiles must satisfy 0 <= lower < upper <= 1");
+        String mode = normalization.getMode() == null ? "exact" : normalization.getMode().trim().toLowerCase(Locale.ROOT);
+        require("exact".equals(mode) || "sketch".equals(mode), "scoring.co2-normalization.mode must be exact or sketch");
+
+        return new ScoringSnapshot(
+                version,
+                properties.getMinScore(),
+                properties.getMaxScore(),
+                properties.getDefaultCatalogEcoScore(),
+                properties.getDefaultCo2Score(),
+                properties.getDefaultCarbonImpactGram(),
+                properties.getCatalogWeight(),
+                properties.getCo2Weight(),
+                properties.getGreenerAlternativeBoost(),
+                properties.getGreenerAlternativeThreshold(),
+                properties.getHighImpactThreshold(),
+                properties.getModerateImpactThreshold(),
+                properties.getHistoryGreenerThreshold(),
+                lower,
+                upper,
+                "sketch".equals(mode),
+                ScoringRuleTable.compile(properties)
+        );
+    }
+
+    Map<String, Object> describe() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("version", version);
+        out.put("minScore", minScore);
+        out.put("maxScore", maxScore);
+        out.put("catalogWeight", catalogWeight);
+        out.put("co2Weight", co2Weight);
+        out.put("greenerAlternativeThreshold", greenerAlternativeThreshold);
+        out.put("greenerAlternativeBoost", greenerAlternativeBoost);
+        out.put("highImpactThreshold", highImpactThreshold);
+        out.put("moderateImpactThreshold", moderateImpactThreshold);
+        out.put("co2Normalization", co2SketchMode ? "sketch" : "exact");
+        out.put("co2Percentiles", new double[] {co2LowerPercentile, co2UpperPercentile});
+        out.put("featureRules", ruleTable.size());
+        return out;
+    }
+
+    private static boolean isWeight(double value) {
+        return Double.isFinite(value) && value >= 0.0;
+    }
+
+    private static void require(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException("Invalid scoring configuration: " + message);
+        }
+    }
+}
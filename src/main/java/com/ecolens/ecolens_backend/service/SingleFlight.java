@@ -0,0 +1,85 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Runs at most one call per key at a time; concurrent callers for the same key wait for the first caller's
+// outcome and share it, including its exception. With a share window the completed outcome keeps being handed
+// out for that long, so a burst that arrives just after the call finished does not trigger another one.
+final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final long shareWindowNanos;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    SingleFlight(long shareWindowMillis) {
+        this.shareWindowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, shareWindowMillis));
+    }
+
+    V execute(K key, Supplier<V> call) {
+        while (true) {
+            Flight<V> flight = new Flight<>();
+            Flight<V> existing = flights.putIfAbsent(key, flight);
+            if (existing == null) {
+                return lead(key, flight, call);
+            }
+            if (existing.expired(System.nanoTime(), shareWindowNanos)) {
+                flights.remove(key, existing);
+                continue;
+            }
+            shared.increment();
+            try {
+                return existing.result.join();
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+            }
+        }
+    }
+
+    int inFlight() {
+        return (int) flights.values().stream().filter(flight -> !flight.result.isDone()).count();
+    }
+
+    long calls() {
+        return calls.sum();
+    }
+
+    long shared() {
+        return shared.sum();
+    }
+
+    private V lead(K key, Flight<V> flight, Supplier<V> call) {
+        calls.increment();
+        try {
+            V value = call.get();
+            flight.completedAtNanos = System.nanoTime();
+            flight.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            flight.completedAtNanos = System.nanoTime();
+            flight.result.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            if (shareWindowNanos == 0L) {
+                flights.remove(key, flight);
+            } else {
+                long now = System.nanoTime();
+                flights.values().removeIf(other -> other.expired(now, shareWindowNanos));
+            }
+        }
+    }
+
+    private static final class Flight<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private volatile long completedAtNanos;
+
+        boolean expired(long now, long windowNanos) {
+            return result.isDone() && now - completedAtNanos >= windowNanos;
+        }
+    }
+}
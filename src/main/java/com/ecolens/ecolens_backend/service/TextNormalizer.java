@@ -0,0 +1,128 @@
+package com.ecolens.ecolens_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// Single-pass replacement for the lowercase + "[^a-z0-9]+" -> separator + trim + collapse regex chains.
+// Already-normalized input is returned as-is, and the scratch buffer is reused per thread, so the only
+// allocation on the slow path is the result string.
+final class TextNormalizer {
+
+    private static final int INTERN_CAPACITY = 1024;
+    private static final int INTERN_MAX_LENGTH = 64;
+    private static final int MAX_SCRATCH_LENGTH = 4096;
+    // Raw input -> canonical normalized instance, plus each normalized form mapped to itself so every raw
+    // spelling shares one canonical string. A hit on the raw input skips normalization entirely. The size
+    // bound uses Caffeine's frequency-aware admission: a stream of one-off labels cannot push out recurring ones.
+    private static final Cache<String, String> INTERNED = Caffeine.newBuilder()
+            .maximumSize(INTERN_CAPACITY)
+            .executor(Runnable::run)
+            .build();
+    private static final ThreadLocal<char[]> SCRATCH = ThreadLocal.withInitial(() -> new char[128]);
+
+    private TextNormalizer() {
+    }
+
+    static String normalize(String text) {
+        return normalize(text, ' ', "");
+    }
+
+    static String normalize(String text, char separator) {
+        return normalize(text, separator, "");
+    }
+
+    // keptPunctuation lists non-alphanumeric characters that survive as-is (e.g. "-/" for vision labels).
+    static String normalize(String text, char separator, String keptPunctuation) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        if (isNormalized(text, separator, keptPunctuation)) {
+            return text;
+        }
+        int length = text.length();
+        char[] buffer = length <= MAX_SCRATCH_LENGTH ? scratch(length) : new char[length];
+        int written = 0;
+        boolean pendingSeparator = false;
+        for (int i = 0; i < length; i++) {
+            char value = lower(text.charAt(i));
+            if (isKept(value, keptPunctuation)) {
+                if (pendingSeparator && written > 0) {
+                    buffer[written++] = separator;
+                }
+                pendingSeparator = false;
+                buffer[written++] = value;
+            } else {
+                pendingSeparator = true;
+            }
+        }
+        return new String(buffer, 0, written);
+    }
+
+    // Same as normalize(text), but frequent short labels share one canonical instance.
+    static String normalizeInterned(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        if (text.length() > INTERN_MAX_LENGTH) {
+            return normalize(text);
+        }
+        String cached = INTERNED.getIfPresent(text);
+        if (cached != null) {
+            // An alias hit also credits its canonical entry, re-adding it if admission dropped it; otherwise only
+            // the alias gains frequency and the next spelling of the label creates a second instance.
+            if (cached != text && INTERNED.getIfPresent(cached) == null) {
+                INTERNED.asMap().putIfAbsent(cached, cached);
+            }
+            return cached;
+        }
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return normalized;
+        }
+        String canonical = INTERNED.get(normalized, key -> key);
+        if (!text.equals(canonical)) {
+            INTERNED.put(text, canonical);
+        }
+        return canonical;
+    }
+
+    private static boolean isNormalized(String text, char separator, String keptPunctuation) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char value = text.charAt(i);
+            if (value == separator) {
+                if (i == 0 || i == length - 1 || text.charAt(i - 1) == separator) {
+                    return false;
+                }
+            } else if (!isKept(value, keptPunctuation)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isKept(char value, String keptPunctuation) {
+        return (value >= 'a' && value <= 'z')
+                || (value >= '0' && value <= '9')
+                || (!keptPunctuation.isEmpty() && keptPunctuation.indexOf(value) >= 0);
+    }
+
+    private static char lower(char value) {
+        if (value >= 'A' && value <= 'Z') {
+            return (char) (value + ('a' - 'A'));
+        }
+        if (value < 128) {
+            return value;
+        }
+        return Character.toLowerCase(value);
+    }
+
+    private static char[] scratch(int length) {
+        char[] buffer = SCRATCH.get();
+        if (buffer.length < length) {
+            buffer = new char[Math.max(length, buffer.length * 2)];
+            SCRATCH.set(buffer);
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Append-only token -> int id dictionary shared by every catalog entry. Token sets are stored as sorted,
+// de-duplicated int[] so set similarity is a merge over primitive arrays. Ids are never reused, so arrays
+// built against an older state of the vocabulary stay valid.
+final class TokenVocabulary {
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    int size() {
+        return ids.size();
+    }
+
+    int[] intern(String[] tokens) {
+        int[] out = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            out[i] = ids.computeIfAbsent(tokens[i], ignored -> nextId.getAndIncrement());
+        }
+        return sortedDistinct(out);
+    }
+
+    // Tokens not in the vocabulary get distinct negative ids: they never intersect a catalog token set but
+    // still count towards the union.
+    int[] lookup(String[] tokens) {
+        int[] out = new int[tokens.length];
+        int unknown = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            Integer id = ids.get(tokens[i]);
+            out[i] = id == null ? -(++unknown) : id;
+        }
+        return sortedDistinct(out);
+    }
+
+    static int intersectionSize(int[] left, int[] right) {
+        int i = 0;
+        int j = 0;
+        int shared = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] == right[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (left[i] < right[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return shared;
+    }
+
+    static double jaccard(int[] left, int[] right) {
+        if (left.length == 0 || right.length == 0) {
+            return 0.0;
+        }
+        int intersection = intersectionSize(left, right);
+        return (double) intersection / (left.length + right.length - intersection);
+    }
+
+    private static int[] sortedDistinct(int[] values) {
+        if (values.length < 2) {
+            return values;
+        }
+        Arrays.sort(values);
+        int write = 1;
+        for (int read = 1; read < values.length; read++) {
+            if (values[read] != values[write - 1]) {
+                values[write++] = values[read];
+            }
+        }
+        return write == values.length ? values : Arrays.copyOf(values, write);
+    }
+}
@@ -14,7 +14,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,7 +40,6 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 public class TrainingDataService {
 
     private static final Logger log = LoggerFactory.getLogger(TrainingDataService.class);
-    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
     private static final int DEFAULT_LIMIT = 200;
     private static final int MAX_LIMIT = 5000;
     private static final String TAXONOMY_RESOURCE_PATH = "classpath:taxonomy/ecolens-taxonomy-v1.json";
@@ -121,6 +120,18 @@ public class TrainingDataService {
         return taxonomyRoot.deepCopy();
     }
 
+    public Set<String> taxonomyTerms() {
+        return taxonomyLeafByTerm.keySet();
+    }
+
+    public Map<String, String> taxonomyLeafLabelsByTerm() {
+        Map<String, String> out = new HashMap<>();
+        for (Map.Entry<String, TaxonomyLeaf> entry : taxonomyLeafByTerm.entrySet()) {
+            out.put(entry.getKey(), entry.getValue().label());
+        }
+        return out;
+    }
+
     public TrainingSampleResponse saveSample(TrainingSampleRequest request) {
         String predictedLabel = safeText(request.getPredictedLabel());
         String finalLabel = safeText(request.getFinalLabel());
@@ -380,11 +391,7 @@ public class TrainingDataService {
     }
 
     private String normalizeTerm(String text) {
-        if (text == null) {
-            return "";
-        }
-        String normalized = NON_ALPHANUMERIC.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
-        return normalized.replaceAll("\\s+", " ");
+        return TextNormalizer.normalizeInterned(text);
     }
 
     private String normalizeLeafId(String text) {
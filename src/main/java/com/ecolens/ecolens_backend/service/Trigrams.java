@@ -0,0 +1,110 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.util.Arrays;
+
+// Character trigram signatures over normalized labels ([a-z0-9] separated by single spaces).
+// Each trigram is packed into an int so signatures are sorted primitive arrays and postings can be
+// addressed directly by code.
+final class Trigrams {
+
+    private static final int ALPHABET = 37;
+    static final int CODE_SPACE = ALPHABET * ALPHABET * ALPHABET;
+    static final int[] EMPTY = new int[0];
+
+    private Trigrams() {
+    }
+
+    static int[] signature(String normalized) {
+        if (normalized == null || normalized.isBlank()) {
+            return EMPTY;
+        }
+        // Pad with a boundary symbol on both sides so word starts and ends carry their own trigrams.
+        int length = normalized.length();
+        int[] padded = new int[length + 2];
+        for (int i = 0; i < length; i++) {
+            padded[i + 1] = symbol(normalized.charAt(i));
+        }
+        int[] codes = new int[length];
+        for (int i = 0; i < length; i++) {
+            codes[i] = (padded[i] * ALPHABET + padded[i + 1]) * ALPHABET + padded[i + 2];
+        }
+        Arrays.sort(codes);
+        return dedupeSorted(codes);
+    }
+
+    static int[][] tokenSignatures(String[] tokens) {
+        int[][] out = new int[tokens.length][];
+        for (int i = 0; i < tokens.length; i++) {
+            out[i] = signature(tokens[i]);
+        }
+        return out;
+    }
+
+    static int sharedCount(int[] left, int[] right) {
+        int i = 0;
+        int j = 0;
+        int shared = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] == right[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (left[i] < right[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return shared;
+    }
+
+    static double dice(int[] left, int[] right) {
+        if (left.length == 0 || right.length == 0) {
+            return 0.0;
+        }
+        return (2.0 * sharedCount(left, right)) / (left.length + right.length);
+    }
+
+    // Every label token must be approximately present in the candidate, so one strong token cannot
+    // carry an unrelated label ("bottle opener" must not resolve to "plastic bottle").
+    static double tokenAlignedScore(int[][] labelTokens, int[][] candidateTokens) {
+        if (labelTokens.length == 0 || candidateTokens.length == 0) {
+            return 0.0;
+        }
+        double weakest = 1.0;
+        for (int[] labelToken : labelTokens) {
+            double best = 0.0;
+            for (int[] candidateToken : candidateTokens) {
+                best = Math.max(best, dice(labelToken, candidateToken));
+            }
+            weakest = Math.min(weakest, best);
+            if (weakest == 0.0) {
+                return 0.0;
+            }
+        }
+        return weakest;
+    }
+
+    private static int symbol(char value) {
+        if (value >= 'a' && value <= 'z') {
+            return 1 + (value - 'a');
+        }
+        if (value >= '0' && value <= '9') {
+            return 27 + (value - '0');
+        }
+        return 0;
+    }
+
+    private static int[] dedupeSorted(int[] sorted) {
+        if (sorted.length < 2) {
+            return sorted;
+        }
+        int write = 1;
+        for (int read = 1; read < sorted.length; read++) {
+            if (sorted[read] != sorted[write - 1]) {
+                sorted[write++] = sorted[read];
+            }
+        }
+        return write == sorted.length ? sorted : Arrays.copyOf(sorted, write);
+    }
+}
@@ -0,0 +1,227 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.awt.image.BufferedImage;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+// Labels detected for recent images, keyed by the SHA-256 of the image bytes and, when the image decodes, by a
+// 64-bit difference hash (dHash) of its 9x8 grayscale thumbnail. A re-upload hits the exact key; a re-shot of
+// the same object usually lands within a few bits of a cached dHash. Near matches are found through
+// multi-index hashing: the hash is split into eight bytes, so any hash within maxDistance (< 8) bits shares at
+// least one byte at the same position with the query, and only those bucket entries are compared.
+final class VisionLabelCache {
+
+    private static final int BANDS = 8;
+    private static final int GRID_WIDTH = 9;
+    private static final int GRID_HEIGHT = 8;
+    private static final int SAMPLES_PER_CELL_SIDE = 8;
+    private static final int MIN_HASH_BITS = 4;
+
+    private final Cache<String, String> byContent;
+    private final Cache<Long, String> byPerceptual;
+    private final ConcurrentHashMap<Integer, Set<Long>> bands = new ConcurrentHashMap<>();
+    private final int maxDistance;
+    private final LongAdder exactHits = new LongAdder();
+    private final LongAdder perceptualHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder undecodable = new LongAdder();
+
+    VisionLabelCache(long maximumSize, long ttlMillis, int maxDistance) {
+        this.maxDistance = Math.max(0, Math.min(BANDS - 1, maxDistance));
+        Duration ttl = Duration.ofMillis(Math.max(1L, ttlMillis));
+        this.byContent = Caffeine.newBuilder()
+                .maximumSize(Math.max(1L, maximumSize))
+                .expireAfterWrite(ttl)
+                .build();
+        this.byPerceptual = Caffeine.newBuilder()
+                .maximumSize(Math.max(1L, maximumSize))
+                .expireAfterWrite(ttl)
+                .executor(Runnable::run)
+                .removalListener((Long hash, String label, RemovalCause cause) -> {
+                    if (hash != null && cause != RemovalCause.REPLACED) {
+                        unindex(hash);
+                    }
+                })
+                .build();
+    }
+
+    // The exact key only, so a re-upload can be answered before the image is decoded.
+    Fingerprint contentFingerprint(byte[] imageBytes) {
+        return new Fingerprint(sha256(imageBytes), null);
+    }
+
+    // Adds the perceptual hash once the caller has decoded the image through ImagePreprocessor.decode, which
+    // guards untrusted uploads; image is null when the upload could not or would not be decoded.
+    Fingerprint withImage(Fingerprint fingerprint, BufferedImage image) {
+        Long perceptual = null;
+        if (image != null) {
+            long hash = dHash(image);
+            int bits = Long.bitCount(hash);
+            // Flat or near-flat images hash to (almost) all zeros or ones and would match each other.
+            if (bits >= MIN_HASH_BITS && bits <= Long.SIZE - MIN_HASH_BITS) {
+                perceptual = hash;
+            }
+        } else {
+            undecodable.increment();
+        }
+        return new Fingerprint(fingerprint.contentHash(), perceptual);
+    }
+
+    // Counts a hit but not a miss, since a miss here is followed by a full lookup.
+    Optional<String> lookupExact(Fingerprint fingerprint) {
+        String label = byContent.getIfPresent(fingerprint.contentHash());
+        if (label != null) {
+            exactHits.increment();
+        }
+        return Optional.ofNullable(label);
+    }
+
+    Optional<String> lookup(Fingerprint fingerprint) {
+        String label = byContent.getIfPresent(fingerprint.contentHash());
+        if (label != null) {
+            exactHits.increment();
+            return Optional.of(label);
+        }
+        if (fingerprint.perceptualHash() != null) {
+            label = nearest(fingerprint.perceptualHash());
+            if (label != null) {
+                perceptualHits.increment();
+                return Optional.of(label);
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    void put(Fingerprint fingerprint, String label) {
+        if (label == null || label.isBlank()) {
+            return;
+        }
+        byContent.put(fingerprint.contentHash(), label);
+        Long hash = fingerprint.perceptualHash();
+        if (hash != null) {
+            // Indexed before the insert: the removal listener runs inline, so if the insert evicts this very
+            // entry, its unindex then finds the band postings and removes them instead of leaving them behind.
+            for (int band = 0; band < BANDS; band++) {
+                bands.computeIfAbsent(bandKey(hash, band), ignored -> ConcurrentHashMap.newKeySet()).add(hash);
+            }
+            byPerceptual.put(hash, label);
+        }
+    }
+
+    Map<String, Object> stats() {
+        byPerceptual.cleanUp();
+        long hits = exactHits.sum() + perceptualHits.sum();
+        long lookups = hits + misses.sum();
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("size", byContent.estimatedSize());
+        out.put("perceptualSize", byPerceptual.estimatedSize());
+        out.put("bandPostings", bands.values().stream().mapToLong(Set::size).sum());
+        out.put("maxHammingDistance", maxDistance);
+        out.put("exactHits", exactHits.sum());
+        out.put("perceptualHits", perceptualHits.sum());
+        out.put("misses", misses.sum());
+        out.put("hitRate", lookups == 0 ? 0.0 : Math.round(hits * 1000.0 / lookups) / 1000.0);
+        out.put("undecodableImages", undecodable.sum());
+        return out;
+    }
+
+    // Each bit compares the mean luminance of horizontally adjacent cells in a 9x8 grid over the image.
+    static long dHash(BufferedImage image) {
+        double[][] cells = new double[GRID_HEIGHT][GRID_WIDTH];
+        int width = image.getWidth();
+        int height = image.getHeight();
+        for (int row = 0; row < GRID_HEIGHT; row++) {
+            for (int column = 0; column < GRID_WIDTH; column++) {
+                cells[row][column] = cellLuminance(image, width * column / GRID_WIDTH, width * (column + 1) / GRID_WIDTH,
+                        height * row / GRID_HEIGHT, height * (row + 1) / GRID_HEIGHT);
+            }
+        }
+        long hash = 0L;
+        for (int row = 0; row < GRID_HEIGHT; row++) {
+            for (int column = 0; column < GRID_WIDTH - 1; column++) {
+                hash <<= 1;
+                if (cells[row][column] < cells[row][column + 1]) {
+                    hash |= 1L;
+                }
+            }
+        }
+        return hash;
+    }
+
+    private static double cellLuminance(BufferedImage image, int x0, int x1, int y0, int y1) {
+        int right = Math.max(x0 + 1, x1);
+        int bottom = Math.max(y0 + 1, y1);
+        int stepX = Math.max(1, (right - x0) / SAMPLES_PER_CELL_SIDE);
+        int stepY = Math.max(1, (bottom - y0) / SAMPLES_PER_CELL_SIDE);
+        double sum = 0.0;
+        int count = 0;
+        for (int y = y0; y < bottom && y < image.getHeight(); y += stepY) {
+            for (int x = x0; x < right && x < image.getWidth(); x += stepX) {
+                int rgb = image.getRGB(x, y);
+                sum += 0.299 * ((rgb >> 16) & 0xFF) + 0.587 * ((rgb >> 8) & 0xFF) + 0.114 * (rgb & 0xFF);
+                count++;
+            }
+        }
+        return count == 0 ? 0.0 : sum / count;
+    }
+
+    private String nearest(long hash) {
+        String bestLabel = null;
+        int bestDistance = maxDistance + 1;
+        for (int band = 0; band < BANDS; band++) {
+            Set<Long> candidates = bands.get(bandKey(hash, band));
+            if (candidates == null) {
+                continue;
+            }
+            for (long candidate : candidates) {
+                int distance = Long.bitCount(candidate ^ hash);
+                if (distance < bestDistance) {
+                    String label = byPerceptual.getIfPresent(candidate);
+                    if (label != null) {
+                        bestLabel = label;
+                        bestDistance = distance;
+                    }
+                }
+            }
+        }
+        return bestLabel;
+    }
+
+    private void unindex(long hash) {
+        for (int band = 0; band < BANDS; band++) {
+            int key = bandKey(hash, band);
+            bands.computeIfPresent(key, (ignored, members) -> {
+                members.remove(hash);
+                return members.isEmpty() ? null : members;
+            });
+        }
+    }
+
+    private static int bandKey(long hash, int band) {
+        return band << 8 | (int) ((hash >>> (band * 8)) & 0xFF);
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    record Fingerprint(String contentHash, Long perceptualHash) {
+    }
+}
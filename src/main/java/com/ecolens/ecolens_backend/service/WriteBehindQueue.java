@@ -0,0 +1,168 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Bounded queue drained by one daemon thread. Each pass writes whatever accumulated while the previous batch
+// was being written (up to batchSize), so batches grow with load instead of waiting on a timer. offer() returns
+// false when the queue is full; callers then write synchronously, which applies backpressure. A batch that
+// throws is queued again, after a short backoff, until its items have been tried maxAttempts times; items that
+// still fail (or find the queue full) are handed to onFailure.
+final class WriteBehindQueue<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindQueue.class);
+    private static final long POLL_MILLIS = 100L;
+    private static final long RETRY_BACKOFF_MILLIS = 100L;
+
+    private final String name;
+    private final BlockingQueue<Attempt<T>> queue;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Consumer<List<T>> writer;
+    private final Consumer<List<T>> onFailure;
+    private final Thread worker;
+    private final AtomicLong outstanding = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile boolean running = true;
+
+    WriteBehindQueue(
+            String name,
+            int capacity,
+            int batchSize,
+            int maxAttempts,
+            Consumer<List<T>> writer,
+            Consumer<List<T>> onFailure
+    ) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.writer = writer;
+        this.onFailure = onFailure;
+        this.worker = new Thread(this::drainLoop, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    boolean offer(T item) {
+        outstanding.incrementAndGet();
+        if (queue.offer(new Attempt<>(item, 1))) {
+            return true;
+        }
+        outstanding.decrementAndGet();
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    // Writes everything offered so far on the calling thread, including a batch the worker is still writing.
+    void flush() {
+        while (outstanding.get() > 0) {
+            List<Attempt<T>> batch = new ArrayList<>(batchSize);
+            queue.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            } else {
+                write(batch);
+            }
+        }
+    }
+
+    void shutdown() {
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    Map<String, Object> stats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("pending", queue.size());
+        out.put("capacity", queue.size() + queue.remainingCapacity());
+        out.put("batchSize", batchSize);
+        out.put("batches", batches.get());
+        out.put("written", written.get());
+        out.put("retried", retried.get());
+        out.put("failed", failed.get());
+        out.put("rejected", rejected.get());
+        return out;
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                Attempt<T> first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Attempt<T>> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void write(List<Attempt<T>> batch) {
+        batches.incrementAndGet();
+        try {
+            writer.accept(batch.stream().map(Attempt::item).toList());
+            written.addAndGet(batch.size());
+            outstanding.addAndGet(-batch.size());
+        } catch (RuntimeException ex) {
+            log.warn("Write-behind batch failed: queue={}, items={}, error={}", name, batch.size(), ex.getMessage());
+            retryOrAbandon(batch);
+        }
+    }
+
+    // Items stay outstanding while queued for another attempt, so flush() keeps waiting for them.
+    private void retryOrAbandon(List<Attempt<T>> batch) {
+        int attempt = batch.stream().mapToInt(Attempt::attempt).max().orElse(1);
+        if (attempt < maxAttempts) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(RETRY_BACKOFF_MILLIS * attempt));
+        }
+        List<T> abandoned = new ArrayList<>();
+        for (Attempt<T> item : batch) {
+            if (item.attempt() < maxAttempts && queue.offer(new Attempt<>(item.item(), item.attempt() + 1))) {
+                retried.incrementAndGet();
+            } else {
+                abandoned.add(item.item());
+            }
+        }
+        if (abandoned.isEmpty()) {
+            return;
+        }
+        failed.addAndGet(abandoned.size());
+        log.warn("Write-behind items abandoned: queue={}, items={}, maxAttempts={}", name, abandoned.size(), maxAttempts);
+        try {
+            onFailure.accept(abandoned);
+        } catch (RuntimeException ex) {
+            log.warn("Write-behind failure handler failed: queue={}, error={}", name, ex.getMessage());
+        } finally {
+            outstanding.addAndGet(-abandoned.size());
+        }
+    }
+
+    private record Attempt<T>(T item, int attempt) {
+    }
+}
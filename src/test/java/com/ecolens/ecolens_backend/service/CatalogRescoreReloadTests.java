@@ -0,0 +1,58 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.ecolens.ecolens_backend.model.Product;
+import com.ecolens.ecolens_backend.repository.ProductRepository;
+
+@SpringBootTest(properties = {"catalog.rescore.batch-size=1", "scoring.version=v-rescore-reload"})
+class CatalogRescoreReloadTests {
+
+    @Autowired
+    private CatalogRescoreService catalogRescoreService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void reloadDuringRescoreDoesNotMixScoresAcrossVersions() throws InterruptedException {
+        ScoringSnapshot started = productService.scoringSnapshot();
+        ScoringSnapshot reloaded = co2Only(started);
+
+        assertThat(catalogRescoreService.start().get("started")).isEqualTo(true);
+        productService.applyScoringSnapshot(reloaded);
+        Map<String, Object> status = catalogRescoreService.status();
+        for (int i = 0; i < 200 && "running".equals(status.get("state")); i++) {
+            Thread.sleep(50);
+            status = catalogRescoreService.status();
+        }
+
+        assertThat(status.get("state")).isEqualTo("completed");
+        List<Product> products = productRepository.findAll();
+        assertThat(products).allSatisfy(product -> {
+            assertThat(product.getRatedScoringVersion()).isEqualTo("v-rescore-reload");
+            assertThat(product.getRatedEcoScore()).isEqualTo(productService.rateStoredProduct(product, started));
+        });
+        // The reloaded config really rates differently, so a product rated with it would have been caught above.
+        assertThat(products).anySatisfy(product ->
+                assertThat(productService.rateStoredProduct(product)).isNotEqualTo(product.getRatedEcoScore()));
+    }
+
+    private static ScoringSnapshot co2Only(ScoringSnapshot base) {
+        return new ScoringSnapshot("v-rescore-reloaded", base.minScore(), base.maxScore(), base.defaultCatalogEcoScore(),
+                base.defaultCo2Score(), base.defaultCarbonImpactGram(), 0.0, 1.0, base.greenerAlternativeBoost(),
+                base.greenerAlternativeThreshold(), base.highImpactThreshold(), base.moderateImpactThreshold(),
+                base.historyGreenerThreshold(), base.co2LowerPercentile(), base.co2UpperPercentile(),
+                base.co2SketchMode(), base.ruleTable());
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.ecolens.ecolens_backend.model.Product;
+import com.ecolens.ecolens_backend.repository.ProductRepository;
+
+@SpringBootTest(properties = "catalog.rescore.batch-size=3")
+class CatalogRescoreServiceTests {
+
+    @Autowired
+    private CatalogRescoreService catalogRescoreService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void rescoreRatesEveryStoredProductAndSkipsUnchangedRowsOnRerun() throws InterruptedException {
+        Map<String, Object> first = runToCompletion();
+        long total = productRepository.count();
+
+        assertThat(first.get("state")).isEqualTo("completed");
+        assertThat(first.get("processed")).isEqualTo(total);
+        List<Product> products = productRepository.findAll();
+        assertThat(products).allSatisfy(product -> {
+            assertThat(product.getRatedScoringVersion()).isEqualTo(productService.scoringVersion());
+            assertThat(product.getRatedEcoScore()).isEqualTo(productService.rateStoredProduct(product));
+        });
+
+        Map<String, Object> second = runToCompletion();
+        assertThat(second.get("processed")).isEqualTo(total);
+        assertThat(second.get("updated")).isEqualTo(0L);
+    }
+
+    private Map<String, Object> runToCompletion() throws InterruptedException {
+        assertThat(catalogRescoreService.start().get("started")).isEqualTo(true);
+        Map<String, Object> status = catalogRescoreService.status();
+        for (int i = 0; i < 200 && "running".equals(status.get("state")); i++) {
+            Thread.sleep(50);
+            status = catalogRescoreService.status();
+        }
+        return status;
+    }
+}
@@ -0,0 +1,57 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class Co2DistributionTests {
+
+    @Test
+    void incrementalUpdatesMatchSortedListPercentileRank() {
+        Random random = new Random(7);
+        List<Double> reference = new ArrayList<>();
+        Co2Distribution distribution = Co2Distribution.of(List.of());
+        for (int step = 0; step < 500; step++) {
+            Double next = random.nextInt(10) == 0 ? null : (double) random.nextInt(40);
+            Double previous = reference.isEmpty() || random.nextBoolean()
+                    ? null
+                    : reference.get(random.nextInt(reference.size()));
+            if (previous != null) {
+                reference.remove(previous);
+            }
+            if (next != null) {
+                reference.add(next);
+            }
+            distribution = distribution.replace(previous, next);
+
+            Collections.sort(reference);
+            assertThat(distribution.size()).isEqualTo(reference.size());
+            for (double probe = -1.0; probe <= 41.0; probe += 2.5) {
+                assertThat(distribution.percentileRank(probe)).isEqualTo(referenceRank(reference, probe));
+            }
+        }
+    }
+
+    private static double referenceRank(List<Double> sorted, double value) {
+        if (sorted.size() < 2) {
+            return 0.5;
+        }
+        int lower = 0;
+        int upper = 0;
+        for (double sample : sorted) {
+            if (sample < value) {
+                lower++;
+            }
+            if (sample <= value) {
+                upper++;
+            }
+        }
+        double rank = upper > lower ? lower + ((upper - lower - 1) / 2.0) : lower;
+        return Math.max(0.0, Math.min(1.0, rank / (sorted.size() - 1.0)));
+    }
+}
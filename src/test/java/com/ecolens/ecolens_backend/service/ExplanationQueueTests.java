@@ -0,0 +1,122 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.ecolens.ecolens_backend.config.CatalogProperties;
+import com.ecolens.ecolens_backend.model.Product;
+
+class ExplanationQueueTests {
+
+    @Test
+    void duplicateSubmissionsShareOneGeneration() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        LLMService llmService = new LLMService(new MockEnvironment()) {
+            @Override
+            public String generateExplanation(Product product) {
+                calls.incrementAndGet();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return "Generated for " + product.getName();
+            }
+        };
+        List<String> saved = new CopyOnWriteArrayList<>();
+        ExplanationQueue queue = new ExplanationQueue(llmService, properties(),
+                (key, product) -> saved.add(key + "=" + product.getExplanation()));
+        try {
+            Product product = new Product();
+            product.setName("Paper Cup");
+
+            assertThat(queue.submit("id:1", product)).isEqualTo(ExplanationQueue.QUEUED);
+            assertThat(queue.submit("id:1", product)).isEqualTo(ExplanationQueue.ALREADY_QUEUED);
+            release.countDown();
+            awaitIdle(queue);
+
+            assertThat(calls.get()).isEqualTo(1);
+            assertThat(saved).containsExactly("id:1=Generated for Paper Cup");
+            assertThat(queue.stats()).containsEntry("generated", 1L).containsEntry("deduplicated", 1L);
+        } finally {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void fallbackIsNotRetriedBeforeRetryWindow() throws Exception {
+        LLMService llmService = new LLMService(new MockEnvironment().withProperty("llm.provider", "none"));
+        List<String> saved = new CopyOnWriteArrayList<>();
+        ExplanationQueue queue = new ExplanationQueue(llmService, properties(), (key, product) -> saved.add(key));
+        try {
+            Product product = new Product();
+            product.setName("Plastic Bottle");
+
+            assertThat(queue.submit("id:2", product)).isEqualTo(ExplanationQueue.QUEUED);
+            awaitIdle(queue);
+
+            assertThat(queue.submit("id:2", product)).isEqualTo(ExplanationQueue.RETRY_LATER);
+            assertThat(saved).isEmpty();
+            assertThat(queue.stats()).containsEntry("fallbacks", 1L);
+        } finally {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void storedExplanationIsNotRegeneratedWithinShareWindow() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        LLMService llmService = new LLMService(new MockEnvironment()) {
+            @Override
+            public String generateExplanation(Product product) {
+                calls.incrementAndGet();
+                return "Generated for " + product.getName();
+            }
+        };
+        CatalogProperties.Explanations properties = properties();
+        properties.setShareWindowMs(200L);
+        ExplanationQueue queue = new ExplanationQueue(llmService, properties, (key, product) -> { });
+        try {
+            // A scan that read the catalog before the save was published still submits the product without text.
+            Product product = new Product();
+            product.setName("Glass Jar");
+
+            assertThat(queue.submit("id:3", product)).isEqualTo(ExplanationQueue.QUEUED);
+            awaitIdle(queue);
+            assertThat(queue.submit("id:3", product)).isEqualTo(ExplanationQueue.RECENTLY_GENERATED);
+            assertThat(calls.get()).isEqualTo(1);
+
+            Thread.sleep(250);
+            assertThat(queue.submit("id:3", product)).isEqualTo(ExplanationQueue.QUEUED);
+            awaitIdle(queue);
+            assertThat(calls.get()).isEqualTo(2);
+            assertThat(queue.stats()).containsEntry("recentlyGenerated", 1L);
+        } finally {
+            queue.shutdown();
+        }
+    }
+
+    private static CatalogProperties.Explanations properties() {
+        CatalogProperties.Explanations properties = new CatalogProperties.Explanations();
+        properties.setWorkers(2);
+        properties.setMaxPerSecond(0.0);
+        return properties;
+    }
+
+    private static void awaitIdle(ExplanationQueue queue) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!queue.isIdle() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(queue.isIdle()).isTrue();
+    }
+}
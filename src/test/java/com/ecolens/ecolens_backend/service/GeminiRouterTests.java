@@ -0,0 +1,169 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+class GeminiRouterTests {
+
+    private static final URI V1BETA = URI.create("https://example.test/v1beta/models/fast:generateContent");
+    private static final URI V1 = URI.create("https://example.test/v1/models/fast:generateContent");
+
+    @Test
+    void fastestHealthyModelGoesFirstAndOpenBreakersAreSkipped() {
+        GeminiRouter router = new GeminiRouter(2, 60_000L, 60_000L);
+        router.recordSuccess("slow", V1BETA, TimeUnit.MILLISECONDS.toNanos(900));
+        router.recordSuccess("fast", V1BETA, TimeUnit.MILLISECONDS.toNanos(120));
+        router.recordQuotaExceeded("quota", V1BETA, 0L);
+        router.recordFailure("flaky", V1BETA);
+
+        // "untried" keeps its configured slot; "flaky" is charged the mean latency at 70% success.
+        assertThat(router.orderModels(List.of("slow", "untried", "quota", "flaky", "fast")))
+                .containsExactly("fast", "untried", "flaky", "slow");
+
+        router.recordFailure("flaky", V1BETA);
+        assertThat(router.tryAcquire("flaky")).isNull();
+        assertThat(router.orderModels(List.of("flaky", "fast"))).containsExactly("fast");
+    }
+
+    @Test
+    void preferredModelThatFailedOnceRecoversItsSlotBehindASucceedingFallback() throws InterruptedException {
+        GeminiRouter router = new GeminiRouter(3, 20L, 60_000L);
+        router.recordFailure("preferred", V1BETA);
+        router.recordSuccess("fallback", V1BETA, TimeUnit.MILLISECONDS.toNanos(300));
+
+        assertThat(router.orderModels(List.of("preferred", "fallback"))).containsExactly("fallback", "preferred");
+
+        // Ten breaker cool-downs later the failure no longer counts, although "preferred" was not called again.
+        Thread.sleep(200);
+        assertThat(router.orderModels(List.of("preferred", "fallback"))).containsExactly("preferred", "fallback");
+    }
+
+    @Test
+    void halfOpenBreakerAllowsOneTrialAndClosesOnSuccess() throws InterruptedException {
+        GeminiRouter router = new GeminiRouter(1, 1L, 1L);
+        router.recordFailure("model", V1BETA);
+        Thread.sleep(5);
+
+        assertThat(router.orderModels(List.of("model"))).containsExactly("model");
+        GeminiRouter.Permit trial = router.tryAcquire("model");
+        assertThat(trial).isNotNull();
+        assertThat(router.tryAcquire("model")).isNull();
+
+        router.recordSuccess("model", V1BETA, TimeUnit.MILLISECONDS.toNanos(50));
+        router.release(trial);
+        assertThat(router.tryAcquire("model")).isNotNull();
+        assertThat(router.tryAcquire("model")).isNotNull();
+    }
+
+    @Test
+    void releasedTrialWithoutOutcomeLetsTheNextCallerTry() throws InterruptedException {
+        GeminiRouter router = new GeminiRouter(1, 1L, 1L);
+        router.recordFailure("model", V1BETA);
+        Thread.sleep(5);
+
+        GeminiRouter.Permit trial = router.tryAcquire("model");
+        assertThat(router.orderModels(List.of("model"))).isEmpty();
+        router.release(trial);
+
+        assertThat(router.orderModels(List.of("model"))).containsExactly("model");
+        assertThat(router.tryAcquire("model")).isNotNull();
+    }
+
+    @Test
+    void visionAttemptThatThrowsBeforeSendingCountsAsFailureAndFreesItsTrial() throws Exception {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("llm.provider", "gemini")
+                .withProperty("gemini.api.key", "test-key")
+                .withProperty("llm.routing.failure-threshold", "1")
+                .withProperty("llm.routing.open-ms", "1")
+                .withProperty("llm.vision.hedged", "false")
+                .withProperty("llm.vision.cache.enabled", "false")
+                .withProperty("llm.vision.preprocess.enabled", "false");
+        LLMService llmService = new LLMService(environment) {
+            @Override
+            String buildGeminiVisionRequestBody(String imageBase64, String mimeType) {
+                throw new IllegalStateException("request body unavailable");
+            }
+        };
+        String image = Base64.getEncoder().encodeToString(pngBytes());
+
+        assertThat(llmService.detectLabelFromImage(image)).isEmpty();
+        Thread.sleep(5);
+        // Every breaker is half-open now; each trial throws again and must still be admitted and recorded.
+        assertThat(llmService.detectLabelFromImage(image)).isEmpty();
+        Thread.sleep(5);
+
+        Map<?, ?> models = (Map<?, ?>) llmService.routingStats().get("models");
+        assertThat(models).isNotEmpty();
+        models.values().forEach(stats -> assertThat(((Map<?, ?>) stats).get("failures")).isEqualTo(2L));
+        assertThat(llmService.routingStats().get("visionCandidates")).asList().hasSize(models.size());
+        // Vision failures are kept apart from the explanation breakers of the same models.
+        assertThat((Map<?, ?>) llmService.routingStats().get("textModels")).isEmpty();
+    }
+
+    @Test
+    void saturatedVisionPoolSkipsTheHedgeInsteadOfRunningItOnTheRequestThread() throws Exception {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("llm.provider", "gemini")
+                .withProperty("gemini.api.key", "test-key")
+                .withProperty("llm.vision.max-threads", "1")
+                .withProperty("llm.vision.hedge-delay-ms", "20")
+                .withProperty("llm.vision.cache.enabled", "false")
+                .withProperty("llm.vision.preprocess.enabled", "false");
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger callsWhilePrimaryRan = new AtomicInteger();
+        LLMService llmService = new LLMService(environment) {
+            @Override
+            String buildGeminiVisionRequestBody(String imageBase64, String mimeType) {
+                if (calls.incrementAndGet() == 1) {
+                    try {
+                        Thread.sleep(300);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    callsWhilePrimaryRan.set(calls.get());
+                }
+                throw new IllegalStateException("request body unavailable");
+            }
+        };
+
+        assertThat(llmService.detectLabelFromImage(Base64.getEncoder().encodeToString(pngBytes()))).isEmpty();
+
+        // The only thread was busy with the primary, so no second call started before it finished.
+        assertThat(callsWhilePrimaryRan.get()).isEqualTo(1);
+        Map<?, ?> pool = (Map<?, ?>) llmService.routingStats().get("visionPool");
+        assertThat(pool.get("hedgesSkippedSaturated")).isEqualTo(1L);
+        assertThat(calls.get()).isEqualTo(((List<?>) llmService.routingStats().get("visionCandidates")).size());
+    }
+
+    private static byte[] pngBytes() throws IOException {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void endpointThatAnsweredIsTriedFirstAndUnsupportedOneIsSkipped() {
+        GeminiRouter router = new GeminiRouter(3, 60_000L, 60_000L);
+        router.recordUnsupportedEndpoint("fast", V1BETA);
+        router.recordSuccess("fast", V1, TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertThat(router.orderEndpoints("fast", List.of(V1BETA, V1))).containsExactly(V1);
+        assertThat(router.orderEndpoints("other", List.of(V1BETA, V1))).containsExactly(V1BETA, V1);
+    }
+}
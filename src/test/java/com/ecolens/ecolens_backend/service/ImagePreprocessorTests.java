@@ -0,0 +1,158 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+class ImagePreprocessorTests {
+
+    @Test
+    void largeImageIsDownscaledAndReencodedAsJpeg() throws IOException {
+        ImagePreprocessor preprocessor = new ImagePreprocessor(512, 0.8, 4_000_000L, 1, 4);
+        try {
+            byte[] png = encodePng(noisyImage(1200, 900));
+            String base64 = Base64.getEncoder().encodeToString(png);
+
+            BufferedImage decoded = preprocessor.decode(png);
+            ImagePreprocessor.PreparedImage prepared = preprocessor.prepare(png, base64, "image/png", decoded);
+
+            // Subsampled by 2 while decoding, then scaled the rest of the way.
+            assertThat(decoded.getWidth()).isEqualTo(600);
+            assertThat(prepared.mimeType()).isEqualTo("image/jpeg");
+            assertThat(prepared.bytesSaved()).isPositive();
+            BufferedImage uploaded = ImageIO.read(new ByteArrayInputStream(Base64.getDecoder().decode(prepared.base64())));
+            assertThat(uploaded.getWidth()).isEqualTo(512);
+            assertThat(uploaded.getHeight()).isEqualTo(384);
+            assertThat(preprocessor.stats()).containsEntry("reencoded", 1L);
+        } finally {
+            preprocessor.shutdown();
+        }
+    }
+
+    @Test
+    void unreadableImageIsSentUnchanged() {
+        ImagePreprocessor preprocessor = new ImagePreprocessor(512, 0.8, 4_000_000L, 1, 4);
+        try {
+            byte[] webp = {'R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'E', 'B', 'P'};
+            String base64 = Base64.getEncoder().encodeToString(webp);
+
+            ImagePreprocessor.PreparedImage prepared =
+                    preprocessor.prepare(webp, base64, "image/webp", preprocessor.decode(webp));
+
+            assertThat(prepared.base64()).isEqualTo(base64);
+            assertThat(prepared.mimeType()).isEqualTo("image/webp");
+            assertThat(prepared.bytesSaved()).isZero();
+        } finally {
+            preprocessor.shutdown();
+        }
+    }
+
+    @Test
+    void oversizedHeaderIsRefusedBeforeDecoding() {
+        ImagePreprocessor preprocessor = new ImagePreprocessor(512, 0.8, 4_000_000L, 1, 4);
+        try {
+            byte[] bomb = pngHeaderOnly(30_000, 30_000);
+
+            assertThat(preprocessor.decode(bomb)).isNull();
+            assertThat(preprocessor.stats()).containsEntry("oversized", 1L);
+        } finally {
+            preprocessor.shutdown();
+        }
+    }
+
+    @Test
+    void exifOrientationIsAppliedBeforeDownscaling() throws IOException {
+        ImagePreprocessor preprocessor = new ImagePreprocessor(512, 0.8, 4_000_000L, 1, 4);
+        try {
+            byte[] jpeg = withExifOrientation(encode(noisyImage(1200, 600), "jpg"), 6);
+            String base64 = Base64.getEncoder().encodeToString(jpeg);
+
+            assertThat(ImagePreprocessor.exifOrientation(jpeg)).isEqualTo(6);
+            ImagePreprocessor.PreparedImage prepared =
+                    preprocessor.prepare(jpeg, base64, "image/jpeg", preprocessor.decode(jpeg));
+
+            BufferedImage uploaded = ImageIO.read(new ByteArrayInputStream(Base64.getDecoder().decode(prepared.base64())));
+            assertThat(uploaded.getWidth()).isEqualTo(256);
+            assertThat(uploaded.getHeight()).isEqualTo(512);
+        } finally {
+            preprocessor.shutdown();
+        }
+    }
+
+    @Test
+    void rotationMovesPixelsToTheUprightPosition() {
+        BufferedImage image = new BufferedImage(4, 2, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0xFF0000);
+
+        // Orientation 6 is displayed after a 90 degree clockwise turn: the top-left pixel ends up top-right.
+        BufferedImage upright = ImagePreprocessor.applyOrientation(image, 6);
+
+        assertThat(upright.getWidth()).isEqualTo(2);
+        assertThat(upright.getHeight()).isEqualTo(4);
+        assertThat(upright.getRGB(1, 0) & 0xFFFFFF).isEqualTo(0xFF0000);
+        assertThat(ImagePreprocessor.applyOrientation(image, 1)).isSameAs(image);
+    }
+
+    // Inserts a big-endian Exif APP1 segment holding only the orientation tag right after the SOI marker.
+    private static byte[] withExifOrientation(byte[] jpeg, int orientation) {
+        byte[] app1 = {
+                (byte) 0xFF, (byte) 0xE1, 0, 34,
+                'E', 'x', 'i', 'f', 0, 0,
+                'M', 'M', 0, 42, 0, 0, 0, 8,
+                0, 1,
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0,
+                0, 0, 0, 0
+        };
+        byte[] out = new byte[jpeg.length + app1.length];
+        System.arraycopy(jpeg, 0, out, 0, 2);
+        System.arraycopy(app1, 0, out, 2, app1.length);
+        System.arraycopy(jpeg, 2, out, 2 + app1.length, jpeg.length - 2);
+        return out;
+    }
+
+    // A PNG signature and IHDR chunk declaring an RGB canvas of the given size, with no image data after it.
+    private static byte[] pngHeaderOnly(int width, int height) {
+        ByteBuffer ihdr = ByteBuffer.allocate(17).put("IHDR".getBytes(StandardCharsets.US_ASCII))
+                .putInt(width).putInt(height).put((byte) 8).put((byte) 2).put((byte) 0).put((byte) 0).put((byte) 0);
+        CRC32 crc = new CRC32();
+        crc.update(ihdr.array());
+        return ByteBuffer.allocate(8 + 4 + 17 + 4)
+                .put(new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'})
+                .putInt(13).put(ihdr.array()).putInt((int) crc.getValue())
+                .array();
+    }
+
+    private static BufferedImage noisyImage(int width, int height) {
+        Random random = new Random(7);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int shade = (x * 255 / width + random.nextInt(32)) & 0xFF;
+                image.setRGB(x, y, shade << 16 | (y * 255 / height) << 8 | random.nextInt(256));
+            }
+        }
+        return image;
+    }
+
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        return encode(image, "png");
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,58 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.data.Offset.offset;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class KllSketchTests {
+
+    @Test
+    void percentileRankStaysWithinReportedErrorBound() {
+        Random random = new Random(11);
+        double[] values = new double[200_000];
+        KllSketch sketch = new KllSketch(200);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian() * 1.5 + 4.0);
+            sketch.update(values[i]);
+        }
+
+        Arrays.sort(values);
+        assertThat(sketch.count()).isEqualTo(values.length);
+        assertThat(sketch.retained()).isLessThan(2_000);
+        for (int i = 0; i < values.length; i += 997) {
+            double exact = (double) i / (values.length - 1);
+            assertThat(sketch.percentileRank(values[i])).isCloseTo(exact, offset(sketch.normalizedRankError()));
+        }
+    }
+
+    @Test
+    void serializedSketchRoundTripsAndMerges() {
+        KllSketch left = new KllSketch(64);
+        KllSketch right = new KllSketch(64);
+        for (int i = 0; i < 10_000; i++) {
+            left.update(i);
+            right.update(10_000 + i);
+        }
+
+        KllSketch restored = KllSketch.deserialize(right.serialize());
+        assertThat(restored.count()).isEqualTo(right.count());
+        assertThat(restored.percentileRank(15_000)).isEqualTo(right.percentileRank(15_000));
+
+        left.merge(restored);
+        assertThat(left.count()).isEqualTo(20_000);
+        assertThat(left.percentileRank(10_000)).isCloseTo(0.5, offset(left.normalizedRankError()));
+    }
+
+    @Test
+    void rejectsCorruptSketch() {
+        byte[] bytes = new KllSketch(64).serialize();
+
+        assertThatThrownBy(() -> KllSketch.deserialize(Arrays.copyOf(bytes, bytes.length - 2)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class LabelSpellIndexTests {
+
+    @Test
+    void batchAddMatchesTermByTermAdd() {
+        List<String> terms = List.of("bottle", "battle", "bottles", "cable", "table", "bottle");
+        LabelSpellIndex batched = new LabelSpellIndex();
+        batched.addAll(terms);
+        LabelSpellIndex single = new LabelSpellIndex();
+        terms.forEach(single::add);
+
+        assertThat(batched.size()).isEqualTo(5).isEqualTo(single.size());
+        for (String input : List.of("botle", "bottel", "cabel", "tabel", "battel", "xyz")) {
+            assertThat(batched.nearest(input, 2)).isEqualTo(single.nearest(input, 2));
+        }
+        // Ties go to the earlier term: "bottle" and "battle" are both one edit from "bxttle".
+        assertThat(batched.nearest("bxttle", 2)).contains("bottle");
+    }
+
+    @Test
+    void laterBatchesExtendExistingDeleteKeys() {
+        LabelSpellIndex index = new LabelSpellIndex();
+        index.addAll(List.of("bottle"));
+        index.addAll(List.of("bottles", "bottle"));
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.nearest("botle", 2)).contains("bottle");
+        assertThat(index.nearest("botles", 2)).contains("bottles");
+    }
+}
@@ -0,0 +1,75 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.ecolens.ecolens_backend.dto.RecognitionResponse;
+import com.ecolens.ecolens_backend.model.Product;
+import com.ecolens.ecolens_backend.repository.ProductRepository;
+
+@SpringBootTest(properties = {
+        "catalog.auto-learn-require-image=false",
+        "catalog.semantic.enabled=false"
+})
+class ProductServiceAutoLearnTests {
+
+    private static final String LABEL = "zyqorvex gizmo";
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void concurrentScansOfNewLabelStoreOneProduct() throws Exception {
+        int scans = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(scans);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<CompletableFuture<RecognitionResponse>> responses = IntStream.range(0, scans)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                        awaitQuietly(start);
+                        return productService.handleRecognition(LABEL, null, 0.9);
+                    }, executor))
+                    .toList();
+            start.countDown();
+            for (CompletableFuture<RecognitionResponse> response : responses) {
+                assertThat(response.get().getName()).isEqualTo("Zyqorvex Gizmo");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        productService.flushAutoLearnWrites();
+
+        List<Product> stored = productRepository.findAll().stream()
+                .filter(product -> "Zyqorvex Gizmo".equals(product.getName()))
+                .toList();
+        assertThat(stored).hasSize(1);
+        assertThat(productService.autoLearnStats().get("upserts")).isEqualTo(1L);
+        assertThat(productService.autoLearnStats().get("pendingWrites")).isEqualTo(0);
+
+        RecognitionResponse afterWrite = productService.handleRecognition(LABEL, null, 0.9);
+        assertThat(afterWrite.getCatalogMatchStrategy()).isEqualTo("exact");
+        assertThat(afterWrite.getCatalogAutoLearned()).isFalse();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
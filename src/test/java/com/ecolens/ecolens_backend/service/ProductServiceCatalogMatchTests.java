@@ -0,0 +1,108 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.ecolens.ecolens_backend.dto.RecognitionResponse;
+
+@SpringBootTest
+class ProductServiceCatalogMatchTests {
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void categoryLabelResolvesToFirstCatalogProductExactly() {
+        RecognitionResponse response = productService.handleRecognition("Plastic Bottle", null, 0.9);
+
+        assertThat(response.getCatalogMatchStrategy()).isEqualTo("exact");
+        assertThat(response.getName()).isEqualTo("Single-use Plastic Bottle");
+    }
+
+    @Test
+    void labelSharingCatalogTokensResolvesFuzzily() {
+        RecognitionResponse response = productService.handleRecognition("stainless steel tumbler mug", null, 0.9);
+
+        assertThat(response.getCatalogMatchStrategy()).isEqualTo("fuzzy");
+        assertThat(response.getName()).isEqualTo("Stainless Steel Tumbler");
+    }
+
+    @Test
+    void truncatedLabelResolvesThroughTrigramMatcher() {
+        RecognitionResponse response = productService.handleRecognition("alumin cans", null, 0.9);
+
+        assertThat(response.getCatalogMatchStrategy()).isEqualTo("fuzzy");
+        assertThat(response.getName()).isEqualTo("Aluminum Can");
+    }
+
+    @Test
+    void misspelledLabelIsSpellCorrectedBeforeCatalogLookup() {
+        RecognitionResponse response = productService.handleRecognition("alumnium can", null, 0.9);
+
+        assertThat(response.getCatalogMatchStrategy()).isEqualTo("exact");
+        assertThat(response.getName()).isEqualTo("Aluminum Can");
+    }
+
+    @Test
+    void misspelledTokenIsSpellCorrectedBeforeCatalogLookup() {
+        RecognitionResponse response = productService.handleRecognition("plastic bottel", null, 0.9);
+
+        assertThat(response.getCatalogMatchStrategy()).isEqualTo("exact");
+        assertThat(response.getName()).isEqualTo("Single-use Plastic Bottle");
+    }
+
+    @Test
+    void labelWithUnrelatedTokenDoesNotResolveThroughTrigramMatcher() {
+        RecognitionResponse response = productService.handleRecognition("bottle opener", null, 0.9);
+
+        assertThat(response.getCatalogMatchStrategy()).isEqualTo("none");
+    }
+
+    @Test
+    void taxonomySynonymResolvesThroughSemanticMatcher() {
+        RecognitionResponse response = productService.handleRecognition("water flask", null, 0.9);
+
+        assertThat(response.getCatalogMatchStrategy()).isEqualTo("semantic");
+        assertThat(response.getName()).isEqualTo("Reusable Bottle");
+    }
+
+    @Test
+    void repeatedLabelIsServedFromResolutionCache() {
+        RecognitionResponse first = productService.handleRecognition("paper cup", null, 0.9);
+        long hitsBefore = (long) productService.resolutionCacheStats().get("hits");
+
+        RecognitionResponse second = productService.handleRecognition("paper cup", null, 0.9);
+
+        assertThat((long) productService.resolutionCacheStats().get("hits")).isEqualTo(hitsBefore + 1);
+        assertThat(second.getName()).isEqualTo(first.getName());
+        assertThat(second.getEcoScore()).isEqualTo(first.getEcoScore());
+    }
+
+    @Test
+    void catalogProductRatingIsServedFromMaterializedBreakdown() {
+        productService.invalidateResolutionCache();
+        RecognitionResponse first = productService.handleRecognition("glass bottle", null, 0.9);
+        long hitsBefore = (long) productService.resolutionCacheStats().get("materializedRatingHits");
+
+        productService.invalidateResolutionCache();
+        RecognitionResponse second = productService.handleRecognition("glass bottle", null, 0.9);
+
+        assertThat((long) productService.resolutionCacheStats().get("materializedRatingHits")).isGreaterThan(hitsBefore);
+        assertThat(second.getEcoScore()).isEqualTo(first.getEcoScore());
+        assertThat(second.getScoreFactors()).isEqualTo(first.getScoreFactors());
+    }
+
+    @Test
+    void summaryDetailOmitsScoreFactorsButKeepsScore() {
+        RecognitionResponse summary = productService.handleRecognition("bottle opener", null, 0.9, false);
+        RecognitionResponse full = productService.handleRecognition("bottle opener", null, 0.9, true);
+
+        assertThat(summary.getScoreFactors()).isNull();
+        assertThat(full.getScoreFactors()).isNotEmpty();
+        assertThat(summary.getEcoScore()).isEqualTo(full.getEcoScore());
+        assertThat(summary.getAltRecommendation()).isEqualTo(full.getAltRecommendation());
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import com.ecolens.ecolens_backend.dto.RecognitionResponse;
+import com.ecolens.ecolens_backend.model.Product;
+import com.ecolens.ecolens_backend.repository.ProductRepository;
+
+@SpringBootTest(properties = {
+        "catalog.explanations.async=false",
+        "catalog.semantic.enabled=false"
+})
+class ProductServiceExplanationSaveTests {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void explanationSaveKeepsStoredRating() {
+        Product product = new Product("Qwzel Canteen", "bottle", 70, 120.0, "High", "", "",
+                "steel", true, false, 0, "reusable");
+        product.setRatedEcoScore(37);
+        product.setRatedScoringVersion("rated-test");
+        Product stored = productRepository.save(product);
+
+        RecognitionResponse response = productService.handleRecognition("qwzel canteen", null, 0.9);
+
+        assertThat(response.getCatalogMatchStrategy()).isEqualTo("exact");
+        Product saved = productRepository.findById(stored.getId()).orElseThrow();
+        assertThat(saved.getExplanation()).isEqualTo("Generated for Qwzel Canteen");
+        assertThat(saved.getRatedEcoScore()).isEqualTo(37);
+        assertThat(saved.getRatedScoringVersion()).isEqualTo("rated-test");
+    }
+
+    @TestConfiguration
+    static class StubExplanations {
+
+        @Bean
+        @Primary
+        LLMService stubLlmService(Environment environment) {
+            return new LLMService(environment) {
+                @Override
+                public String generateExplanation(Product product) {
+                    return "Generated for " + product.getName();
+                }
+            };
+        }
+    }
+}
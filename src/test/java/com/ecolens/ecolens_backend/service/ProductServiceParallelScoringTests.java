@@ -0,0 +1,37 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.ecolens.ecolens_backend.dto.RecognitionResponse;
+
+@SpringBootTest(properties = {
+        "catalog.parallel-scoring.min-candidates=1",
+        "catalog.parallel-scoring.parallelism=4",
+        "catalog.parallel-scoring.chunk-size=2",
+        "catalog.resolution-cache.enabled=false"
+})
+class ProductServiceParallelScoringTests {
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void parallelScoringPicksSameProductAsSequentialScan() {
+        RecognitionResponse response = productService.handleRecognition("stainless steel tumbler mug", null, 0.9);
+
+        assertThat(response.getCatalogMatchStrategy()).isEqualTo("fuzzy");
+        assertThat(response.getName()).isEqualTo("Stainless Steel Tumbler");
+    }
+
+    @Test
+    void parallelScoringKeepsFirstCandidateOnTies() {
+        RecognitionResponse response = productService.handleRecognition("plastic", null, 0.9);
+
+        assertThat(response.getCatalogMatchStrategy()).isEqualTo("fuzzy");
+        assertThat(response.getName()).isEqualTo("Single-use Plastic Bottle");
+    }
+}
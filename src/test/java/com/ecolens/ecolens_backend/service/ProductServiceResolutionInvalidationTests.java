@@ -0,0 +1,40 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.ecolens.ecolens_backend.dto.RecognitionResponse;
+
+@SpringBootTest(properties = {
+        "catalog.auto-learn-require-image=false",
+        "catalog.semantic.enabled=false",
+        "catalog.resolution-cache.maximum-size=512"
+})
+class ProductServiceResolutionInvalidationTests {
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void savedProductDropsOnlyCachedLabelsSharingATrigram() {
+        productService.handleRecognition("glass bottle", null, 0.9);
+        productService.handleRecognition("aluminum can", null, 0.9);
+
+        RecognitionResponse learned = productService.handleRecognition("assqorvex", null, 0.9);
+        assertThat(learned.getCatalogAutoLearned()).isTrue();
+
+        // "aluminum can" shares no trigram with the learned product and stays cached; "glass bottle" shares "ass".
+        long hitsBefore = hits();
+        productService.handleRecognition("aluminum can", null, 0.9);
+        assertThat(hits()).isEqualTo(hitsBefore + 1);
+        productService.handleRecognition("glass bottle", null, 0.9);
+        assertThat(hits()).isEqualTo(hitsBefore + 1);
+    }
+
+    private long hits() {
+        return (long) productService.resolutionCacheStats().get("hits");
+    }
+}
@@ -0,0 +1,42 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.ecolens.ecolens_backend.dto.RecognitionResponse;
+
+@SpringBootTest(properties = {
+        "catalog.materialized-ratings.enabled=true",
+        "catalog.resolution-cache.enabled=false"
+})
+class ProductServiceSummaryRatingTests {
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void summaryModeBuildsNoScoreFactorsWithMaterializedRatings() {
+        long before = scoreFactorBuilds();
+
+        RecognitionResponse summary = productService.handleRecognition("Aluminum Can", null, 0.9, false);
+        assertThat(summary.getScoreFactors()).isNull();
+        assertThat(scoreFactorBuilds()).isEqualTo(before);
+
+        RecognitionResponse full = productService.handleRecognition("Aluminum Can", null, 0.9, true);
+        assertThat(full.getScoreFactors()).isNotEmpty();
+        assertThat(full.getEcoScore()).isEqualTo(summary.getEcoScore());
+        assertThat(scoreFactorBuilds()).isEqualTo(before + 1);
+
+        // The explained rating replaced the materialized one, so the next explaining request reuses it.
+        productService.handleRecognition("Aluminum Can", null, 0.9, true);
+        productService.handleRecognition("Aluminum Can", null, 0.9, false);
+        assertThat(scoreFactorBuilds()).isEqualTo(before + 1);
+    }
+
+    private long scoreFactorBuilds() {
+        return (Long) productService.resolutionCacheStats().get("scoreFactorBuilds");
+    }
+}
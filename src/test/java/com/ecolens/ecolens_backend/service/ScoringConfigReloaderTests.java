@@ -0,0 +1,66 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.ecolens.ecolens_backend.dto.RecognitionResponse;
+
+@SpringBootTest(properties = {
+        "scoring.reload.file=target/scoring-reload-test.properties",
+        "scoring.reload.poll-interval-ms=0"
+})
+class ScoringConfigReloaderTests {
+
+    private static final Path RELOAD_FILE = Path.of("target/scoring-reload-test.properties");
+
+    @Autowired
+    private ScoringConfigReloader scoringConfigReloader;
+
+    @Autowired
+    private ProductService productService;
+
+    @AfterEach
+    void removeReloadFile() throws IOException {
+        Files.deleteIfExists(RELOAD_FILE);
+    }
+
+    @Test
+    void reloadAppliesFileOverridesAndRejectsInvalidConfig() throws IOException {
+        RecognitionResponse before = productService.handleRecognition("Plastic Bottle", null, 0.9);
+        Files.writeString(RELOAD_FILE, "scoring.version=v-reload-test\nscoring.adjustments.plastic-penalty=-40\n");
+
+        scoringConfigReloader.reload();
+        RecognitionResponse after = productService.handleRecognition("Plastic Bottle", null, 0.9);
+
+        assertThat(after.getScoringVersion()).isEqualTo("v-reload-test");
+        assertThat(after.getFeatureAdjustment()).isEqualTo(before.getFeatureAdjustment() - 30);
+
+        Files.writeString(RELOAD_FILE, "scoring.version=v-broken\nscoring.min-score=100\nscoring.max-score=0\n");
+        assertThatThrownBy(() -> scoringConfigReloader.reload()).isInstanceOf(ResponseStatusException.class);
+        assertThat(productService.scoringVersion()).isEqualTo("v-reload-test");
+        assertThat(scoringConfigReloader.status().get("lastError")).asString().contains("min-score");
+    }
+
+    @Test
+    void reloadRebuildsDefaultProductForUnmatchedLabels() throws IOException {
+        RecognitionResponse before = productService.handleRecognition("vorpelnix widget", null, 0.9);
+        assertThat(before.getCatalogMatchStrategy()).isEqualTo("none");
+        Files.writeString(RELOAD_FILE, "scoring.version=v-default-test\nscoring.default-carbon-impact-gram=345.0\n");
+
+        scoringConfigReloader.reload();
+        RecognitionResponse after = productService.handleRecognition("vorpelnix widget", null, 0.9);
+
+        assertThat(after.getCo2Gram()).isEqualTo(345.0);
+        assertThat(after.getCo2Gram()).isNotEqualTo(before.getCo2Gram());
+    }
+}
@@ -0,0 +1,192 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.ecolens.ecolens_backend.config.ScoringProperties;
+import com.ecolens.ecolens_backend.dto.ScoreFactor;
+
+class ScoringRuleTableTests {
+
+    private static final String[] WORDS = {
+            "plastic", "paper", "carton", "glass", "aluminum", "cloth", "bamboo", "jute", "steel", "cotton",
+            "refillable", "long", "life", "durable", "single", "use", "biodegradable", "compostable", "living",
+            "natural", "high", "medium", "low", "unknown", "organic", "bottle", "polyester", "lowest"
+    };
+
+    @Test
+    void defaultRulesMatchTheFormerHardCodedChain() {
+        ScoringProperties properties = new ScoringProperties();
+        ScoringRuleTable table = ScoringRuleTable.compile(properties);
+        Random random = new Random(3);
+        for (int i = 0; i < 5_000; i++) {
+            boolean singleUse = random.nextBoolean();
+            boolean reusable = random.nextBoolean();
+            String lifecycle = phrase(random);
+            String material = random.nextInt(4) == 0 ? "" : phrase(random);
+            String combined = phrase(random);
+            String recyclability = phrase(random);
+            int recycledContent = random.nextInt(101);
+
+            ScoringRuleTable.FeatureAdjustment actual = table.evaluate(singleUse, reusable, lifecycle,
+                    material.isBlank() ? combined : material,
+                    material.isBlank() ? "fallback_name_category" : "catalog_material",
+                    recyclability, recycledContent, true);
+            List<ScoreFactor> expected = new ArrayList<>();
+            int expectedTotal = referenceAdjustment(properties, singleUse, reusable, material, combined, lifecycle,
+                    recyclability, recycledContent, expected);
+
+            assertThat(actual.total()).isEqualTo(expectedTotal);
+            assertThat(actual.factors()).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected);
+            assertThat(table.evaluate(singleUse, reusable, lifecycle, material.isBlank() ? combined : material,
+                    "", recyclability, recycledContent, false).total()).isEqualTo(expectedTotal);
+            long textMask = table.matchText(lifecycle, material.isBlank() ? combined : material, recyclability);
+            assertThat(table.adjustment(textMask, singleUse, reusable, recycledContent)).isEqualTo(expectedTotal);
+        }
+    }
+
+    @Test
+    void configuredRulesReplaceDefaultsAndHonourExclusiveGroups() {
+        List<ScoringProperties.FeatureRule> rules = List.of(
+                new ScoringProperties.FeatureRule("steel_bonus", "Steel bonus", "material", List.of("stainless steel"),
+                        7, null, "metal", "material contains steel"),
+                new ScoringProperties.FeatureRule("metal_bonus", "Metal bonus", "material", List.of("steel", "iron"),
+                        3, null, "metal", "material contains metal"),
+                new ScoringProperties.FeatureRule("reuse_bonus", "Reuse bonus", "reusable", List.of(),
+                        5, null, null, "isReusable=true"));
+        ScoringRuleTable table = ScoringRuleTable.compile(rules);
+
+        ScoringRuleTable.FeatureAdjustment stainless = table.evaluate(false, true, "", "stainless steel", "catalog_material",
+                "", 0, true);
+        ScoringRuleTable.FeatureAdjustment iron = table.evaluate(false, false, "", "cast iron", "catalog_material", "", 0, true);
+
+        assertThat(stainless.total()).isEqualTo(12);
+        assertThat(stainless.factors()).extracting(ScoreFactor::getCode).containsExactly("steel_bonus", "reuse_bonus");
+        assertThat(iron.total()).isEqualTo(3);
+    }
+
+    @Test
+    void rejectsUnknownField() {
+        List<ScoringProperties.FeatureRule> rules = List.of(
+                new ScoringProperties.FeatureRule("x", "X", "colour", List.of("red"), 1, null, null, ""));
+
+        assertThatThrownBy(() -> ScoringRuleTable.compile(rules)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static String phrase(Random random) {
+        StringBuilder out = new StringBuilder();
+        int words = random.nextInt(4);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                out.append(' ');
+            }
+            out.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return out.toString();
+    }
+
+    private static boolean containsAny(String text, String... phrases) {
+        for (String phrase : phrases) {
+            if (text.contains(phrase)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The if-chain computeFeatureAdjustment used before rules became configurable.
+    private static int referenceAdjustment(ScoringProperties properties, boolean singleUse, boolean reusable,
+                                           String material, String combined, String lifecycle, String recyclability,
+                                           int recycledContent, List<ScoreFactor> factors) {
+        ScoringProperties.Adjustments a = properties.getAdjustments();
+        ScoringProperties.FeatureThresholds t = properties.getFeatureThresholds();
+        String context = material.isBlank() ? combined : material;
+        String source = material.isBlank() ? "fallback_name_category" : "catalog_material";
+        int total = 0;
+        if (singleUse) {
+            total += a.getSingleUsePenalty();
+            factors.add(new ScoreFactor("single_use_penalty", "Single-use penalty", (double) a.getSingleUsePenalty(),
+                    "lifecycle indicates single-use"));
+        }
+        if (reusable) {
+            total += a.getReusableBonus();
+            factors.add(new ScoreFactor("reusable_bonus", "Reusable bonus", (double) a.getReusableBonus(),
+                    "isReusable=true or lifecycle indicates reusable"));
+        }
+        if (containsAny(lifecycle, "refillable")) {
+            total += a.getRefillableLifecycleBonus();
+            factors.add(new ScoreFactor("refillable_lifecycle_bonus", "Refillable lifecycle bonus",
+                    (double) a.getRefillableLifecycleBonus(), "lifecycleType=refillable"));
+        }
+        if (containsAny(lifecycle, "long life", "durable")) {
+            total += a.getLongLifeLifecycleBonus();
+            factors.add(new ScoreFactor("long_life_lifecycle_bonus", "Long-life lifecycle bonus",
+                    (double) a.getLongLifeLifecycleBonus(), "lifecycleType=long_life/durable"));
+        }
+        if (containsAny(lifecycle, "biodegradable", "compostable")) {
+            total += a.getBiodegradableLifecycleBonus();
+            factors.add(new ScoreFactor("biodegradable_lifecycle_bonus", "Biodegradable lifecycle bonus",
+                    (double) a.getBiodegradableLifecycleBonus(), "lifecycleType=biodegradable/compostable"));
+        }
+        if (containsAny(lifecycle, "living natural", "nature positive", "natural living")) {
+            total += a.getNaturePositiveBonus();
+            factors.add(new ScoreFactor("nature_positive_bonus", "Natural item bonus",
+                    (double) a.getNaturePositiveBonus(), "lifecycleType=living_natural"));
+        }
+        if (containsAny(context, "plastic", "polystyrene", "polyester")) {
+            total += a.getPlasticPenalty();
+            factors.add(new ScoreFactor("plastic_penalty", "Plastic material penalty", (double) a.getPlasticPenalty(),
+                    "source=" + source + ", material contains plastic"));
+        }
+        if (containsAny(context, "paper", "carton")) {
+            total += a.getPaperPenalty();
+            factors.add(new ScoreFactor("paper_penalty", "Paper material adjustment", (double) a.getPaperPenalty(),
+                    "source=" + source + ", material contains paper/carton"));
+        }
+        if (containsAny(context, "aluminum", "glass")) {
+            total += a.getAluminumGlassBonus();
+            factors.add(new ScoreFactor("aluminum_glass_bonus", "Aluminum/Glass bonus", (double) a.getAluminumGlassBonus(),
+                    "source=" + source + ", material contains aluminum/glass"));
+        }
+        if (containsAny(context, "cloth", "jute", "bamboo", "beeswax")) {
+            total += a.getClothRecycledBonus();
+            factors.add(new ScoreFactor("cloth_recycled_bonus", "Cloth/Recycled bonus", (double) a.getClothRecycledBonus(),
+                    "source=" + source + ", material contains cloth/jute/bamboo/beeswax"));
+        }
+        if (recycledContent >= t.getRecycledContentHighPercent()) {
+            total += a.getRecycledContentHighBonus();
+            factors.add(new ScoreFactor("recycled_content_high_bonus", "High recycled-content bonus",
+                    (double) a.getRecycledContentHighBonus(),
+                    "recycledContentPercent=" + recycledContent + ", threshold=" + t.getRecycledContentHighPercent()));
+        } else if (recycledContent >= t.getRecycledContentMediumPercent()) {
+            total += a.getRecycledContentMediumBonus();
+            factors.add(new ScoreFactor("recycled_content_medium_bonus", "Medium recycled-content bonus",
+                    (double) a.getRecycledContentMediumBonus(),
+                    "recycledContentPercent=" + recycledContent + ", threshold=" + t.getRecycledContentMediumPercent()));
+        }
+        if (containsAny(recyclability, "high")) {
+            total += a.getRecyclabilityHighBonus();
+            factors.add(new ScoreFactor("recyclability_high_bonus", "High recyclability bonus",
+                    (double) a.getRecyclabilityHighBonus(), "recyclability=high"));
+        } else if (containsAny(recyclability, "medium")) {
+            total += a.getRecyclabilityMediumBonus();
+            factors.add(new ScoreFactor("recyclability_medium_bonus", "Medium recyclability bonus",
+                    (double) a.getRecyclabilityMediumBonus(), "recyclability=medium"));
+        } else if (containsAny(recyclability, "low", "unknown")) {
+            total += a.getRecyclabilityLowPenalty();
+            factors.add(new ScoreFactor("recyclability_low_penalty", "Low recyclability penalty",
+                    (double) a.getRecyclabilityLowPenalty(), "recyclability=low/unknown"));
+        } else if (containsAny(recyclability, "organic")) {
+            total += a.getRecyclabilityOrganicBonus();
+            factors.add(new ScoreFactor("recyclability_organic_bonus", "Organic recyclability bonus",
+                    (double) a.getRecyclabilityOrganicBonus(), "recyclability=organic"));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,105 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.ecolens.ecolens_backend.dto.ScoringSimulationRequest;
+import com.ecolens.ecolens_backend.model.Product;
+import com.ecolens.ecolens_backend.model.ScanHistoryEntry;
+import com.ecolens.ecolens_backend.repository.ProductRepository;
+import com.ecolens.ecolens_backend.repository.ScanHistoryRepository;
+
+@SpringBootTest
+class ScoringSimulationServiceTests {
+
+    @Autowired
+    private ScoringSimulationService scoringSimulationService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ScanHistoryRepository scanHistoryRepository;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void baselineReproducesLiveCatalogScoresAndCandidatesReportDeltas() {
+        ScoringSimulationRequest request = new ScoringSimulationRequest();
+        request.setBucketWidth(1);
+        request.setThresholds(List.of(40));
+        request.setIncludeHistory(false);
+        request.setCandidates(List.of(
+                new ScoringSimulationRequest.Candidate("same", Map.of()),
+                new ScoringSimulationRequest.Candidate("lenient-plastic", Map.of("adjustments", Map.of("plastic-penalty", 40)))));
+
+        Map<String, Object> result = scoringSimulationService.simulate(request);
+
+        List<Map<String, Object>> candidates = (List<Map<String, Object>>) result.get("candidates");
+        assertThat(candidates).extracting(candidate -> candidate.get("name"))
+                .containsExactly("current", "same", "lenient-plastic");
+        List<Product> products = productRepository.findAll();
+        long[] expected = new long[101];
+        long expectedBelow = 0;
+        for (Product product : products) {
+            int score = productService.rateStoredProduct(product);
+            expected[score]++;
+            if (score < 40) {
+                expectedBelow++;
+            }
+        }
+        Map<String, Object> current = catalogScope(candidates.get(0));
+        List<Map<String, Object>> histogram = (List<Map<String, Object>>) current.get("histogram");
+        assertThat(current.get("weightedRows")).isEqualTo((long) products.size());
+        for (Map<String, Object> bucket : histogram) {
+            assertThat(bucket.get("count")).isEqualTo(expected[(Integer) bucket.get("from")]);
+        }
+        assertThat(((Map<String, Map<String, Object>>) current.get("belowThreshold")).get("40").get("count"))
+                .isEqualTo(expectedBelow);
+
+        assertThat(catalogScope(candidates.get(1)).get("changedFromBaseline")).isEqualTo(0L);
+        Map<String, Object> lenient = catalogScope(candidates.get(2));
+        assertThat((Long) lenient.get("changedFromBaseline")).isPositive();
+        assertThat((Double) lenient.get("meanShift")).isPositive();
+        assertThat((Long) ((Map<String, Map<String, Object>>) lenient.get("belowThreshold")).get("40").get("delta"))
+                .isNegative();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void historyRowsAreWeightedByScanCount() {
+        scanHistoryRepository.save(new ScanHistoryEntry("sim-user", "Plastic Bottle", "plastic", 20, 0.9, LocalDateTime.now()));
+        scanHistoryRepository.save(new ScanHistoryEntry("sim-user", "Plastic Bottle", "plastic", 20, 0.9, LocalDateTime.now()));
+        scanHistoryRepository.save(new ScanHistoryEntry("sim-user", "water flask", "bottle", 80, 0.9, LocalDateTime.now()));
+
+        Map<String, Object> result = scoringSimulationService.simulate(new ScoringSimulationRequest());
+
+        Map<String, Object> current = ((List<Map<String, Object>>) result.get("candidates")).get(0);
+        Map<String, Object> history = ((Map<String, Map<String, Object>>) current.get("scopes")).get("history");
+        assertThat(history.get("weightedRows")).isEqualTo(scanHistoryRepository.count());
+    }
+
+    @Test
+    void unknownOverrideIsRejected() {
+        ScoringSimulationRequest request = new ScoringSimulationRequest();
+        request.setCandidates(List.of(new ScoringSimulationRequest.Candidate("typo", Map.of("co2-wieght", 0.9))));
+
+        assertThatThrownBy(() -> scoringSimulationService.simulate(request)).isInstanceOf(ResponseStatusException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> catalogScope(Map<String, Object> candidate) {
+        return ((Map<String, Map<String, Object>>) candidate.get("scopes")).get("catalog");
+    }
+}
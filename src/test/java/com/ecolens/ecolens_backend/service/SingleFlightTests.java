@@ -0,0 +1,79 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTests {
+
+    @Test
+    void concurrentCallersShareOneCall() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>(0L);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<String>> results = IntStream.range(0, 8)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> flights.execute("id:1", () -> {
+                        calls.incrementAndGet();
+                        entered.countDown();
+                        await(release);
+                        return "explained";
+                    }), executor))
+                    .toList();
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+            while (flights.shared() < 7) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            for (CompletableFuture<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("explained");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(flights.inFlight()).isZero();
+
+        assertThat(flights.execute("id:1", () -> "again")).isEqualTo("again");
+        assertThat(flights.calls()).isEqualTo(2);
+    }
+
+    @Test
+    void completedOutcomeIsSharedWithinWindow() {
+        SingleFlight<String, String> flights = new SingleFlight<>(60_000L);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> flights.execute("id:2", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("quota exhausted");
+        })).hasMessage("quota exhausted");
+        assertThatThrownBy(() -> flights.execute("id:2", () -> {
+            calls.incrementAndGet();
+            return "unused";
+        })).hasMessage("quota exhausted");
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(flights.execute("id:3", () -> "other")).isEqualTo("other");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.ecolens.ecolens_backend.service;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Compares the regex normalization chains this replaced with TextNormalizer. Run main() and read
+// gc.alloc.rate.norm (bytes per call) from the GC profiler output.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextNormalizerBenchmark {
+
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+
+    @Param({"plastic bottle", "Single-use Plastic Bottle", "  Stainless_Steel  Tumbler (500ml) "})
+    public String label;
+
+    @Benchmark
+    public String regexLabel() {
+        String value = NON_ALPHANUMERIC.matcher(label.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+        return value.replaceAll("\\s+", " ");
+    }
+
+    @Benchmark
+    public String kernelLabel() {
+        return TextNormalizer.normalize(label);
+    }
+
+    @Benchmark
+    public String kernelLabelInterned() {
+        return TextNormalizer.normalizeInterned(label);
+    }
+
+    @Benchmark
+    public String regexKey() {
+        return label.trim()
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9]+", " ")
+                .trim()
+                .replaceAll("\\s+", "_");
+    }
+
+    @Benchmark
+    public String kernelKey() {
+        return TextNormalizer.normalize(label, '_');
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TextNormalizerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,63 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+class TextNormalizerTests {
+
+    private static final String[] SAMPLES = {
+            "", " ", "plastic bottle", "Single-use Plastic Bottle", "  Stainless_Steel  Tumbler (500ml) ",
+            "paper/cup", "a--b", "\tTAB\nnewline", "café crème", "__x__", "100% recycled", "-/-"
+    };
+
+    @Test
+    void matchesRegexNormalizationForLabels() {
+        for (String sample : SAMPLES) {
+            String expected = sample.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", " ").trim().replaceAll("\\s+", " ");
+            assertThat(TextNormalizer.normalize(sample)).as(sample).isEqualTo(expected);
+            assertThat(TextNormalizer.normalizeInterned(sample)).as(sample).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void matchesRegexNormalizationForKeysAndVisionLabels() {
+        for (String sample : SAMPLES) {
+            String key = sample.trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", " ").trim().replaceAll("\\s+", "_");
+            String vision = sample.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9\\s\\-/]", " ").replaceAll("\\s+", " ").trim();
+            assertThat(TextNormalizer.normalize(sample, '_')).as(sample).isEqualTo(key);
+            assertThat(TextNormalizer.normalize(sample, ' ', "-/")).as(sample).isEqualTo(vision);
+        }
+    }
+
+    @Test
+    void returnsNormalizedInputWithoutCopying() {
+        String normalized = "reusable coffee cup";
+
+        assertThat(TextNormalizer.normalize(normalized)).isSameAs(normalized);
+    }
+
+    @Test
+    void frequentLabelStaysInternedThroughOneOffInputs() {
+        // The cache is shared with every other test in the JVM. Enough one-off lookups to age the frequency sketch
+        // at least once (every 10 x maximumSize increments) keep labels earlier tests made frequent from
+        // out-ranking a new one, and the label is looked up a few times so admission favors it.
+        for (int i = 0; i < 12_000; i++) {
+            TextNormalizer.normalizeInterned("warm up label " + i);
+        }
+        String canonical = null;
+        for (int i = 0; i < 20; i++) {
+            canonical = TextNormalizer.normalizeInterned("Qwzel Glass Jar");
+        }
+        for (int i = 0; i < 20; i++) {
+            assertThat(TextNormalizer.normalizeInterned("  QWZEL glass-jar " + "!".repeat(i % 3))).isSameAs(canonical);
+        }
+        for (int i = 0; i < 5000; i++) {
+            TextNormalizer.normalizeInterned("one off label " + i);
+        }
+
+        assertThat(TextNormalizer.normalizeInterned("qwzel_glass_jar")).isSameAs(canonical);
+    }
+}
@@ -0,0 +1,103 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+class VisionLabelCacheTests {
+
+    private static final ImagePreprocessor DECODER = new ImagePreprocessor(512, 0.8, 4_000_000L, 1, 4);
+
+    @Test
+    void reuploadAndNearDuplicateFrameReuseCachedLabel() throws IOException {
+        VisionLabelCache cache = new VisionLabelCache(16, 60_000L, 5);
+        BufferedImage original = pattern(false);
+        byte[] png = encode(original, "png");
+        cache.put(fingerprint(cache, png), "paper cup");
+
+        assertThat(cache.lookup(fingerprint(cache, png))).contains("paper cup");
+
+        BufferedImage reshot = pattern(false);
+        reshot.setRGB(3, 3, 0xFFFFFF);
+        reshot.setRGB(40, 20, 0x000000);
+        assertThat(cache.lookup(fingerprint(cache, encode(reshot, "jpg")))).contains("paper cup");
+
+        assertThat(cache.lookup(fingerprint(cache, encode(pattern(true), "png")))).isEmpty();
+        assertThat(cache.stats())
+                .containsEntry("exactHits", 1L)
+                .containsEntry("perceptualHits", 1L)
+                .containsEntry("misses", 1L);
+    }
+
+    @Test
+    void undecodableBytesStillCacheByContent() {
+        VisionLabelCache cache = new VisionLabelCache(16, 60_000L, 5);
+        byte[] bytes = {1, 2, 3, 4};
+        VisionLabelCache.Fingerprint fingerprint = fingerprint(cache, bytes);
+        cache.put(fingerprint, "plastic bottle");
+
+        assertThat(fingerprint.perceptualHash()).isNull();
+        assertThat(cache.lookup(fingerprint(cache, bytes.clone()))).contains("plastic bottle");
+    }
+
+    @Test
+    void reuploadIsAnsweredFromContentKeyWithoutDecoding() throws IOException {
+        VisionLabelCache cache = new VisionLabelCache(16, 60_000L, 5);
+        byte[] png = encode(pattern(false), "png");
+        cache.put(fingerprint(cache, png), "glass jar");
+
+        VisionLabelCache.Fingerprint content = cache.contentFingerprint(png);
+        assertThat(content.perceptualHash()).isNull();
+        assertThat(cache.lookupExact(content)).contains("glass jar");
+        assertThat(cache.lookupExact(cache.contentFingerprint(encode(pattern(true), "png")))).isEmpty();
+        assertThat(cache.stats()).containsEntry("exactHits", 1L).containsEntry("misses", 0L);
+    }
+
+    @Test
+    void bandPostingsStayBoundedPastMaximumSize() {
+        long maximumSize = 4;
+        VisionLabelCache cache = new VisionLabelCache(maximumSize, 60_000L, 5);
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            long hash = random.nextLong();
+            cache.put(new VisionLabelCache.Fingerprint("content-" + i, hash), "label " + i);
+            if (i % 50 == 49) {
+                // Every cached hash has one posting per band, and evicted hashes have none.
+                Map<String, Object> stats = cache.stats();
+                assertThat((Long) stats.get("perceptualSize")).isLessThanOrEqualTo(maximumSize);
+                assertThat((Long) stats.get("bandPostings")).isEqualTo(8L * (Long) stats.get("perceptualSize"));
+            }
+        }
+    }
+
+    // Decodes the way LLMService does, through the guarded ImagePreprocessor decoder.
+    private static VisionLabelCache.Fingerprint fingerprint(VisionLabelCache cache, byte[] bytes) {
+        return cache.withImage(cache.contentFingerprint(bytes), DECODER.decode(bytes));
+    }
+
+    private static BufferedImage pattern(boolean mirrored) {
+        BufferedImage image = new BufferedImage(72, 64, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int column = mirrored ? image.getWidth() - 1 - x : x;
+                int shade = (int) (127 + 120 * Math.sin(column / 5.0 + y / 9.0));
+                image.setRGB(x, y, shade << 16 | shade << 8 | shade);
+            }
+        }
+        return image;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,55 @@
+package com.ecolens.ecolens_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class WriteBehindQueueTests {
+
+    @Test
+    void failedBatchIsRetriedUntilItIsWritten() {
+        AtomicInteger attempts = new AtomicInteger();
+        List<String> written = new CopyOnWriteArrayList<>();
+        List<String> abandoned = new CopyOnWriteArrayList<>();
+        WriteBehindQueue<String> queue = new WriteBehindQueue<>("test-writer", 8, 8, 3, batch -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("store unavailable");
+            }
+            written.addAll(batch);
+        }, abandoned::addAll);
+        try {
+            assertThat(queue.offer("a")).isTrue();
+            queue.flush();
+
+            assertThat(written).containsExactly("a");
+            assertThat(abandoned).isEmpty();
+            assertThat(queue.stats()).containsEntry("retried", 2L).containsEntry("failed", 0L);
+        } finally {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void itemsAreHandedBackAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+        List<String> abandoned = new CopyOnWriteArrayList<>();
+        WriteBehindQueue<String> queue = new WriteBehindQueue<>("test-writer", 8, 8, 2, batch -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("store unavailable");
+        }, abandoned::addAll);
+        try {
+            assertThat(queue.offer("a")).isTrue();
+            queue.flush();
+
+            assertThat(attempts.get()).isEqualTo(2);
+            assertThat(abandoned).containsExactly("a");
+            assertThat(queue.stats()).containsEntry("failed", 1L);
+        } finally {
+            queue.shutdown();
+        }
+    }
+}